@@ -0,0 +1,85 @@
+package studentrecordsystem.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import studentrecordsystem.recordsystem.GradeStatistics;
+import studentrecordsystem.recordsystem.RecordSystem;
+import studentrecordsystem.recordsystem.RosterAnalytics;
+import studentrecordsystem.student.Student;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full report (median, 90th percentile and per-initial distribution) computed by {@link RosterAnalytics} on pools
+ * of 1 to 8 workers, against the same report from a sequential pass over {@code getStudents()}. Compare the
+ * {@code workers} rows with each other for scaling; the snapshot copy is included in each report.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalyticsBenchmark {
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"1", "2", "4", "8"})
+    public int workers;
+
+    private RecordSystem sys;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUpRoster() {
+        sys = new RosterGenerator().fill(new RecordSystem(), size);
+        pool = new ForkJoinPool(workers);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutDownPool() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Object forkJoin() {
+        RosterAnalytics analytics = new RosterAnalytics(sys, pool);
+        SortedMap<Character, GradeStatistics> distribution = analytics.distributionByInitial();
+        return analytics.summary().median() + analytics.percentile(90) + distribution.size();
+    }
+
+    @Benchmark
+    public Object sequentialGetStudents() {
+        Map<Integer, Student> students = sys.getStudents();
+        float[] grades = new float[students.size()];
+        TreeMap<Character, double[]> distribution = new TreeMap<>();
+        int row = 0;
+        for (Student student : students.values()) {
+            grades[row++] = student.getGrade();
+            double[] moments = distribution.computeIfAbsent(
+                    Character.toUpperCase(student.getName().charAt(0)), initial -> new double[3]
+            );
+            moments[0]++;
+            moments[1] += student.getGrade();
+            moments[2] += (double) student.getGrade() * student.getGrade();
+        }
+        Arrays.sort(grades);
+        return grades[grades.length / 2] + grades[(int) Math.ceil(0.9 * grades.length) - 1] + distribution.size();
+    }
+}
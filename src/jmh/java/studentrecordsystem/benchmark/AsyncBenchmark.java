@@ -0,0 +1,105 @@
+package studentrecordsystem.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import studentrecordsystem.recordsystem.AsyncRecordSystem;
+import studentrecordsystem.recordsystem.RecordSystem;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The grade update and rename mix of {@link ConcurrencyBenchmark} submitted in bursts of {@code burst} commands per
+ * thread: applied synchronously behind a global lock, through the lock-striped concurrent mode, and through the single
+ * writer of {@link AsyncRecordSystem}, where a burst waits only for its last command. Run with {@code -t} to change
+ * the number of submitting threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+@Threads(8)
+public class AsyncBenchmark {
+    private final static int burst = 64;
+
+    @Param({"1000", "1000000"})
+    public int size;
+
+    private RecordSystem globalLocked;
+    private RecordSystem striped;
+    private AsyncRecordSystem async;
+
+    @Setup(Level.Trial)
+    public void setUpRosters() {
+        globalLocked = new RosterGenerator().fill(new RecordSystem(), size);
+        striped = new RosterGenerator().fill(RecordSystem.concurrent(64), size);
+        async = AsyncRecordSystem.start(new RosterGenerator().fill(new RecordSystem(), size), 4096);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopWriter() {
+        async.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(burst)
+    public void globalLock() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < burst; i++) {
+            int id = 1 + random.nextInt(size);
+            synchronized (globalLocked) {
+                if (random.nextInt(4) == 0) {
+                    globalLocked.updateName(id, "Jonathan Woodgate");
+                } else {
+                    globalLocked.updateGrade(id, random.nextInt(101));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(burst)
+    public void lockStriped() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < burst; i++) {
+            int id = 1 + random.nextInt(size);
+            if (random.nextInt(4) == 0) {
+                striped.updateName(id, "Jonathan Woodgate");
+            } else {
+                striped.updateGrade(id, random.nextInt(101));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(burst)
+    public void singleWriter() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        CompletableFuture<Void> last = null;
+        for (int i = 0; i < burst; i++) {
+            int id = 1 + random.nextInt(size);
+            if (random.nextInt(4) == 0) {
+                last = async.updateName(id, "Jonathan Woodgate");
+            } else {
+                last = async.updateGrade(id, random.nextInt(101));
+            }
+        }
+        last.join();
+    }
+}
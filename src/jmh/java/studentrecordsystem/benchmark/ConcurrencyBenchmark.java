@@ -0,0 +1,69 @@
+package studentrecordsystem.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import studentrecordsystem.recordsystem.RecordSystem;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mixed grade updates and renames from many threads, comparing one record system behind a global lock (how callers
+ * had to use it before the concurrent mode) with the lock-striped concurrent mode. Run with {@code -t 1} to get the
+ * single-threaded baseline of each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+@Threads(8)
+public class ConcurrencyBenchmark {
+    @Param({"1000", "1000000"})
+    public int size;
+
+    private RecordSystem globalLocked;
+    private RecordSystem striped;
+
+    @Setup(Level.Trial)
+    public void setUpRosters() {
+        globalLocked = new RosterGenerator().fill(new RecordSystem(), size);
+        striped = new RosterGenerator().fill(RecordSystem.concurrent(64), size);
+    }
+
+    @Benchmark
+    public void globalLock() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int id = 1 + random.nextInt(size);
+        synchronized (globalLocked) {
+            if (random.nextInt(4) == 0) {
+                globalLocked.updateName(id, "Jonathan Woodgate");
+            } else {
+                globalLocked.updateGrade(id, random.nextInt(101));
+            }
+        }
+    }
+
+    @Benchmark
+    public void lockStriped() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int id = 1 + random.nextInt(size);
+        if (random.nextInt(4) == 0) {
+            striped.updateName(id, "Jonathan Woodgate");
+        } else {
+            striped.updateGrade(id, random.nextInt(101));
+        }
+    }
+}
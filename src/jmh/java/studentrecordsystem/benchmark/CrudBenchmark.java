@@ -0,0 +1,78 @@
+package studentrecordsystem.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import studentrecordsystem.recordsystem.RecordSystem;
+import studentrecordsystem.recordsystem.Status;
+import studentrecordsystem.student.Student;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded throughput of the record system operations at different roster sizes. Every benchmark leaves the
+ * roster the size it found it, so results do not drift over the run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class CrudBenchmark {
+    @Param({"1000", "1000000", "10000000"})
+    public int size;
+
+    private RecordSystem sys;
+    private RosterGenerator generator;
+    private Student newStudent;
+    private Student duplicateStudent;
+    private int nextFreeId;
+
+    @Setup(Level.Trial)
+    public void setUpRoster() {
+        generator = new RosterGenerator();
+        sys = generator.fill(new RecordSystem(), size);
+        newStudent = generator.student(size + 1);
+        duplicateStudent = generator.student(1);
+        nextFreeId = size + 1;
+    }
+
+    @Benchmark
+    public void addThenDelete() {
+        sys.add(newStudent);
+        sys.delete(newStudent.getId());
+    }
+
+    @Benchmark
+    public void updateIdThereAndBack() {
+        int id = generator.nextId(size);
+        sys.updateId(id, nextFreeId);
+        sys.updateId(nextFreeId, id);
+    }
+
+    @Benchmark
+    public void updateGrade() {
+        sys.updateGrade(generator.nextId(size), generator.grade());
+    }
+
+    @Benchmark
+    public void updateName() {
+        sys.updateName(generator.nextId(size), "Jonathan Woodgate");
+    }
+
+    @Benchmark
+    public Status rejectedAdd() {
+        duplicateStudent.setId(generator.nextId(size));
+        return sys.tryAdd(duplicateStudent);
+    }
+}
@@ -0,0 +1,79 @@
+package studentrecordsystem.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import studentrecordsystem.recordsystem.GradeHistory;
+import studentrecordsystem.recordsystem.RecordSystem;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link GradeHistory} over a roster with a grade update per student in each of {@code terms} terms: the cohort-wide
+ * grade at the middle term, whose {@code bytes} counter is the rate the owner and grade columns are read at, a
+ * per-student GPA and trend lookup, and a grade update with the history appending to it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class HistoryBenchmark {
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"8"})
+    public int terms;
+
+    private RecordSystem sys;
+    private GradeHistory history;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Throughput {
+        public long bytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUpHistory() {
+        RosterGenerator generator = new RosterGenerator();
+        sys = generator.fill(new RecordSystem(), size);
+        history = GradeHistory.track(sys, 0);
+        for (int term = 1; term < terms; term++) {
+            history.advanceTerm(term);
+            for (int id = 1; id <= size; id++) {
+                sys.updateGrade(id, generator.grade());
+            }
+        }
+    }
+
+    @Benchmark
+    public double cohortAverage(Throughput throughput) {
+        throughput.bytes += (long) size * (terms / 2 + 1) * (Integer.BYTES + Float.BYTES);
+        return history.averageAt(terms / 2);
+    }
+
+    @Benchmark
+    public float gpaAndTrend() {
+        int id = 1 + ThreadLocalRandom.current().nextInt(size);
+        return history.gpa(id) + history.trend(id);
+    }
+
+    @Benchmark
+    public void updateGrade() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        sys.updateGrade(1 + random.nextInt(size), random.nextInt(101));
+    }
+}
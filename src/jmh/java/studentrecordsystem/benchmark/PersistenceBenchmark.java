@@ -0,0 +1,118 @@
+package studentrecordsystem.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import studentrecordsystem.recordsystem.RecordSystem;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Save and load of whole rosters in the text and binary formats. Besides operations per second, the {@code bytes}
+ * counter reports file bytes processed per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class PersistenceBenchmark {
+    @Param({"1000", "1000000"})
+    public int size;
+
+    private RecordSystem sys;
+    private long textBytes;
+    private long binaryBytes;
+    private long archiveBytes;
+    private String fileName;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Throughput {
+        public long bytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUpFiles() throws IOException {
+        sys = new RosterGenerator().fill(new RecordSystem(), size);
+        fileName = "benchmark-roster-" + size;
+        sys.save(fileName);
+        sys.saveBinary(fileName);
+        sys.saveArchive(fileName);
+        textBytes = Files.size(Path.of(fileName + ".txt"));
+        binaryBytes = Files.size(Path.of(fileName + ".srs"));
+        archiveBytes = Files.size(Path.of(fileName + ".sra"));
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        Files.deleteIfExists(Path.of(fileName + ".txt"));
+        Files.deleteIfExists(Path.of(fileName + ".srs"));
+        Files.deleteIfExists(Path.of(fileName + ".sra"));
+    }
+
+    @Benchmark
+    public void saveText(Throughput throughput) throws IOException {
+        sys.save(fileName);
+        throughput.bytes += textBytes;
+    }
+
+    @Benchmark
+    public RecordSystem loadText(Throughput throughput) throws IOException {
+        RecordSystem loaded = new RecordSystem();
+        loaded.load(fileName);
+        throughput.bytes += textBytes;
+        return loaded;
+    }
+
+    @Benchmark
+    public RecordSystem loadTextParallel(Throughput throughput) throws IOException {
+        RecordSystem loaded = new RecordSystem();
+        loaded.loadParallel(fileName, Runtime.getRuntime().availableProcessors());
+        throughput.bytes += textBytes;
+        return loaded;
+    }
+
+    @Benchmark
+    public void saveBinary(Throughput throughput) throws IOException {
+        sys.saveBinary(fileName);
+        throughput.bytes += binaryBytes;
+    }
+
+    @Benchmark
+    public RecordSystem loadBinary(Throughput throughput) throws IOException {
+        RecordSystem loaded = new RecordSystem();
+        loaded.loadBinary(fileName);
+        throughput.bytes += binaryBytes;
+        return loaded;
+    }
+
+    @Benchmark
+    public void saveArchive(Throughput throughput) throws IOException {
+        sys.saveArchive(fileName);
+        throughput.bytes += archiveBytes;
+    }
+
+    @Benchmark
+    public RecordSystem loadArchive(Throughput throughput) throws IOException {
+        RecordSystem loaded = new RecordSystem();
+        loaded.loadArchive(fileName);
+        throughput.bytes += archiveBytes;
+        return loaded;
+    }
+}
@@ -0,0 +1,52 @@
+package studentrecordsystem.benchmark;
+
+import studentrecordsystem.recordsystem.RecordSystem;
+import studentrecordsystem.student.Student;
+
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic rosters for the benchmarks: the same seed always gives the same students, so results from
+ * different runs and machines are comparable.
+ */
+public final class RosterGenerator {
+    private final static String[] firstNames = {
+            "Jason", "Sanchayata", "John", "Sarah", "Henry", "Jessica", "Tim", "Mohammed", "Olivia", "Wei",
+            "Amelia", "Noah", "Priya", "Lucas", "Fatima", "Mateo", "Chloe", "Kenji", "Aisha", "Oscar"
+    };
+    private final static String[] lastNames = {
+            "Smith", "Dominguez", "Woodgate", "Patel", "Nguyen", "Garcia", "Kim", "Okafor", "Rossi", "Novak"
+    };
+    private final static long defaultSeed = 20230401L;
+
+    private final SplittableRandom random;
+
+    public RosterGenerator() {
+        this(defaultSeed);
+    }
+    public RosterGenerator(long seed) {
+        random = new SplittableRandom(seed);
+    }
+
+    public String name() {
+        return firstNames[random.nextInt(firstNames.length)] + " " + lastNames[random.nextInt(lastNames.length)];
+    }
+    public float grade() {
+        return random.nextInt(10001) / 100f;
+    }
+    public Student student(int id) {
+        return new Student(name(), id, grade());
+    }
+
+    // Fills ids 1..size, so benchmarks can pick existing ids with nextId(size) and free ones above size.
+    public RecordSystem fill(RecordSystem sys, int size) {
+        for (int id = 1; id <= size; id++) {
+            sys.add(student(id));
+        }
+        return sys;
+    }
+
+    public int nextId(int bound) {
+        return 1 + random.nextInt(bound);
+    }
+}
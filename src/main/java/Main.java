@@ -1,5 +1,57 @@
+import studentrecordsystem.recordsystem.RecordSystem;
+import studentrecordsystem.server.LoadGenerator;
+import studentrecordsystem.server.RecordServer;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.time.Duration;
+
 public class Main {
-    public static void main(String[] args) {
-        System.out.println("Hello world!");
+    private final static int serverStripes = 64;
+    private final static String usage = """
+            Usage:
+              serve <port> [file]
+                  Serve a record system on a loopback port, loading file.txt first if given
+              load <port> <connections> <pipeline depth> <students> <seconds>
+                  Fill a local server with students, then measure requests/s and latency against it
+            """;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length >= 2 && args.length <= 3 && args[0].equals("serve")) {
+            serve(Integer.parseInt(args[1]), args.length == 3 ? args[2] : null);
+        } else if (args.length == 6 && args[0].equals("load")) {
+            load(
+                    Integer.parseInt(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]),
+                    Integer.parseInt(args[4]), Integer.parseInt(args[5])
+            );
+        } else {
+            System.out.print(usage);
+        }
     }
-}
\ No newline at end of file
+
+    private static void serve(int port, String fileName) throws IOException, InterruptedException {
+        RecordSystem records = RecordSystem.concurrent(serverStripes);
+        if (fileName != null) {
+            records.load(fileName);
+        }
+        RecordServer server = RecordServer.start(records, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException e) {
+                System.err.println("Could not close server: " + e.getMessage());
+            }
+        }));
+        System.out.printf("Serving %d students on port %d%n", records.size(), server.port());
+        server.awaitClose();
+    }
+
+    private static void load(int port, int connections, int pipelineDepth, int students, int seconds)
+            throws IOException {
+        String host = InetAddress.getLoopbackAddress().getHostAddress();
+        LoadGenerator.populate(host, port, students);
+        System.out.println(LoadGenerator.run(
+                host, port, connections, pipelineDepth, students, Duration.ofSeconds(seconds)
+        ));
+    }
+}
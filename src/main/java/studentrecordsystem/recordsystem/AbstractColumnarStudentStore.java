@@ -0,0 +1,141 @@
+package studentrecordsystem.recordsystem;
+
+import org.jetbrains.annotations.NotNull;
+import studentrecordsystem.student.Student;
+
+/**
+ * Shared logic of the columnar stores: rows are kept dense in {@code [0, size)} and an {@link IntIndex} maps each id
+ * to its row. Removing a row moves the last row into the gap, so scans never have to skip holes.
+ */
+abstract class AbstractColumnarStudentStore implements StudentStore {
+    private final IntIndex index;
+    private int size;
+
+    AbstractColumnarStudentStore(int initialCapacity) {
+        index = new IntIndex(initialCapacity);
+    }
+
+    abstract int capacity();
+    abstract void grow(int minCapacity);
+    abstract int idAt(int row);
+    abstract String nameAt(int row);
+    abstract float gradeAt(int row);
+    abstract void setIdAt(int row, int id);
+    abstract void setNameAt(int row, String name);
+    abstract void setGradeAt(int row, float grade);
+    abstract void writeRow(int row, int id, String name, float grade);
+    abstract void releaseRow(int row);
+    abstract void moveRow(int from, int to);
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return index.get(id) >= 0;
+    }
+
+    @Override
+    public Student get(int id) {
+        int row = index.get(id);
+        return row < 0 ? null : new Student(nameAt(row), id, gradeAt(row));
+    }
+
+    @Override
+    public boolean insert(int id, @NotNull String name, float grade) {
+        if (index.get(id) >= 0) {
+            return false;
+        }
+        append(id, name, grade);
+        return true;
+    }
+
+    @Override
+    public Student put(int id, @NotNull String name, float grade) {
+        int row = index.get(id);
+        if (row < 0) {
+            append(id, name, grade);
+            return null;
+        }
+        Student previous = new Student(nameAt(row), id, gradeAt(row));
+        setNameAt(row, name);
+        setGradeAt(row, grade);
+        return previous;
+    }
+
+    @Override
+    public Student remove(int id) {
+        int row = index.remove(id);
+        if (row < 0) {
+            return null;
+        }
+        Student previous = new Student(nameAt(row), id, gradeAt(row));
+        releaseRow(row);
+        int last = --size;
+        if (row != last) {
+            moveRow(last, row);
+            index.put(idAt(row), row);
+        }
+        return previous;
+    }
+
+    @Override
+    public String setName(int id, @NotNull String name) {
+        int row = index.get(id);
+        if (row < 0) {
+            return null;
+        }
+        String previous = nameAt(row);
+        setNameAt(row, name);
+        return previous;
+    }
+
+    @Override
+    public float setGrade(int id, float grade) {
+        int row = index.get(id);
+        if (row < 0) {
+            return Float.NaN;
+        }
+        float previous = gradeAt(row);
+        setGradeAt(row, grade);
+        return previous;
+    }
+
+    @Override
+    public boolean move(int id, int newId) {
+        int row = index.get(id);
+        if (row < 0 || index.get(newId) >= 0) {
+            return false;
+        }
+        index.remove(id);
+        index.put(newId, row);
+        setIdAt(row, newId);
+        return true;
+    }
+
+    @Override
+    public void forEach(@NotNull Visitor visitor) {
+        for (int row = 0; row < size; row++) {
+            visitor.visit(idAt(row), nameAt(row), gradeAt(row));
+        }
+    }
+
+    @Override
+    public void ensureCapacity(int capacity) {
+        if (capacity > capacity()) {
+            grow(capacity);
+        }
+        index.ensureCapacity(capacity);
+    }
+
+    private void append(int id, String name, float grade) {
+        if (size == capacity()) {
+            grow(Math.max(size + 1, size + (size >> 1)));
+        }
+        int row = size++;
+        writeRow(row, id, name, grade);
+        index.put(id, row);
+    }
+}
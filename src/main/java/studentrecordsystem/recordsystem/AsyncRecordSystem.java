@@ -0,0 +1,241 @@
+package studentrecordsystem.recordsystem;
+
+import org.jetbrains.annotations.NotNull;
+import studentrecordsystem.student.Student;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous front-end to a {@link RecordSystem} with a single writer. Callers claim a slot of a pre-allocated ring
+ * of primitive columns with one atomic increment, fill it in and publish it; one writer thread takes every published
+ * command in order and applies it, so commands from one caller are applied in the order they were submitted. Each
+ * command returns a future that completes once it has been applied, or fails with the same
+ * IllegalArgumentException the synchronous method throws.
+ * <p>
+ * The writer must be the record system's only user while this is open. With a record system built by the plain
+ * constructors that means no locks are taken at all. Once {@code capacity} commands are waiting, callers wait for the
+ * writer to catch up. Futures complete on the writer thread, so dependent stages should be asynchronous or cheap.
+ */
+public final class AsyncRecordSystem implements Closeable {
+    private final static byte add = 0;
+    private final static byte delete = 1;
+    private final static byte updateName = 2;
+    private final static byte updateId = 3;
+    private final static byte updateGrade = 4;
+    private final static byte get = 5;
+    private final static byte skip = 6;
+    private final static int spinsBeforePark = 64;
+    private final static long fullRingParkNanos = 20_000;
+    private final static long writerParkNanos = 1_000_000; // bounds any missed wake-up to a millisecond
+
+    private final RecordSystem system;
+    private final int mask;
+    private final byte[] commands;
+    private final int[] ids;
+    private final int[] newIds;
+    private final String[] names;
+    private final float[] grades;
+    private final CompletableFuture<?>[] futures;
+    private final AtomicLongArray published; // sequence last published in each slot
+    private final AtomicLong claimed = new AtomicLong();
+    private final Thread writer;
+    private volatile long consumed; // every sequence below it has been applied and its slot may be reused
+    private volatile boolean writerParked;
+    private volatile boolean closed;
+    private long batches;
+
+    private AsyncRecordSystem(RecordSystem system, int capacity) {
+        this.system = system;
+        mask = capacity - 1;
+        commands = new byte[capacity];
+        ids = new int[capacity];
+        newIds = new int[capacity];
+        names = new String[capacity];
+        grades = new float[capacity];
+        futures = new CompletableFuture<?>[capacity];
+        published = new AtomicLongArray(capacity);
+        for (int slot = 0; slot < capacity; slot++) {
+            published.set(slot, -1);
+        }
+        writer = new Thread(this::drain, "record-writer");
+        writer.setDaemon(true);
+    }
+
+    public static AsyncRecordSystem start(@NotNull RecordSystem system, int capacity) throws IllegalArgumentException {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid capacity %d. Capacity must be a power of two", capacity)
+            );
+        }
+        AsyncRecordSystem async = new AsyncRecordSystem(system, capacity);
+        async.writer.start();
+        return async;
+    }
+
+    public CompletableFuture<Void> add(@NotNull Student student) {
+        return submit(add, student.getId(), 0, student.getName(), student.getGrade());
+    }
+    public CompletableFuture<Void> delete(int id) {
+        return submit(delete, id, 0, null, 0);
+    }
+    public CompletableFuture<Void> updateName(int id, String newName) {
+        return submit(updateName, id, 0, newName, 0);
+    }
+    public CompletableFuture<Void> updateId(int id, int newId) {
+        return submit(updateId, id, newId, null, 0);
+    }
+    public CompletableFuture<Void> updateGrade(int id, float newGrade) {
+        return submit(updateGrade, id, 0, null, newGrade);
+    }
+    // Reads through the writer, so the result reflects every command submitted before it. Null if there is no such
+    // student.
+    public CompletableFuture<Student> get(int id) {
+        return submit(get, id, 0, null, 0);
+    }
+
+    public RecordSystem system() {
+        return system;
+    }
+
+    // Number of commands submitted but not yet applied.
+    public long pending() {
+        return claimed.get() - consumed;
+    }
+
+    // Stops accepting commands, applies the ones already submitted and waits for the writer to finish. Commands
+    // submitted after this fail with an IllegalStateException.
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(writer);
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(byte command, int id, int newId, String name, float grade) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long sequence = claimed.getAndIncrement();
+        if (closed) {
+            // The writer may still be waiting for this sequence, so the slot is filled with a command it skips.
+            future.completeExceptionally(new IllegalStateException("Record system is closed"));
+            command = skip;
+        }
+        int slot = (int) sequence & mask;
+        for (int spins = 0; sequence - consumed > mask; spins++) {
+            if (!writer.isAlive()) {
+                return future;
+            }
+            if (spins < spinsBeforePark) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(fullRingParkNanos);
+            }
+        }
+        commands[slot] = command;
+        ids[slot] = id;
+        newIds[slot] = newId;
+        names[slot] = name;
+        grades[slot] = grade;
+        futures[slot] = command == skip ? null : future;
+        // A volatile store, not a release: it must not move past the read of writerParked below, or the writer could
+        // park after missing this slot while this thread misses the flag.
+        published.set(slot, sequence);
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+        return future;
+    }
+
+    private void drain() {
+        long next = 0;
+        while (true) {
+            long end = next;
+            while (published.getAcquire((int) end & mask) == end) {
+                end++;
+            }
+            if (end == next) {
+                if (closed && claimed.get() == next) {
+                    return;
+                }
+                awaitPublished(next);
+                continue;
+            }
+            for (long sequence = next; sequence < end; sequence++) {
+                apply((int) sequence & mask);
+            }
+            batches++;
+            next = end;
+            consumed = end;
+        }
+    }
+
+    private void awaitPublished(long sequence) {
+        int slot = (int) sequence & mask;
+        for (int spins = 0; spins < spinsBeforePark; spins++) {
+            if (published.getAcquire(slot) == sequence) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+        writerParked = true;
+        // Checked again with a volatile read after announcing the park, so a publisher either sees the flag or is seen
+        // here. The timeout only guards against a wake-up lost some other way.
+        if (published.get(slot) != sequence && !(closed && claimed.get() == sequence)) {
+            LockSupport.parkNanos(this, writerParkNanos);
+        }
+        writerParked = false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void apply(int slot) {
+        CompletableFuture<Object> future = (CompletableFuture<Object>) futures[slot];
+        int id = ids[slot];
+        int newId = newIds[slot];
+        String name = names[slot];
+        float grade = grades[slot];
+        byte command = commands[slot];
+        futures[slot] = null;
+        names[slot] = null;
+        if (command == skip) {
+            return;
+        }
+        try {
+            Status status = switch (command) {
+                case add -> system.tryAdd(new Student(name, id, grade));
+                case delete -> system.tryDelete(id);
+                case updateName -> system.tryUpdateName(id, name);
+                case updateId -> system.tryUpdateId(id, newId);
+                case updateGrade -> system.tryUpdateGrade(id, grade);
+                default -> {
+                    future.complete(system.get(id));
+                    yield null;
+                }
+            };
+            if (status == Status.OK) {
+                future.complete(null);
+            } else if (status != null) {
+                future.completeExceptionally(RecordSystem.rejection(status, id, newId, name, grade));
+            }
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    // Number of batches the writer has applied, read on the writer's side of close().
+    long batches() {
+        return batches;
+    }
+}
@@ -0,0 +1,51 @@
+package studentrecordsystem.recordsystem;
+
+import java.util.Arrays;
+
+/**
+ * Result of a batch operation. A batch is applied only if every item is valid; otherwise nothing is changed and the
+ * result lists each rejected item by its position in the batch, in ascending order.
+ */
+public final class BatchResult {
+    private final static Status[] statuses = Status.values();
+
+    private int[] failedIndexes = new int[4];
+    private byte[] failureStatuses = new byte[4];
+    private int failureCount;
+    private final int size;
+
+    BatchResult(int size) {
+        this.size = size;
+    }
+
+    void fail(int index, Status status) {
+        if (failureCount == failedIndexes.length) {
+            failedIndexes = Arrays.copyOf(failedIndexes, failureCount * 2);
+            failureStatuses = Arrays.copyOf(failureStatuses, failureCount * 2);
+        }
+        failedIndexes[failureCount] = index;
+        failureStatuses[failureCount] = (byte) status.ordinal();
+        failureCount++;
+    }
+
+    public int size() {
+        return size;
+    }
+    public boolean isApplied() {
+        return failureCount == 0;
+    }
+    public int failureCount() {
+        return failureCount;
+    }
+    public int failedIndex(int failure) {
+        return failedIndexes[failure];
+    }
+    public Status failureStatus(int failure) {
+        return statuses[failureStatuses[failure]];
+    }
+
+    public Status statusOf(int index) {
+        int failure = Arrays.binarySearch(failedIndexes, 0, failureCount, index);
+        return failure < 0 ? Status.OK : statuses[failureStatuses[failure]];
+    }
+}
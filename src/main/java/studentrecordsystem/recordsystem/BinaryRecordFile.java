@@ -0,0 +1,165 @@
+package studentrecordsystem.recordsystem;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Versioned binary record file. Layout, little-endian:
+ * <pre>
+ * header  magic "SRSB" | int version | int record count | int checksum (CRC32C of everything after the header)
+ * ids     int[count]
+ * grades  float[count]
+ * names   count x (short length | UTF-8 bytes)
+ * </pre>
+ * Fixed-width columns mean a mapped file can be read without parsing any text. Files are mapped in one piece, so a
+ * single file is limited to 2 GB.
+ */
+public final class BinaryRecordFile {
+    private final static int magic = 0x42535253; // "SRSB" read as a little-endian int
+    private final static int version = 1;
+    private final static int headerBytes = 16;
+    private final static int bufferSize = 1 << 18;
+
+    private BinaryRecordFile() {
+    }
+
+    public static void write(@NotNull Path target, @NotNull StudentStore students) throws IOException {
+        int count = students.size();
+        int[] ids = new int[count];
+        float[] grades = new float[count];
+        byte[][] names = new byte[count][];
+        int[] row = {0};
+        students.forEach((id, name, grade) -> {
+            ids[row[0]] = id;
+            grades[row[0]] = grade;
+            names[row[0]] = name.getBytes(StandardCharsets.UTF_8);
+            row[0]++;
+        });
+        write(target, ids, grades, names);
+    }
+
+    static void write(Path target, int[] ids, float[] grades, byte[][] names) throws IOException {
+        int count = ids.length;
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(
+                temporary,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING
+        )) {
+            CRC32C checksum = new CRC32C();
+            ByteBuffer buffer = ByteBuffer.allocate(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+            channel.position(headerBytes);
+            for (int i = 0; i < count; i++) {
+                ensureRemaining(channel, buffer, 4, checksum);
+                buffer.putInt(ids[i]);
+            }
+            for (int i = 0; i < count; i++) {
+                ensureRemaining(channel, buffer, 4, checksum);
+                buffer.putFloat(grades[i]);
+            }
+            for (int i = 0; i < count; i++) {
+                if (names[i].length > Short.MAX_VALUE) {
+                    throw new IOException(String.format("Name of student %d is too long to save", ids[i]));
+                }
+                ensureRemaining(channel, buffer, 2 + names[i].length, checksum);
+                buffer.putShort((short) names[i].length);
+                buffer.put(names[i]);
+            }
+            drain(channel, buffer, checksum);
+
+            ByteBuffer header = ByteBuffer.allocate(headerBytes).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(magic).putInt(version).putInt(count).putInt((int) checksum.getValue()).flip();
+            channel.write(header, 0);
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        try {
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public static long read(@NotNull Path source, @NotNull StudentStore.Visitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            file.order(ByteOrder.LITTLE_ENDIAN);
+            String fileName = source.getFileName().toString();
+            if (file.limit() < headerBytes || file.getInt(0) != magic) {
+                throw new IOException(String.format("File %s is not a binary record file", fileName));
+            }
+            if (file.getInt(4) != version) {
+                throw new IOException(
+                        String.format("File %s has unsupported version %d", fileName, file.getInt(4))
+                );
+            }
+            int count = file.getInt(8);
+            CRC32C checksum = new CRC32C();
+            checksum.update(file.slice(headerBytes, file.limit() - headerBytes));
+            if ((int) checksum.getValue() != file.getInt(12) || count < 0
+                    || headerBytes + (long) count * 10 > file.limit()) {
+                throw new IOException(String.format("File %s is corrupt", fileName));
+            }
+
+            int gradesStart = headerBytes + count * 4;
+            int namePosition = gradesStart + count * 4;
+            byte[] name = new byte[64];
+            for (int i = 0; i < count; i++) {
+                int length = file.getShort(namePosition);
+                if (length > name.length) {
+                    name = new byte[length];
+                }
+                file.get(namePosition + 2, name, 0, length);
+                namePosition += 2 + length;
+                visitor.visit(
+                        file.getInt(headerBytes + i * 4),
+                        new String(name, 0, length, StandardCharsets.UTF_8),
+                        file.getFloat(gradesStart + i * 4)
+                );
+            }
+            return count;
+        }
+    }
+
+    public static long convert(@NotNull Path textSource, @NotNull Path binaryTarget) throws IOException {
+        ColumnarStudentStore students = new ColumnarStudentStore();
+        try (RecordFileReader reader = new RecordFileReader(textSource)) {
+            reader.read(students::put, (bytesRead, totalBytes, records) -> {});
+        }
+        write(binaryTarget, students);
+        return students.size();
+    }
+
+    // Names are at most Short.MAX_VALUE bytes, so a record always fits in an empty buffer.
+    private static void ensureRemaining(FileChannel channel, ByteBuffer buffer, int bytes, CRC32C checksum)
+            throws IOException {
+        if (buffer.remaining() < bytes) {
+            drain(channel, buffer, checksum);
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer, CRC32C checksum) throws IOException {
+        buffer.flip();
+        checksum.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,77 @@
+package studentrecordsystem.recordsystem;
+
+/**
+ * One change published by a {@link ChangeStream}. Which values are set depends on the type:
+ * <pre>
+ * ADD           id, name, grade
+ * DELETE        id, name, grade of the removed record
+ * UPDATE_NAME   id, oldName, name
+ * UPDATE_ID     id, newId
+ * UPDATE_GRADE  id, oldGrade, grade
+ * </pre>
+ * The others are {@code null}, 0 or NaN.
+ */
+public final class ChangeEvent {
+    public enum Type {
+        ADD,
+        DELETE,
+        UPDATE_NAME,
+        UPDATE_ID,
+        UPDATE_GRADE
+    }
+
+    private final long sequence;
+    private final Type type;
+    private final int id;
+    private final int newId;
+    private final String name;
+    private final String oldName;
+    private final float grade;
+    private final float oldGrade;
+
+    ChangeEvent(long sequence, Type type, int id, int newId, String name, String oldName, float grade, float oldGrade) {
+        this.sequence = sequence;
+        this.type = type;
+        this.id = id;
+        this.newId = newId;
+        this.name = name;
+        this.oldName = oldName;
+        this.grade = grade;
+        this.oldGrade = oldGrade;
+    }
+
+    public long sequence() {
+        return sequence;
+    }
+    public Type type() {
+        return type;
+    }
+    public int id() {
+        return id;
+    }
+    public int newId() {
+        return newId;
+    }
+    public String name() {
+        return name;
+    }
+    public String oldName() {
+        return oldName;
+    }
+    public float grade() {
+        return grade;
+    }
+    public float oldGrade() {
+        return oldGrade;
+    }
+
+    @Override
+    public String toString() {
+        return switch (type) {
+            case ADD, DELETE -> String.format("%d %s %d %s %s", sequence, type, id, name, grade);
+            case UPDATE_NAME -> String.format("%d %s %d %s -> %s", sequence, type, id, oldName, name);
+            case UPDATE_ID -> String.format("%d %s %d -> %d", sequence, type, id, newId);
+            case UPDATE_GRADE -> String.format("%d %s %d %s -> %s", sequence, type, id, oldGrade, grade);
+        };
+    }
+}
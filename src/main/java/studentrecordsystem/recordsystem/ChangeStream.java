@@ -0,0 +1,291 @@
+package studentrecordsystem.recordsystem;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Change data capture for a {@link RecordSystem}. Every change is numbered with the next sequence number and stored
+ * in a bounded ring of primitive columns; each {@link Subscription} has its own thread that hands the events after
+ * its position to a {@link Subscriber} in batches. A subscriber can resume from any sequence number still in the
+ * ring, so a consumer that remembers the last sequence it processed never needs to rescan the roster.
+ * <p>
+ * Backpressure: once the slowest subscription is {@code capacity} events behind, a change waits until it catches up.
+ * Changes are published while the record system holds the changed ids' locks, so subscribers must not wait on the
+ * record system themselves. Without subscriptions the ring simply keeps the latest {@code capacity} events.
+ */
+public final class ChangeStream implements RecordListener, Closeable {
+    @FunctionalInterface
+    public interface Subscriber {
+        void onEvents(@NotNull List<ChangeEvent> events) throws Exception;
+    }
+
+    public final class Subscription {
+        private final Subscriber subscriber;
+        private final int batchSize;
+        private final Thread thread;
+        private long position; // next sequence to deliver, guarded by lock
+        private boolean cancelled;
+        private volatile Exception failure;
+
+        private Subscription(Subscriber subscriber, long position, int batchSize) {
+            this.subscriber = subscriber;
+            this.position = position;
+            this.batchSize = batchSize;
+            thread = new Thread(this::deliver, "record-change-stream");
+            thread.setDaemon(true);
+        }
+
+        // Sequence number of the next event to deliver; every event before it has been delivered.
+        public long position() {
+            lock.lock();
+            try {
+                return position;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Why the subscription stopped, if the subscriber threw.
+        public Exception failure() {
+            return failure;
+        }
+
+        public void cancel() {
+            lock.lock();
+            try {
+                cancelled = true;
+                published.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void deliver() {
+            try {
+                while (true) {
+                    List<ChangeEvent> batch;
+                    long end;
+                    lock.lock();
+                    try {
+                        while (!cancelled && !closed && position == nextSequence) {
+                            published.awaitUninterruptibly();
+                        }
+                        if (cancelled || position == nextSequence) {
+                            return;
+                        }
+                        end = Math.min(nextSequence, position + batchSize);
+                        batch = events(position, end);
+                    } finally {
+                        lock.unlock();
+                    }
+                    try {
+                        subscriber.onEvents(batch);
+                    } catch (Exception e) {
+                        failure = e;
+                        return;
+                    }
+                    lock.lock();
+                    try {
+                        position = end;
+                        consumed.signalAll();
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            } finally {
+                lock.lock();
+                try {
+                    subscriptions.remove(this);
+                    consumed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    private final static ChangeEvent.Type[] types = ChangeEvent.Type.values();
+    private final static int defaultBatchSize = 256;
+
+    private final RecordSystem system;
+    private final int capacity;
+    private final byte[] eventTypes;
+    private final int[] ids;
+    private final int[] newIds;
+    private final String[] names;
+    private final String[] oldNames;
+    private final float[] grades;
+    private final float[] oldGrades;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+    private final Condition consumed = lock.newCondition();
+    private final List<Subscription> subscriptions = new ArrayList<>();
+    private long nextSequence;
+    private boolean closed;
+
+    private ChangeStream(RecordSystem system, int capacity) {
+        this.system = system;
+        this.capacity = capacity;
+        eventTypes = new byte[capacity];
+        ids = new int[capacity];
+        newIds = new int[capacity];
+        names = new String[capacity];
+        oldNames = new String[capacity];
+        grades = new float[capacity];
+        oldGrades = new float[capacity];
+    }
+
+    public static ChangeStream open(@NotNull RecordSystem system, int capacity) throws IllegalArgumentException {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid capacity %d. Capacity must be a power of two", capacity)
+            );
+        }
+        ChangeStream stream = new ChangeStream(system, capacity);
+        system.addListener(stream);
+        return stream;
+    }
+
+    // Sequence number the next change will get.
+    public long nextSequence() {
+        lock.lock();
+        try {
+            return nextSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Delivers changes made from now on.
+    public Subscription subscribe(@NotNull Subscriber subscriber) {
+        lock.lock();
+        try {
+            return subscribe(subscriber, nextSequence, defaultBatchSize);
+        } finally {
+            lock.unlock();
+        }
+    }
+    // Delivers every change from fromSequence on, which must still be in the ring, in batches of at most batchSize.
+    public Subscription subscribe(@NotNull Subscriber subscriber, long fromSequence, int batchSize)
+            throws IllegalArgumentException {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid batch size %d. Batch size must be positive", batchSize)
+            );
+        }
+        lock.lock();
+        try {
+            long oldest = Math.max(0, nextSequence - capacity);
+            if (fromSequence < oldest || fromSequence > nextSequence) {
+                throw new IllegalArgumentException(String.format(
+                        "Sequence %d is not buffered, buffered sequences are %d to %d", fromSequence, oldest,
+                        nextSequence
+                ));
+            }
+            if (closed) {
+                throw new IllegalStateException("Change stream is closed");
+            }
+            Subscription subscription = new Subscription(subscriber, fromSequence, batchSize);
+            subscriptions.add(subscription);
+            subscription.thread.start();
+            return subscription;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Stops publishing, then waits for every subscription to deliver what was published before it stops.
+    @Override
+    public void close() {
+        system.removeListener(this);
+        List<Subscription> remaining;
+        lock.lock();
+        try {
+            closed = true;
+            published.signalAll();
+            consumed.signalAll();
+            remaining = new ArrayList<>(subscriptions);
+        } finally {
+            lock.unlock();
+        }
+        for (Subscription subscription : remaining) {
+            try {
+                subscription.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void onAdd(int id, String name, float grade) {
+        publish(ChangeEvent.Type.ADD, id, 0, name, null, grade, Float.NaN);
+    }
+    @Override
+    public void onDelete(int id, String name, float grade) {
+        publish(ChangeEvent.Type.DELETE, id, 0, name, null, grade, Float.NaN);
+    }
+    @Override
+    public void onUpdateName(int id, String oldName, String newName) {
+        publish(ChangeEvent.Type.UPDATE_NAME, id, 0, newName, oldName, Float.NaN, Float.NaN);
+    }
+    @Override
+    public void onUpdateId(int id, int newId) {
+        publish(ChangeEvent.Type.UPDATE_ID, id, newId, null, null, Float.NaN, Float.NaN);
+    }
+    @Override
+    public void onUpdateGrade(int id, float oldGrade, float newGrade) {
+        publish(ChangeEvent.Type.UPDATE_GRADE, id, 0, null, null, newGrade, oldGrade);
+    }
+
+    private void publish(ChangeEvent.Type type, int id, int newId, String name, String oldName, float grade,
+                         float oldGrade) {
+        lock.lock();
+        try {
+            while (!closed && nextSequence - slowestPosition() >= capacity) {
+                consumed.awaitUninterruptibly();
+            }
+            if (closed) {
+                return;
+            }
+            int slot = (int) nextSequence & (capacity - 1);
+            eventTypes[slot] = (byte) type.ordinal();
+            ids[slot] = id;
+            newIds[slot] = newId;
+            names[slot] = name;
+            oldNames[slot] = oldName;
+            grades[slot] = grade;
+            oldGrades[slot] = oldGrade;
+            nextSequence++;
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long slowestPosition() {
+        long slowest = nextSequence;
+        for (Subscription subscription : subscriptions) {
+            slowest = Math.min(slowest, subscription.position);
+        }
+        return slowest;
+    }
+
+    private List<ChangeEvent> events(long from, long to) {
+        List<ChangeEvent> events = new ArrayList<>((int) (to - from));
+        for (long sequence = from; sequence < to; sequence++) {
+            int slot = (int) sequence & (capacity - 1);
+            events.add(new ChangeEvent(
+                    sequence, types[eventTypes[slot]], ids[slot], newIds[slot], names[slot], oldNames[slot],
+                    grades[slot], oldGrades[slot]
+            ));
+        }
+        return events;
+    }
+}
@@ -0,0 +1,95 @@
+package studentrecordsystem.recordsystem;
+
+import java.util.Arrays;
+
+/**
+ * Heap store keeping one primitive array per column, so a student costs a few array slots instead of a
+ * {@code Student}, a {@code String} and a map entry. Names are interned in a {@link NameDictionary} and each row
+ * only holds the code of its name, so a name shared by many students is stored once.
+ */
+public final class ColumnarStudentStore extends AbstractColumnarStudentStore {
+    private final static int defaultCapacity = 16;
+
+    private int[] ids;
+    private float[] grades;
+    private int[] nameCodes;
+    private final NameDictionary names = new NameDictionary();
+
+    public ColumnarStudentStore() {
+        this(defaultCapacity);
+    }
+    public ColumnarStudentStore(int initialCapacity) {
+        super(initialCapacity);
+        int capacity = Math.max(initialCapacity, 1);
+        ids = new int[capacity];
+        grades = new float[capacity];
+        nameCodes = new int[capacity];
+    }
+
+    @Override
+    int capacity() {
+        return ids.length;
+    }
+
+    @Override
+    void grow(int minCapacity) {
+        ids = Arrays.copyOf(ids, minCapacity);
+        grades = Arrays.copyOf(grades, minCapacity);
+        nameCodes = Arrays.copyOf(nameCodes, minCapacity);
+    }
+
+    @Override
+    int idAt(int row) {
+        return ids[row];
+    }
+
+    @Override
+    String nameAt(int row) {
+        return names.name(nameCodes[row]);
+    }
+
+    @Override
+    float gradeAt(int row) {
+        return grades[row];
+    }
+
+    @Override
+    void setIdAt(int row, int id) {
+        ids[row] = id;
+    }
+
+    @Override
+    void setNameAt(int row, String name) {
+        int previous = nameCodes[row];
+        nameCodes[row] = names.acquire(name);
+        names.release(previous);
+    }
+
+    @Override
+    void setGradeAt(int row, float grade) {
+        grades[row] = grade;
+    }
+
+    @Override
+    void writeRow(int row, int id, String name, float grade) {
+        ids[row] = id;
+        grades[row] = grade;
+        nameCodes[row] = names.acquire(name);
+    }
+
+    @Override
+    void releaseRow(int row) {
+        names.release(nameCodes[row]);
+    }
+
+    @Override
+    void moveRow(int from, int to) {
+        ids[to] = ids[from];
+        grades[to] = grades[from];
+        nameCodes[to] = nameCodes[from];
+    }
+
+    int distinctNames() {
+        return names.size();
+    }
+}
@@ -0,0 +1,448 @@
+package studentrecordsystem.recordsystem;
+
+import org.jetbrains.annotations.NotNull;
+import studentrecordsystem.student.Student;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Store for rosters larger than the heap. Records live in an append-only file and only an id to file offset index
+ * plus an LRU cache of at most {@code cacheSize} records stay in memory. Changes are made to cached records and
+ * marked dirty; a dirty record is appended to the file when it is evicted or on {@link #flush()}, through a write
+ * buffer so evictions reach the file in batches. Deleting a record that is on disk appends a tombstone.
+ * <p>
+ * Entries are {@code int id | float grade | short nameLength | name}, padded to 8 bytes so offsets fit the int
+ * index in 8-byte units; a name length of -1 marks a tombstone. Reopening a file replays it to rebuild the index,
+ * and {@link #compact()} rewrites it with only live records once most of it is superseded entries.
+ * Changes still in the cache are lost if the process dies before {@link #flush()}; pair the store with a
+ * {@link RecordJournal} for durability. I/O failures are thrown as {@link UncheckedIOException}.
+ * <p>
+ * Every method holds the store's monitor. Even {@link #get(int)} reorders the LRU cache, may evict into the write
+ * buffer and reads through the shared read buffer, so readers that a record system lets overlap under its shared
+ * locks still take turns here.
+ */
+public final class DiskStudentStore implements StudentStore, Closeable {
+    private final static int alignment = 8;
+    private final static int headerBytes = 10;
+    private final static short tombstone = -1;
+    private final static int unwritten = Integer.MAX_VALUE - 1;
+    private final static int writeBufferSize = 1 << 16;
+    private final static int scanBufferSize = 1 << 20;
+    private final static int minCompactEntries = 1024;
+
+    private final static class CachedRecord {
+        private String name;
+        private float grade;
+        private boolean dirty;
+
+        private CachedRecord(String name, float grade, boolean dirty) {
+            this.name = name;
+            this.grade = grade;
+            this.dirty = dirty;
+        }
+    }
+
+    private final Path file;
+    private final int cacheSize;
+    private final IntIndex offsets = new IntIndex(); // id to file offset in 8-byte units, or unwritten
+    private final LinkedHashMap<Integer, CachedRecord> cache;
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(writeBufferSize);
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(64);
+    private FileChannel channel;
+    private long fileSize;
+    private long fileEntries;
+
+    private DiskStudentStore(Path file, int cacheSize) {
+        this.file = file;
+        this.cacheSize = cacheSize;
+        cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, CachedRecord> eldest) {
+                if (size() <= DiskStudentStore.this.cacheSize) {
+                    return false;
+                }
+                if (eldest.getValue().dirty) {
+                    writeBack(eldest.getKey(), eldest.getValue());
+                }
+                return true;
+            }
+        };
+    }
+
+    // Opens or creates the file, replaying it to rebuild the id index.
+    public static DiskStudentStore open(@NotNull Path file, int cacheSize) throws IOException, IllegalArgumentException {
+        if (cacheSize < 1) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid cache size %d. Cache size must be positive", cacheSize)
+            );
+        }
+        DiskStudentStore store = new DiskStudentStore(file, cacheSize);
+        store.channel = FileChannel.open(
+                file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE
+        );
+        store.replay();
+        return store;
+    }
+
+    private void replay() throws IOException {
+        long valid = scan((offset, id, name, grade) -> {
+            fileEntries++;
+            if (name == null) {
+                offsets.remove(id);
+            } else {
+                offsets.put(id, (int) (offset / alignment));
+            }
+        });
+        if (valid < channel.size()) {
+            channel.truncate(valid); // a torn entry from a write that did not finish
+        }
+        fileSize = valid;
+    }
+
+    @Override
+    public synchronized int size() {
+        return offsets.size();
+    }
+
+    @Override
+    public synchronized boolean contains(int id) {
+        return offsets.get(id) >= 0;
+    }
+
+    @Override
+    public synchronized Student get(int id) {
+        CachedRecord record = load(id);
+        return record == null ? null : new Student(record.name, id, record.grade);
+    }
+
+    @Override
+    public synchronized boolean insert(int id, @NotNull String name, float grade) {
+        if (contains(id)) {
+            return false;
+        }
+        offsets.put(id, unwritten);
+        cache.put(id, new CachedRecord(name, grade, true));
+        return true;
+    }
+
+    @Override
+    public synchronized Student put(int id, @NotNull String name, float grade) {
+        CachedRecord record = load(id);
+        if (record == null) {
+            insert(id, name, grade);
+            return null;
+        }
+        Student previous = new Student(record.name, id, record.grade);
+        record.name = name;
+        record.grade = grade;
+        record.dirty = true;
+        return previous;
+    }
+
+    @Override
+    public synchronized Student remove(int id) {
+        CachedRecord record = load(id);
+        if (record == null) {
+            return null;
+        }
+        cache.remove(id);
+        if (offsets.remove(id) != unwritten) {
+            append(id, null, 0);
+        }
+        return new Student(record.name, id, record.grade);
+    }
+
+    @Override
+    public synchronized String setName(int id, @NotNull String name) {
+        CachedRecord record = load(id);
+        if (record == null) {
+            return null;
+        }
+        String previous = record.name;
+        record.name = name;
+        record.dirty = true;
+        return previous;
+    }
+
+    @Override
+    public synchronized float setGrade(int id, float grade) {
+        CachedRecord record = load(id);
+        if (record == null) {
+            return Float.NaN;
+        }
+        float previous = record.grade;
+        record.grade = grade;
+        record.dirty = true;
+        return previous;
+    }
+
+    @Override
+    public synchronized boolean move(int id, int newId) {
+        if (!contains(id) || contains(newId)) {
+            return false;
+        }
+        Student moved = remove(id);
+        return insert(newId, moved.getName(), moved.getGrade());
+    }
+
+    // Writes back every dirty record, then reads the file front to back, visiting each id's latest entry.
+    @Override
+    public synchronized void forEach(@NotNull Visitor visitor) {
+        flush();
+        try {
+            scan((offset, id, name, grade) -> {
+                if (name != null && offsets.get(id) == offset / alignment) {
+                    visitor.visit(id, name, grade);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void ensureCapacity(int capacity) {
+        offsets.ensureCapacity(capacity);
+    }
+
+    public synchronized int cachedRecords() {
+        return cache.size();
+    }
+    public synchronized long fileSize() {
+        return fileSize + writeBuffer.position();
+    }
+
+    // Writes every dirty record and the write buffer to the file, compacting it if most of it is superseded.
+    public synchronized void flush() {
+        for (var entry : cache.entrySet()) {
+            if (entry.getValue().dirty) {
+                writeBack(entry.getKey(), entry.getValue());
+            }
+        }
+        try {
+            writeBufferToFile();
+            if (fileEntries > minCompactEntries && fileEntries > 2L * size()) {
+                compact();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Rewrites the file with only the latest entry of every live id.
+    public synchronized void compact() throws IOException {
+        for (var entry : cache.entrySet()) {
+            if (entry.getValue().dirty) {
+                writeBack(entry.getKey(), entry.getValue());
+            }
+        }
+        writeBufferToFile();
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        int[] ids = new int[size()];
+        int[] movedOffsets = new int[size()];
+        int[] live = {0};
+        long[] written = {0};
+        try (FileChannel target = FileChannel.open(
+                compacted, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE
+        )) {
+            ByteBuffer buffer = ByteBuffer.allocate(writeBufferSize);
+            scan((offset, id, name, grade) -> {
+                if (name != null && offsets.get(id) == offset / alignment) {
+                    byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                    if (buffer.remaining() < entryBytes(bytes.length)) {
+                        written[0] += buffer.position();
+                        drain(buffer, target);
+                    }
+                    ids[live[0]] = id;
+                    movedOffsets[live[0]] = (int) ((written[0] + buffer.position()) / alignment);
+                    live[0]++;
+                    encode(buffer, id, bytes, grade);
+                }
+            });
+            written[0] += buffer.position();
+            drain(buffer, target);
+            target.force(true);
+        }
+
+        channel.close();
+        try {
+            Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        for (int i = 0; i < live[0]; i++) {
+            offsets.put(ids[i], movedOffsets[i]);
+        }
+        fileSize = written[0];
+        fileEntries = live[0];
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+    }
+
+    // The cached record for an id, read from the file into the cache on a miss. Null if the id is not stored.
+    private CachedRecord load(int id) {
+        CachedRecord record = cache.get(id);
+        if (record != null) {
+            return record;
+        }
+        int offset = offsets.get(id);
+        if (offset < 0) {
+            return null;
+        }
+        try {
+            record = read((long) offset * alignment);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        cache.put(id, record);
+        return record;
+    }
+
+    private CachedRecord read(long position) throws IOException {
+        if (position >= fileSize) {
+            int start = (int) (position - fileSize);
+            int nameLength = writeBuffer.getShort(start + 8);
+            String name = new String(writeBuffer.array(), start + headerBytes, nameLength, StandardCharsets.UTF_8);
+            return new CachedRecord(name, writeBuffer.getFloat(start + 4), false);
+        }
+        readBuffer.clear();
+        readFully(readBuffer, position);
+        float grade = readBuffer.getFloat(4);
+        int nameLength = readBuffer.getShort(8);
+        byte[] name = new byte[nameLength];
+        int inBuffer = Math.min(nameLength, readBuffer.capacity() - headerBytes);
+        readBuffer.get(headerBytes, name, 0, inBuffer);
+        if (inBuffer < nameLength) {
+            readFully(ByteBuffer.wrap(name, inBuffer, nameLength - inBuffer), position + headerBytes + inBuffer);
+        }
+        return new CachedRecord(new String(name, StandardCharsets.UTF_8), grade, false);
+    }
+
+    // Fills the buffer from the position, stopping early only at the end of the file.
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                return;
+            }
+            position += read;
+        }
+    }
+
+    private void writeBack(int id, CachedRecord record) {
+        offsets.put(id, append(id, record.name, record.grade));
+        record.dirty = false;
+    }
+
+    // Appends an entry, or a tombstone for a null name, and returns its offset in 8-byte units.
+    private int append(int id, String name, float grade) {
+        byte[] bytes = name == null ? null : name.getBytes(StandardCharsets.UTF_8);
+        if (bytes != null && bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    String.format("Name of %d bytes is too long for a disk store", bytes.length)
+            );
+        }
+        try {
+            if (writeBuffer.remaining() < entryBytes(bytes == null ? 0 : bytes.length)) {
+                writeBufferToFile();
+            }
+            long position = fileSize + writeBuffer.position();
+            if (position / alignment >= unwritten) {
+                throw new IOException("Disk store file is larger than 16 GB");
+            }
+            encode(writeBuffer, id, bytes, grade);
+            fileEntries++;
+            return (int) (position / alignment);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int entryBytes(int nameLength) {
+        return (headerBytes + nameLength + alignment - 1) / alignment * alignment;
+    }
+
+    private static void encode(ByteBuffer buffer, int id, byte[] name, float grade) {
+        int start = buffer.position();
+        buffer.putInt(id);
+        buffer.putFloat(grade);
+        if (name == null) {
+            buffer.putShort(tombstone);
+        } else {
+            buffer.putShort((short) name.length);
+            buffer.put(name);
+        }
+        buffer.position(start + entryBytes(name == null ? 0 : name.length));
+    }
+
+    private void writeBufferToFile() throws IOException {
+        int length = writeBuffer.position();
+        writeBuffer.flip();
+        while (writeBuffer.hasRemaining()) {
+            channel.write(writeBuffer, fileSize + writeBuffer.position());
+        }
+        writeBuffer.clear();
+        fileSize += length;
+    }
+
+    private static void drain(ByteBuffer buffer, FileChannel target) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @FunctionalInterface
+    private interface EntryVisitor {
+        void visit(long offset, int id, String name, float grade) throws IOException;
+    }
+
+    // Visits every complete entry written to the file in order, with a null name for tombstones, and returns the
+    // length of the file up to the end of the last complete entry.
+    private long scan(EntryVisitor visitor) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(scanBufferSize);
+        long bufferStart = 0;
+        while (true) {
+            buffer.clear();
+            readFully(buffer, bufferStart);
+            buffer.flip();
+            int position = 0;
+            while (buffer.limit() - position >= headerBytes) {
+                int nameLength = buffer.getShort(position + 8);
+                int length = entryBytes(Math.max(nameLength, 0));
+                if (nameLength < tombstone || buffer.limit() - position < length) {
+                    break;
+                }
+                int id = buffer.getInt(position);
+                String name = nameLength == tombstone ? null
+                        : new String(buffer.array(), position + headerBytes, nameLength, StandardCharsets.UTF_8);
+                visitor.visit(bufferStart + position, id, name, buffer.getFloat(position + 4));
+                position += length;
+            }
+            if (buffer.limit() < buffer.capacity()) {
+                return bufferStart + position;
+            }
+            bufferStart += position;
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package studentrecordsystem.recordsystem;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.util.Arrays;
+
+/**
+ * Append-only (term, grade) history of every student of a {@link RecordSystem}, kept as a {@link RecordListener}.
+ * Each add and grade update appends one entry under the current term to chunks of primitive columns (owner, term,
+ * grade and the owner's previous entry), so an append is a few array stores and no object is created per entry.
+ * <p>
+ * Per student the history keeps running sums over one grade per term, the last one recorded in it, so
+ * {@link #gpa(int)} and {@link #trend(int)} take O(1). Terms never go back, which keeps the entries sorted by term:
+ * {@link #forEachGradeAt(int, GradeVisitor)} binary searches the end of the term and reads the owner column front
+ * to back up to it, without following a pointer. A deleted student's history is dropped and its slot reused, so an
+ * id given out again starts from scratch. A record overwritten in place, as by loading a file, keeps its history,
+ * and updateId carries the history over to the new id.
+ * <p>
+ * The history lives in memory only: saves, archives and the journal do not write it, so it starts over from the
+ * current grades when a system is loaded or recovered. It follows one {@link RecordSystem}, so a student moved to
+ * another shard leaves as a delete and starts over in the other shard's history.
+ */
+public final class GradeHistory implements RecordListener, Closeable {
+    @FunctionalInterface
+    public interface EntryVisitor {
+        void visit(int term, float grade);
+    }
+
+    @FunctionalInterface
+    public interface GradeVisitor {
+        void visit(int id, float grade);
+    }
+
+    private final static int chunkBits = 14;
+    private final static int chunkSize = 1 << chunkBits;
+    private final static int chunkMask = chunkSize - 1;
+    private final static int initialStudents = 1024;
+
+    private final RecordSystem system;
+    private int term;
+
+    // Entry columns, chunkSize entries per chunk.
+    private int[][] owners = new int[4][];
+    private int[][] terms = new int[4][];
+    private float[][] grades = new float[4][];
+    private int[][] previousEntries = new int[4][];
+    private int entries;
+
+    // Student columns, one slot per tracked student. A deleted student's id becomes 0 and its slot goes on the free
+    // list; entries from before firstEntries belong to earlier owners of the slot.
+    private final IntIndex slots = new IntIndex();
+    private int[] ids = new int[initialStudents];
+    private int[] firstEntries = new int[initialStudents];
+    private int[] lastEntries = new int[initialStudents];
+    private int[] firstTerms = new int[initialStudents];
+    private int[] lastTerms = new int[initialStudents];
+    private float[] lastGrades = new float[initialStudents];
+    private int[] termCounts = new int[initialStudents];
+    // Sums over one grade per term, with terms counted from the student's first term to keep the doubles exact.
+    private double[] termSums = new double[initialStudents];
+    private double[] gradeSums = new double[initialStudents];
+    private double[] termSquareSums = new double[initialStudents];
+    private double[] productSums = new double[initialStudents];
+    private int slotCount;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int[] latestEntries; // scratch for forEachGradeAt, taken by one call at a time and handed back
+
+    private GradeHistory(RecordSystem system, int term) {
+        this.system = system;
+        this.term = term;
+    }
+
+    // Records every current student's grade under the given term and every change from then on.
+    public static GradeHistory track(@NotNull RecordSystem system, int term) {
+        GradeHistory history = new GradeHistory(system, term);
+        system.locks().lockAllShared();
+        try {
+            system.store().forEach(history::onAdd);
+            system.addListener(history);
+        } finally {
+            system.locks().unlockAllShared();
+        }
+        return history;
+    }
+
+    public synchronized int term() {
+        return term;
+    }
+    // Grades recorded from now on belong to the given term.
+    public synchronized void advanceTerm(int newTerm) throws IllegalArgumentException {
+        if (newTerm < term) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid term %d. Term must not be before the current term %d", newTerm, term
+            ));
+        }
+        term = newTerm;
+    }
+
+    // Number of entries recorded, including entries of deleted students and grades replaced within a term.
+    public synchronized int size() {
+        return entries;
+    }
+
+    // Number of terms the student has a grade in.
+    public synchronized int terms(int id) throws IllegalArgumentException {
+        return termCounts[slotOf(id)];
+    }
+
+    // Mean of the student's grades, counting the last grade recorded in each term once.
+    public synchronized float gpa(int id) throws IllegalArgumentException {
+        int slot = slotOf(id);
+        return (float) (gradeSums[slot] / termCounts[slot]);
+    }
+
+    // Least-squares slope of the student's grade per term, NaN until the student has grades in two terms.
+    public synchronized float trend(int id) throws IllegalArgumentException {
+        int slot = slotOf(id);
+        int n = termCounts[slot];
+        if (n < 2) {
+            return Float.NaN;
+        }
+        double termSum = termSums[slot];
+        return (float) ((n * productSums[slot] - termSum * gradeSums[slot])
+                / (n * termSquareSums[slot] - termSum * termSum));
+    }
+
+    // Grade the student had at the end of the given term, NaN if the history starts after it.
+    public synchronized float gradeAt(int id, int atTerm) throws IllegalArgumentException {
+        for (int entry = lastEntries[slotOf(id)]; entry >= 0; entry = previousEntry(entry)) {
+            if (termOf(entry) <= atTerm) {
+                return gradeOf(entry);
+            }
+        }
+        return Float.NaN;
+    }
+
+    // Visits the student's entries oldest first.
+    public synchronized void forEachEntry(int id, @NotNull EntryVisitor visitor) throws IllegalArgumentException {
+        int slot = slotOf(id);
+        int count = 0;
+        int[] chain = new int[8];
+        for (int entry = lastEntries[slot]; entry >= 0; entry = previousEntry(entry)) {
+            if (count == chain.length) {
+                chain = Arrays.copyOf(chain, count * 2);
+            }
+            chain[count++] = entry;
+        }
+        while (count > 0) {
+            int entry = chain[--count];
+            visitor.visit(termOf(entry), gradeOf(entry));
+        }
+    }
+
+    // Visits every current student with the grade they had at the end of the given term, in no particular order.
+    // Returns the number of students visited. Only the student columns are copied under the monitor; entries before
+    // the end of the term are never written again, so the scan and the visits run outside it.
+    public int forEachGradeAt(int atTerm, @NotNull GradeVisitor visitor) {
+        int end;
+        int[][] ownerChunks;
+        float[][] gradeChunks;
+        int[] slotIds;
+        int[] slotFirstEntries;
+        int[] latest;
+        synchronized (this) {
+            end = endOfTerm(atTerm);
+            int chunkCount = (end + chunkMask) >>> chunkBits;
+            ownerChunks = Arrays.copyOf(owners, chunkCount);
+            gradeChunks = Arrays.copyOf(grades, chunkCount);
+            slotIds = Arrays.copyOf(ids, slotCount);
+            slotFirstEntries = Arrays.copyOf(firstEntries, slotCount);
+            latest = latestEntries;
+            latestEntries = null;
+        }
+        if (latest == null || latest.length < slotIds.length) {
+            latest = new int[slotIds.length];
+        }
+        Arrays.fill(latest, 0, slotIds.length, -1);
+        for (int chunk = 0; chunk < ownerChunks.length; chunk++) {
+            int[] chunkOwners = ownerChunks[chunk];
+            int first = chunk << chunkBits;
+            int length = Math.min(chunkSize, end - first);
+            for (int i = 0; i < length; i++) {
+                latest[chunkOwners[i]] = first + i;
+            }
+        }
+        int visited = 0;
+        for (int slot = 0; slot < slotIds.length; slot++) {
+            // The current owner's entries come after every earlier owner's, so an older latest entry means the
+            // current owner had no grade yet.
+            int entry = latest[slot];
+            if (slotIds[slot] != 0 && entry >= slotFirstEntries[slot]) {
+                visitor.visit(slotIds[slot], gradeChunks[entry >>> chunkBits][entry & chunkMask]);
+                visited++;
+            }
+        }
+        synchronized (this) {
+            latestEntries = latest;
+        }
+        return visited;
+    }
+
+    // Mean grade of the cohort at the end of the given term, NaN if nobody had a grade yet.
+    public double averageAt(int atTerm) {
+        double[] sum = {0};
+        int count = forEachGradeAt(atTerm, (id, grade) -> sum[0] += grade);
+        return count == 0 ? Double.NaN : sum[0] / count;
+    }
+
+    @Override
+    public void close() {
+        system.removeListener(this);
+    }
+
+    @Override
+    public synchronized void onAdd(int id, String name, float grade) {
+        int slot = slots.get(id);
+        if (slot < 0) {
+            slot = newSlot(id);
+        }
+        append(slot, grade);
+    }
+    @Override
+    public synchronized void onDelete(int id, String name, float grade) {
+        int slot = slots.remove(id);
+        if (slot >= 0) {
+            ids[slot] = 0;
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = slot;
+        }
+    }
+    // The same student with a new record, so the history continues with the new grade.
+    @Override
+    public synchronized void onReplace(int id, String oldName, float oldGrade, String newName, float newGrade) {
+        onAdd(id, newName, newGrade);
+    }
+    @Override
+    public synchronized void onUpdateId(int id, int newId) {
+        int slot = slots.remove(id);
+        if (slot >= 0) {
+            ids[slot] = newId;
+            slots.put(newId, slot);
+        }
+    }
+    @Override
+    public synchronized void onUpdateGrade(int id, float oldGrade, float newGrade) {
+        int slot = slots.get(id);
+        if (slot >= 0) {
+            append(slot, newGrade);
+        }
+    }
+
+    private void append(int slot, float grade) {
+        int chunk = entries >>> chunkBits;
+        int index = entries & chunkMask;
+        if (index == 0) {
+            addChunk(chunk);
+        }
+        owners[chunk][index] = slot;
+        terms[chunk][index] = term;
+        grades[chunk][index] = grade;
+        previousEntries[chunk][index] = lastEntries[slot];
+        lastEntries[slot] = entries;
+        entries++;
+
+        if (termCounts[slot] > 0 && lastTerms[slot] == term) {
+            double change = grade - lastGrades[slot];
+            gradeSums[slot] += change;
+            productSums[slot] += (double) (term - firstTerms[slot]) * change;
+        } else {
+            if (termCounts[slot] == 0) {
+                firstTerms[slot] = term;
+            }
+            double t = term - firstTerms[slot];
+            termCounts[slot]++;
+            termSums[slot] += t;
+            termSquareSums[slot] += t * t;
+            gradeSums[slot] += grade;
+            productSums[slot] += t * grade;
+            lastTerms[slot] = term;
+        }
+        lastGrades[slot] = grade;
+    }
+
+    private void addChunk(int chunk) {
+        if (chunk == owners.length) {
+            owners = Arrays.copyOf(owners, chunk * 2);
+            terms = Arrays.copyOf(terms, chunk * 2);
+            grades = Arrays.copyOf(grades, chunk * 2);
+            previousEntries = Arrays.copyOf(previousEntries, chunk * 2);
+        }
+        owners[chunk] = new int[chunkSize];
+        terms[chunk] = new int[chunkSize];
+        grades[chunk] = new float[chunkSize];
+        previousEntries[chunk] = new int[chunkSize];
+    }
+
+    private int newSlot(int id) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+            termCounts[slot] = 0;
+            termSums[slot] = 0;
+            gradeSums[slot] = 0;
+            termSquareSums[slot] = 0;
+            productSums[slot] = 0;
+        } else {
+            slot = addSlot();
+        }
+        ids[slot] = id;
+        firstEntries[slot] = entries;
+        lastEntries[slot] = -1;
+        slots.put(id, slot);
+        return slot;
+    }
+
+    private int addSlot() {
+        if (slotCount == ids.length) {
+            int capacity = slotCount * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            firstEntries = Arrays.copyOf(firstEntries, capacity);
+            lastEntries = Arrays.copyOf(lastEntries, capacity);
+            firstTerms = Arrays.copyOf(firstTerms, capacity);
+            lastTerms = Arrays.copyOf(lastTerms, capacity);
+            lastGrades = Arrays.copyOf(lastGrades, capacity);
+            termCounts = Arrays.copyOf(termCounts, capacity);
+            termSums = Arrays.copyOf(termSums, capacity);
+            gradeSums = Arrays.copyOf(gradeSums, capacity);
+            termSquareSums = Arrays.copyOf(termSquareSums, capacity);
+            productSums = Arrays.copyOf(productSums, capacity);
+        }
+        return slotCount++;
+    }
+
+    // Index of the first entry recorded after the given term; entries are sorted by term.
+    private int endOfTerm(int atTerm) {
+        int low = 0;
+        int high = entries;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (termOf(middle) <= atTerm) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int termOf(int entry) {
+        return terms[entry >>> chunkBits][entry & chunkMask];
+    }
+    private float gradeOf(int entry) {
+        return grades[entry >>> chunkBits][entry & chunkMask];
+    }
+    private int previousEntry(int entry) {
+        return previousEntries[entry >>> chunkBits][entry & chunkMask];
+    }
+
+    private int slotOf(int id) throws IllegalArgumentException {
+        int slot = slots.get(id);
+        if (slot < 0) {
+            throw new IllegalArgumentException(String.format("Student with id %d has no grade history", id));
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,65 @@
+package studentrecordsystem.recordsystem;
+
+/**
+ * Point-in-time grade statistics of a {@link RecordSystem}. Grades are counted in {@link #bandCount} bands of ten
+ * points each; the last band also holds a grade of exactly 100. Every grade statistic is {@code NaN} while the
+ * system is empty.
+ */
+public final class GradeStatistics {
+    public final static int bandCount = 10;
+
+    private final int count;
+    private final double sum;
+    private final double sumOfSquares;
+    private final float min;
+    private final float max;
+    private final float median;
+    private final int[] bands;
+
+    GradeStatistics(int count, double sum, double sumOfSquares, float min, float max, float median, int[] bands) {
+        this.count = count;
+        this.sum = sum;
+        this.sumOfSquares = sumOfSquares;
+        this.min = min;
+        this.max = max;
+        this.median = median;
+        this.bands = bands;
+    }
+
+    static int bandOf(float grade) {
+        return Math.min((int) (grade / 10), bandCount - 1);
+    }
+
+    public int count() {
+        return count;
+    }
+    public double mean() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+    public double standardDeviation() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        double mean = sum / count;
+        return Math.sqrt(Math.max(0, sumOfSquares / count - mean * mean));
+    }
+    public float min() {
+        return min;
+    }
+    public float max() {
+        return max;
+    }
+    public float median() {
+        return median;
+    }
+
+    // Number of grades in [band * 10, band * 10 + 10), or [90, 100] for the last band.
+    public int bandSize(int band) throws IllegalArgumentException {
+        if (band < 0 || band >= bandCount) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid band %d. Band must be between 0 and %d", band, bandCount - 1)
+            );
+        }
+        return bands[band];
+    }
+}
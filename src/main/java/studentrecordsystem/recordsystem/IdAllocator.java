@@ -0,0 +1,357 @@
+package studentrecordsystem.recordsystem;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Set of taken student ids that hands out free ones, lowest first. Ids are split roaring-style on their high 16 bits:
+ * each 65536-id range is absent while empty, a sorted char array while it holds at most 4096 ids and an 8 KB bitmap
+ * after that, so both scattered and dense rosters cost at most about two bytes per id. The ranges of a positive int
+ * fit in one direct table, so finding a range is an array index rather than a search.
+ * <p>
+ * {@link #allocate()} serves each thread from its own reservation of {@code reservation} ids, taken from the set in
+ * one synchronized step, so concurrent allocators meet once per reservation instead of once per id. Reserved ids
+ * count as taken until they are used or returned with {@link #release(int)} or {@link #releaseReservation()}. As a
+ * {@link RecordListener} the allocator also follows ids added, deleted and moved by any other path, so freed ids
+ * are handed out again by later reservations.
+ * <p>
+ * The listener calls never take the monitor: each change is queued and applied in batches by the next synchronized
+ * call, or by the writer whose change fills a batch of {@code 1024}. An {@link RecordSystem#enroll} therefore meets
+ * other threads once per reservation and once per batch of changes.
+ */
+public final class IdAllocator implements RecordListener {
+    private final static int ranges = 1 << 15; // high halves of the positive ints
+    private final static int rangeSize = 1 << 16;
+    private final static int arrayLimit = 4096;
+    private final static int bitmapWords = rangeSize / 64;
+    private final static int defaultReservation = 64;
+    private final static int startId = 1;
+    private final static int changeBatch = 1024;
+
+    private final static class Reservation {
+        private final int[] ids;
+        private int next;
+        private int end;
+
+        private Reservation(int size) {
+            ids = new int[size];
+        }
+    }
+
+    private final char[][] arrays = new char[ranges][];
+    private final long[][] bitmaps = new long[ranges][];
+    private final int[] cardinalities = new int[ranges];
+    private final int reservation;
+    private final ThreadLocal<Reservation> reservations = new ThreadLocal<>();
+    // Changes seen by the listener calls and not applied to the set yet.
+    private final ConcurrentLinkedQueue<Integer> changes = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedChanges = new AtomicInteger();
+    private long size;
+    private int lowestFree = startId; // every id below it is taken
+
+    public IdAllocator() {
+        this(defaultReservation);
+    }
+    public IdAllocator(int reservation) throws IllegalArgumentException {
+        if (reservation < 1) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid reservation %d. Reservation must be positive", reservation)
+            );
+        }
+        this.reservation = reservation;
+    }
+
+    // Takes every id in the store; used by RecordSystem while no change can run.
+    IdAllocator(@NotNull StudentStore store, int reservation) {
+        this(reservation);
+        store.forEach((id, name, grade) -> take(id));
+    }
+
+    public int reservation() {
+        return reservation;
+    }
+
+    // Number of taken ids, including ids reserved by threads but not used yet.
+    public synchronized long size() {
+        applyChanges();
+        return size;
+    }
+
+    public synchronized boolean isTaken(int id) throws IllegalArgumentException {
+        checkId(id);
+        applyChanges();
+        int range = id >>> 16;
+        char low = (char) id;
+        if (bitmaps[range] != null) {
+            return (bitmaps[range][low >>> 6] & 1L << low) != 0;
+        }
+        return arrays[range] != null && Arrays.binarySearch(arrays[range], 0, cardinalities[range], low) >= 0;
+    }
+
+    // Lowest id at or above from that is neither taken nor reserved.
+    public synchronized int nextFree(int from) throws IllegalArgumentException, IllegalStateException {
+        checkId(from);
+        applyChanges();
+        int id = nextAbsent(Math.max(from, lowestFree));
+        if (id < 0) {
+            throw new IllegalStateException(String.format("No free ID at or above %d", from));
+        }
+        return id;
+    }
+
+    // Marks an id taken. Returns false if it already was.
+    public synchronized boolean take(int id) throws IllegalArgumentException {
+        checkId(id);
+        applyChanges();
+        return set(id);
+    }
+
+    // Hands out a free id from the calling thread's reservation, reserving the next free ones when it runs out.
+    public int allocate() throws IllegalStateException {
+        Reservation reserved = reservations.get();
+        if (reserved == null) {
+            reserved = new Reservation(reservation);
+            reservations.set(reserved);
+        }
+        if (reserved.next == reserved.end) {
+            reserve(reserved);
+        }
+        return reserved.ids[reserved.next++];
+    }
+
+    // Frees an id, for example one that was allocated but never used. Returns false if it was not taken.
+    public synchronized boolean release(int id) throws IllegalArgumentException {
+        checkId(id);
+        applyChanges();
+        return clear(id);
+    }
+
+    // Frees the ids the calling thread reserved but has not used, for threads that stop allocating.
+    public void releaseReservation() {
+        Reservation reserved = reservations.get();
+        if (reserved == null) {
+            return;
+        }
+        synchronized (this) {
+            applyChanges();
+            for (int i = reserved.next; i < reserved.end; i++) {
+                clear(reserved.ids[i]);
+            }
+        }
+        reserved.next = 0;
+        reserved.end = 0;
+    }
+
+    @Override
+    public void onAdd(int id, String name, float grade) {
+        queue(id); // a reserved id is already taken, but queued anyway in case a delete freed it meanwhile
+    }
+    @Override
+    public void onDelete(int id, String name, float grade) {
+        queue(~id);
+    }
+    @Override
+    public void onUpdateId(int id, int newId) {
+        queue(~id);
+        queue(newId);
+    }
+
+    // Listener calls for one id run under that id's lock, so the queue keeps each id's changes in order. Ids are
+    // positive, so a deleted id is queued as its complement.
+    private void queue(int change) {
+        changes.add(change);
+        if (queuedChanges.incrementAndGet() % changeBatch == 0) {
+            synchronized (this) {
+                applyChanges();
+            }
+        }
+    }
+
+    private void applyChanges() {
+        for (Integer change; (change = changes.poll()) != null; ) {
+            if (change >= 0) {
+                set(change);
+            } else {
+                clear(~change);
+            }
+        }
+    }
+
+    private synchronized void reserve(Reservation reserved) throws IllegalStateException {
+        applyChanges();
+        int count = 0;
+        int from = lowestFree;
+        while (count < reservation) {
+            int id = nextAbsent(from);
+            if (id < 0) {
+                break;
+            }
+            set(id);
+            reserved.ids[count++] = id;
+            from = id + 1;
+            if (from < 0) {
+                break;
+            }
+        }
+        if (count == 0) {
+            throw new IllegalStateException("No free ID left");
+        }
+        reserved.next = 0;
+        reserved.end = count;
+    }
+
+    private boolean set(int id) {
+        int range = id >>> 16;
+        char low = (char) id;
+        long[] bitmap = bitmaps[range];
+        if (bitmap == null) {
+            char[] array = arrays[range];
+            int count = cardinalities[range];
+            int position = array == null ? -1 : Arrays.binarySearch(array, 0, count, low);
+            if (position >= 0) {
+                return false;
+            }
+            if (count == arrayLimit) {
+                bitmap = toBitmap(range);
+            } else {
+                position = -position - 1;
+                if (array == null) {
+                    array = arrays[range] = new char[4];
+                } else if (count == array.length) {
+                    array = arrays[range] = Arrays.copyOf(array, Math.min(arrayLimit, count * 2));
+                }
+                System.arraycopy(array, position, array, position + 1, count - position);
+                array[position] = low;
+                cardinalities[range]++;
+                size++;
+                advanceLowestFree(id);
+                return true;
+            }
+        }
+        long bit = 1L << low;
+        if ((bitmap[low >>> 6] & bit) != 0) {
+            return false;
+        }
+        bitmap[low >>> 6] |= bit;
+        cardinalities[range]++;
+        size++;
+        advanceLowestFree(id);
+        return true;
+    }
+
+    private boolean clear(int id) {
+        int range = id >>> 16;
+        char low = (char) id;
+        long[] bitmap = bitmaps[range];
+        if (bitmap != null) {
+            long bit = 1L << low;
+            if ((bitmap[low >>> 6] & bit) == 0) {
+                return false;
+            }
+            bitmap[low >>> 6] &= ~bit;
+            // Half the limit, so a range hovering around it does not convert back and forth.
+            if (--cardinalities[range] <= arrayLimit / 2) {
+                toArray(range);
+            }
+        } else {
+            char[] array = arrays[range];
+            int count = cardinalities[range];
+            int position = array == null ? -1 : Arrays.binarySearch(array, 0, count, low);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(array, position + 1, array, position, count - position - 1);
+            if (--cardinalities[range] == 0) {
+                arrays[range] = null;
+            }
+        }
+        size--;
+        lowestFree = Math.min(lowestFree, id);
+        return true;
+    }
+
+    private void advanceLowestFree(int id) {
+        if (id == lowestFree) {
+            int next = nextAbsent(id);
+            lowestFree = next < 0 ? Integer.MAX_VALUE : next;
+        }
+    }
+
+    // Lowest id at or above from that is not in the set, or -1.
+    private int nextAbsent(int from) {
+        for (int range = from >>> 16; range < ranges; range++) {
+            int low = range == from >>> 16 ? from & (rangeSize - 1) : 0;
+            int found = nextAbsentInRange(range, low);
+            if (found >= 0) {
+                return range << 16 | found;
+            }
+        }
+        return -1;
+    }
+
+    private int nextAbsentInRange(int range, int low) {
+        if (cardinalities[range] == rangeSize) {
+            return -1;
+        }
+        long[] bitmap = bitmaps[range];
+        if (bitmap != null) {
+            int word = low >>> 6;
+            long free = ~bitmap[word] & -1L << low;
+            while (free == 0) {
+                if (++word == bitmapWords) {
+                    return -1;
+                }
+                free = ~bitmap[word];
+            }
+            return word * 64 + Long.numberOfTrailingZeros(free);
+        }
+        char[] array = arrays[range];
+        if (array == null) {
+            return low;
+        }
+        int count = cardinalities[range];
+        int position = Arrays.binarySearch(array, 0, count, (char) low);
+        if (position < 0) {
+            return low;
+        }
+        // Taken ids are sorted and distinct, so the run starting at low ends at the first gap.
+        while (position < count && array[position] == low) {
+            position++;
+            low++;
+        }
+        return low < rangeSize ? low : -1;
+    }
+
+    private long[] toBitmap(int range) {
+        long[] bitmap = new long[bitmapWords];
+        char[] array = arrays[range];
+        for (int i = 0; i < cardinalities[range]; i++) {
+            bitmap[array[i] >>> 6] |= 1L << array[i];
+        }
+        arrays[range] = null;
+        bitmaps[range] = bitmap;
+        return bitmap;
+    }
+
+    private void toArray(int range) {
+        long[] bitmap = bitmaps[range];
+        char[] array = new char[arrayLimit];
+        int count = 0;
+        for (int word = 0; word < bitmapWords; word++) {
+            for (long bits = bitmap[word]; bits != 0; bits &= bits - 1) {
+                array[count++] = (char) (word * 64 + Long.numberOfTrailingZeros(bits));
+            }
+        }
+        bitmaps[range] = null;
+        arrays[range] = array;
+    }
+
+    private static void checkId(int id) throws IllegalArgumentException {
+        if (id < startId) {
+            throw new IllegalArgumentException(String.format("Invalid ID %d. ID must be a positive integer", id));
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package studentrecordsystem.recordsystem;
+
+import java.util.Arrays;
+
+/**
+ * Sorted set of longs stored as a list of sorted blocks of at most {@code maxBlockSize} keys. A key's block is found
+ * by binary search over the last key of every block, which is small enough to stay in cache, and a change inside a
+ * block is one short array copy. A Fenwick tree over the block sizes finds ranks in O(log n); it is rebuilt only
+ * when a block is split or dropped.
+ */
+final class LongOrderedSet {
+    @FunctionalInterface
+    interface Visitor {
+        boolean visit(long key);
+    }
+
+    private final static int maxBlockSize = 512;
+    private final static int mergeBelow = maxBlockSize / 8;
+
+    private long[][] blocks;
+    private int[] blockSizes;
+    private long[] lastKeys;
+    private int[] prefixTree;
+    private int blockCount;
+    private int size;
+
+    LongOrderedSet() {
+        clear();
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(long key) {
+        int block = blockOf(key);
+        return Arrays.binarySearch(blocks[block], 0, blockSizes[block], key) >= 0;
+    }
+
+    boolean add(long key) {
+        int block = blockOf(key);
+        int position = Arrays.binarySearch(blocks[block], 0, blockSizes[block], key);
+        if (position >= 0) {
+            return false;
+        }
+        position = -position - 1;
+        long[] keys = blocks[block];
+        System.arraycopy(keys, position, keys, position + 1, blockSizes[block] - position);
+        keys[position] = key;
+        blockSizes[block]++;
+        lastKeys[block] = keys[blockSizes[block] - 1];
+        size++;
+        if (blockSizes[block] == maxBlockSize) {
+            split(block);
+        } else {
+            addToPrefix(block, 1);
+        }
+        return true;
+    }
+
+    boolean remove(long key) {
+        int block = blockOf(key);
+        long[] keys = blocks[block];
+        int position = Arrays.binarySearch(keys, 0, blockSizes[block], key);
+        if (position < 0) {
+            return false;
+        }
+        System.arraycopy(keys, position + 1, keys, position, blockSizes[block] - position - 1);
+        blockSizes[block]--;
+        size--;
+        if (blockSizes[block] > 0) {
+            lastKeys[block] = keys[blockSizes[block] - 1];
+        }
+        if (blockSizes[block] < mergeBelow && blockCount > 1) {
+            mergeWithNeighbour(block);
+        } else {
+            addToPrefix(block, -1);
+        }
+        return true;
+    }
+
+    void clear() {
+        blocks = new long[4][];
+        blocks[0] = new long[maxBlockSize];
+        blockSizes = new int[4];
+        lastKeys = new long[4];
+        prefixTree = new int[5];
+        blockCount = 1;
+        size = 0;
+    }
+
+    // Number of keys strictly less than the given key.
+    int rank(long key) {
+        int block = blockOf(key);
+        int position = Arrays.binarySearch(blocks[block], 0, blockSizes[block], key);
+        return prefix(block) + (position >= 0 ? position : -position - 1);
+    }
+
+    // Key with the given zero-based rank, which must be below size().
+    long select(int rank) {
+        int block = blockOfRank(rank);
+        return blocks[block][rank - prefix(block)];
+    }
+
+    // Visits keys in [from, to] in ascending order until the visitor returns false.
+    void forEachInRange(long from, long to, Visitor visitor) {
+        int block = blockOf(from);
+        int position = Arrays.binarySearch(blocks[block], 0, blockSizes[block], from);
+        ascending(block, position >= 0 ? position : -position - 1, to, visitor);
+    }
+
+    // Visits keys in [from, to] in descending order until the visitor returns false.
+    void forEachInRangeDescending(long from, long to, Visitor visitor) {
+        int block = blockOf(to);
+        int position = Arrays.binarySearch(blocks[block], 0, blockSizes[block], to);
+        descending(block, position >= 0 ? position : -position - 2, from, visitor);
+    }
+
+    // Visits keys in ascending order starting at the given rank until the visitor returns false.
+    void forEachFromRank(int rank, Visitor visitor) {
+        if (rank < size()) {
+            int block = blockOfRank(rank);
+            ascending(block, rank - prefix(block), Long.MAX_VALUE, visitor);
+        }
+    }
+
+    // Visits keys in descending order starting at the given rank from the top until the visitor returns false.
+    void forEachFromRankDescending(int rank, Visitor visitor) {
+        if (rank < size()) {
+            int block = blockOfRank(size - 1 - rank);
+            descending(block, size - 1 - rank - prefix(block), Long.MIN_VALUE, visitor);
+        }
+    }
+
+    private void ascending(int block, int position, long to, Visitor visitor) {
+        for (; block < blockCount; block++, position = 0) {
+            long[] keys = blocks[block];
+            for (; position < blockSizes[block]; position++) {
+                if (keys[position] > to || !visitor.visit(keys[position])) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void descending(int block, int position, long from, Visitor visitor) {
+        while (true) {
+            long[] keys = blocks[block];
+            for (; position >= 0; position--) {
+                if (keys[position] < from || !visitor.visit(keys[position])) {
+                    return;
+                }
+            }
+            if (--block < 0) {
+                return;
+            }
+            position = blockSizes[block] - 1;
+        }
+    }
+
+    // First block whose last key is at least the key, or the last block.
+    private int blockOf(long key) {
+        int low = 0;
+        int high = blockCount - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (lastKeys[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void split(int block) {
+        if (blockCount == blocks.length) {
+            int capacity = blockCount * 2;
+            blocks = Arrays.copyOf(blocks, capacity);
+            blockSizes = Arrays.copyOf(blockSizes, capacity);
+            lastKeys = Arrays.copyOf(lastKeys, capacity);
+            prefixTree = new int[capacity + 1];
+        }
+        System.arraycopy(blocks, block + 1, blocks, block + 2, blockCount - block - 1);
+        System.arraycopy(blockSizes, block + 1, blockSizes, block + 2, blockCount - block - 1);
+        System.arraycopy(lastKeys, block + 1, lastKeys, block + 2, blockCount - block - 1);
+        blockCount++;
+
+        long[] lower = blocks[block];
+        long[] upper = new long[maxBlockSize];
+        int half = maxBlockSize / 2;
+        System.arraycopy(lower, half, upper, 0, maxBlockSize - half);
+        blocks[block + 1] = upper;
+        blockSizes[block] = half;
+        blockSizes[block + 1] = maxBlockSize - half;
+        lastKeys[block + 1] = lastKeys[block];
+        lastKeys[block] = lower[half - 1];
+        rebuildPrefix();
+    }
+
+    private void mergeWithNeighbour(int block) {
+        int lower = block == blockCount - 1 ? block - 1 : block;
+        int upper = lower + 1;
+        if (blockSizes[lower] + blockSizes[upper] >= maxBlockSize) {
+            addToPrefix(block, -1);
+            return;
+        }
+        System.arraycopy(blocks[upper], 0, blocks[lower], blockSizes[lower], blockSizes[upper]);
+        blockSizes[lower] += blockSizes[upper];
+        lastKeys[lower] = blocks[lower][blockSizes[lower] - 1];
+        System.arraycopy(blocks, upper + 1, blocks, upper, blockCount - upper - 1);
+        System.arraycopy(blockSizes, upper + 1, blockSizes, upper, blockCount - upper - 1);
+        System.arraycopy(lastKeys, upper + 1, lastKeys, upper, blockCount - upper - 1);
+        blockCount--;
+        blocks[blockCount] = null;
+        rebuildPrefix();
+    }
+
+    private void rebuildPrefix() {
+        Arrays.fill(prefixTree, 0);
+        for (int i = 1; i <= blockCount; i++) {
+            prefixTree[i] += blockSizes[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= blockCount) {
+                prefixTree[parent] += prefixTree[i];
+            }
+        }
+    }
+
+    private void addToPrefix(int block, int delta) {
+        for (int i = block + 1; i <= blockCount; i += i & -i) {
+            prefixTree[i] += delta;
+        }
+    }
+
+    // Number of keys in the blocks before the given one.
+    private int prefix(int block) {
+        int sum = 0;
+        for (int i = block; i > 0; i -= i & -i) {
+            sum += prefixTree[i];
+        }
+        return sum;
+    }
+
+    private int blockOfRank(int rank) {
+        int block = 0;
+        for (int step = Integer.highestOneBit(blockCount); step > 0; step >>= 1) {
+            int next = block + step;
+            if (next <= blockCount && prefixTree[next] <= rank) {
+                block = next;
+                rank -= prefixTree[next];
+            }
+        }
+        return block;
+    }
+}
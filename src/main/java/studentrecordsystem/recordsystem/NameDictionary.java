@@ -0,0 +1,136 @@
+package studentrecordsystem.recordsystem;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reference-counted interning of names. Each distinct name is stored once, as UTF-8 in a shared byte pool, and is
+ * known by an int code; rows hold codes instead of their own copy of the bytes. A name's code and bytes are released
+ * when its last reference goes, and the pool is compacted once more than half of it is released bytes.
+ * Codes are found by content through an {@link IntIndex} from hash to the first code with that hash, with the rest
+ * chained through {@code next}.
+ */
+final class NameDictionary {
+    private final static int initialCodes = 16;
+    private final static int initialPool = 256;
+
+    private final IntIndex byHash = new IntIndex();
+    private int[] hashes = new int[initialCodes];
+    private int[] offsets = new int[initialCodes];
+    private int[] lengths = new int[initialCodes];
+    private int[] references = new int[initialCodes];
+    private int[] next = new int[initialCodes]; // next code with the same hash, or next free code
+    private int codesUsed;
+    private int freeCodes = -1;
+    private int size;
+    private byte[] pool = new byte[initialPool];
+    private int poolUsed;
+    private int poolGarbage;
+
+    int size() {
+        return size;
+    }
+
+    int acquire(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(bytes);
+        for (int code = byHash.get(hash); code >= 0; code = next[code]) {
+            if (Arrays.equals(pool, offsets[code], offsets[code] + lengths[code], bytes, 0, bytes.length)) {
+                references[code]++;
+                return code;
+            }
+        }
+        int code = newCode();
+        hashes[code] = hash;
+        references[code] = 1;
+        append(code, bytes);
+        next[code] = byHash.put(hash, code);
+        size++;
+        return code;
+    }
+
+    void release(int code) {
+        if (--references[code] > 0) {
+            return;
+        }
+        int hash = hashes[code];
+        int head = byHash.get(hash);
+        if (head == code) {
+            if (next[code] < 0) {
+                byHash.remove(hash);
+            } else {
+                byHash.put(hash, next[code]);
+            }
+        } else {
+            int previous = head;
+            while (next[previous] != code) {
+                previous = next[previous];
+            }
+            next[previous] = next[code];
+        }
+        poolGarbage += lengths[code];
+        lengths[code] = 0;
+        next[code] = freeCodes;
+        freeCodes = code;
+        size--;
+    }
+
+    String name(int code) {
+        return new String(pool, offsets[code], lengths[code], StandardCharsets.UTF_8);
+    }
+
+    private int newCode() {
+        if (freeCodes >= 0) {
+            int code = freeCodes;
+            freeCodes = next[code];
+            return code;
+        }
+        if (codesUsed == hashes.length) {
+            int capacity = codesUsed * 2;
+            hashes = Arrays.copyOf(hashes, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            references = Arrays.copyOf(references, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+        return codesUsed++;
+    }
+
+    private void append(int code, byte[] bytes) {
+        if (poolUsed + bytes.length > pool.length) {
+            if (poolGarbage > poolUsed / 2) {
+                compact();
+            }
+            if (poolUsed + bytes.length > pool.length) {
+                pool = Arrays.copyOf(pool, Math.max(poolUsed + bytes.length, pool.length * 2));
+            }
+        }
+        System.arraycopy(bytes, 0, pool, poolUsed, bytes.length);
+        offsets[code] = poolUsed;
+        lengths[code] = bytes.length;
+        poolUsed += bytes.length;
+    }
+
+    private void compact() {
+        byte[] compacted = new byte[pool.length];
+        int used = 0;
+        for (int code = 0; code < codesUsed; code++) {
+            if (references[code] > 0) {
+                System.arraycopy(pool, offsets[code], compacted, used, lengths[code]);
+                offsets[code] = used;
+                used += lengths[code];
+            }
+        }
+        pool = compacted;
+        poolUsed = used;
+        poolGarbage = 0;
+    }
+
+    private static int hash(byte[] bytes) {
+        int hash = 1;
+        for (byte b : bytes) {
+            hash = 31 * hash + b;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,135 @@
+package studentrecordsystem.recordsystem;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Columnar store whose rows and name bytes live in direct {@link ByteBuffer}s outside the Java heap. Only the
+ * id index stays on the heap, as two primitive arrays.
+ */
+public final class OffHeapStudentStore extends AbstractColumnarStudentStore {
+    private final static int defaultCapacity = 1024;
+    private final static int rowBytes = 16;
+    private final static int idOffset = 0;
+    private final static int gradeOffset = 4;
+    private final static int nameOffsetOffset = 8;
+    private final static int nameLengthOffset = 12;
+
+    private ByteBuffer rows;
+    private ByteBuffer names;
+    private int namesUsed;
+    private int namesGarbage;
+
+    public OffHeapStudentStore() {
+        this(defaultCapacity);
+    }
+    public OffHeapStudentStore(int initialCapacity) {
+        super(initialCapacity);
+        int capacity = Math.max(initialCapacity, 1);
+        rows = allocate(capacity * rowBytes);
+        names = allocate(capacity * 8);
+    }
+
+    @Override
+    int capacity() {
+        return rows.capacity() / rowBytes;
+    }
+
+    @Override
+    void grow(int minCapacity) {
+        rows = copy(rows, size() * rowBytes, minCapacity * rowBytes);
+    }
+
+    @Override
+    int idAt(int row) {
+        return rows.getInt(row * rowBytes + idOffset);
+    }
+
+    @Override
+    String nameAt(int row) {
+        byte[] bytes = new byte[rows.getInt(row * rowBytes + nameLengthOffset)];
+        names.get(rows.getInt(row * rowBytes + nameOffsetOffset), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    float gradeAt(int row) {
+        return rows.getFloat(row * rowBytes + gradeOffset);
+    }
+
+    @Override
+    void setIdAt(int row, int id) {
+        rows.putInt(row * rowBytes + idOffset, id);
+    }
+
+    @Override
+    void setNameAt(int row, String name) {
+        releaseRow(row);
+        appendName(row, name);
+    }
+
+    @Override
+    void setGradeAt(int row, float grade) {
+        rows.putFloat(row * rowBytes + gradeOffset, grade);
+    }
+
+    @Override
+    void writeRow(int row, int id, String name, float grade) {
+        rows.putInt(row * rowBytes + idOffset, id);
+        rows.putFloat(row * rowBytes + gradeOffset, grade);
+        rows.putInt(row * rowBytes + nameLengthOffset, 0);
+        appendName(row, name);
+    }
+
+    @Override
+    void releaseRow(int row) {
+        namesGarbage += rows.getInt(row * rowBytes + nameLengthOffset);
+        rows.putInt(row * rowBytes + nameLengthOffset, 0);
+    }
+
+    @Override
+    void moveRow(int from, int to) {
+        rows.put(to * rowBytes, rows, from * rowBytes, rowBytes);
+    }
+
+    private void appendName(int row, String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (namesUsed + bytes.length > names.capacity()) {
+            if (namesGarbage > namesUsed / 2) {
+                compactNames();
+            }
+            if (namesUsed + bytes.length > names.capacity()) {
+                names = copy(names, namesUsed, Math.max(namesUsed + bytes.length, names.capacity() * 2));
+            }
+        }
+        names.put(namesUsed, bytes);
+        rows.putInt(row * rowBytes + nameOffsetOffset, namesUsed);
+        rows.putInt(row * rowBytes + nameLengthOffset, bytes.length);
+        namesUsed += bytes.length;
+    }
+
+    private void compactNames() {
+        ByteBuffer compacted = allocate(names.capacity());
+        int used = 0;
+        for (int row = 0; row < size(); row++) {
+            int length = rows.getInt(row * rowBytes + nameLengthOffset);
+            compacted.put(used, names, rows.getInt(row * rowBytes + nameOffsetOffset), length);
+            rows.putInt(row * rowBytes + nameOffsetOffset, used);
+            used += length;
+        }
+        names = compacted;
+        namesUsed = used;
+        namesGarbage = 0;
+    }
+
+    private static ByteBuffer copy(ByteBuffer source, int usedBytes, int capacity) {
+        ByteBuffer copy = allocate(capacity);
+        copy.put(0, source, 0, usedBytes);
+        return copy;
+    }
+
+    private static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+    }
+}
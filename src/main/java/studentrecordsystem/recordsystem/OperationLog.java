@@ -0,0 +1,213 @@
+package studentrecordsystem.recordsystem;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of record system changes. Every entry is framed as {@code int length | int CRC32C | payload}, so a
+ * torn write at the end of the file is detected and dropped on replay. Appends only copy the entry into memory;
+ * {@link #sync()} writes everything appended so far and fsyncs it once, so concurrent appenders share one fsync.
+ */
+public final class OperationLog implements RecordListener, Closeable {
+    private final static byte addEntry = 1;
+    private final static byte deleteEntry = 2;
+    private final static byte updateNameEntry = 3;
+    private final static byte updateIdEntry = 4;
+    private final static byte updateGradeEntry = 5;
+    private final static int frameBytes = 8;
+    private final static int initialBufferSize = 1 << 16;
+
+    private final FileChannel channel;
+    private final Object syncLock = new Object();
+    private final CRC32C checksum = new CRC32C();
+    private ByteBuffer pending = ByteBuffer.allocate(initialBufferSize);
+    private ByteBuffer writing = ByteBuffer.allocate(initialBufferSize);
+    private int entryStart;
+    private long appended;
+    private long durable;
+
+    private OperationLog(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    // Opens a log for appending, first cutting off anything after the last complete entry.
+    public static OperationLog open(@NotNull Path file) throws IOException {
+        long validBytes = Files.exists(file) ? replay(file, new RecordListener() {}) : 0;
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.truncate(validBytes);
+        channel.position(validBytes);
+        return new OperationLog(channel);
+    }
+
+    // Feeds every complete entry of the log to the target and returns the number of bytes they occupy.
+    public static long replay(@NotNull Path file, @NotNull RecordListener target) throws IOException {
+        long validBytes = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            CRC32C checksum = new CRC32C();
+            byte[] payload = new byte[64];
+            while (true) {
+                int length;
+                int expectedChecksum;
+                try {
+                    length = in.readInt();
+                    expectedChecksum = in.readInt();
+                    if (length < 5 || length > Short.MAX_VALUE + 16) {
+                        return validBytes;
+                    }
+                    if (length > payload.length) {
+                        payload = new byte[length];
+                    }
+                    in.readFully(payload, 0, length);
+                } catch (EOFException e) {
+                    return validBytes;
+                }
+                checksum.reset();
+                checksum.update(payload, 0, length);
+                if ((int) checksum.getValue() != expectedChecksum) {
+                    return validBytes;
+                }
+                apply(ByteBuffer.wrap(payload, 0, length), target);
+                validBytes += frameBytes + length;
+            }
+        }
+    }
+
+    private static void apply(ByteBuffer entry, RecordListener target) {
+        byte type = entry.get();
+        int id = entry.getInt();
+        switch (type) {
+            case addEntry -> {
+                float grade = entry.getFloat();
+                target.onAdd(id, readName(entry), grade);
+            }
+            case deleteEntry -> target.onDelete(id, null, Float.NaN);
+            case updateNameEntry -> target.onUpdateName(id, null, readName(entry));
+            case updateIdEntry -> target.onUpdateId(id, entry.getInt());
+            case updateGradeEntry -> target.onUpdateGrade(id, Float.NaN, entry.getFloat());
+            default -> throw new IllegalStateException(String.format("Unknown log entry type %d", type));
+        }
+    }
+
+    // RecordSystem rejects longer names up front. A name that still arrives, for example from a file loaded without
+    // validation, fails here instead of writing a length that does not fit and hiding every later entry from replay.
+    private static byte[] nameBytes(String name) throws IllegalArgumentException {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    String.format("Name of %d bytes is too long for the operation log", bytes.length)
+            );
+        }
+        return bytes;
+    }
+
+    private static String readName(ByteBuffer entry) {
+        int length = entry.getShort();
+        String name = new String(entry.array(), entry.arrayOffset() + entry.position(), length, StandardCharsets.UTF_8);
+        entry.position(entry.position() + length);
+        return name;
+    }
+
+    @Override
+    public void onAdd(int id, String name, float grade) {
+        byte[] bytes = nameBytes(name);
+        synchronized (this) {
+            ByteBuffer entry = begin(11 + bytes.length, addEntry, id);
+            entry.putFloat(grade).putShort((short) bytes.length).put(bytes);
+            end(entry);
+        }
+    }
+
+    @Override
+    public synchronized void onDelete(int id, String name, float grade) {
+        end(begin(5, deleteEntry, id));
+    }
+
+    @Override
+    public void onUpdateName(int id, String oldName, String newName) {
+        byte[] bytes = nameBytes(newName);
+        synchronized (this) {
+            ByteBuffer entry = begin(7 + bytes.length, updateNameEntry, id);
+            entry.putShort((short) bytes.length).put(bytes);
+            end(entry);
+        }
+    }
+
+    @Override
+    public synchronized void onUpdateId(int id, int newId) {
+        end(begin(9, updateIdEntry, id).putInt(newId));
+    }
+
+    @Override
+    public synchronized void onUpdateGrade(int id, float oldGrade, float newGrade) {
+        end(begin(9, updateGradeEntry, id).putFloat(newGrade));
+    }
+
+    public synchronized long appended() {
+        return appended;
+    }
+
+    public void sync() throws IOException {
+        synchronized (syncLock) {
+            long batchEnd;
+            synchronized (this) {
+                if (durable == appended) {
+                    return;
+                }
+                ByteBuffer swap = writing;
+                writing = pending;
+                pending = swap;
+                batchEnd = appended;
+            }
+            writing.flip();
+            while (writing.hasRemaining()) {
+                channel.write(writing);
+            }
+            writing.clear();
+            channel.force(false);
+            durable = batchEnd;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        sync();
+        channel.close();
+    }
+
+    private ByteBuffer begin(int payloadBytes, byte type, int id) {
+        if (pending.remaining() < frameBytes + payloadBytes) {
+            ByteBuffer larger = ByteBuffer.allocate(
+                    Math.max(pending.capacity() * 2, pending.position() + frameBytes + payloadBytes)
+            );
+            pending.flip();
+            larger.put(pending);
+            pending = larger;
+        }
+        entryStart = pending.position();
+        pending.position(entryStart + frameBytes);
+        return pending.put(type).putInt(id);
+    }
+
+    private void end(ByteBuffer entry) {
+        int payloadStart = entryStart + frameBytes;
+        int length = entry.position() - payloadStart;
+        checksum.reset();
+        checksum.update(entry.array(), payloadStart, length);
+        entry.putInt(entryStart, length);
+        entry.putInt(entryStart + 4, (int) checksum.getValue());
+        appended++;
+    }
+}
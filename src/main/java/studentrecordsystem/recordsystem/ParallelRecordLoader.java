@@ -0,0 +1,193 @@
+package studentrecordsystem.recordsystem;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parses a record file on several threads. The file is cut into chunks at newlines, each chunk is read with a
+ * positional read and parsed with the {@link RecordFileReader} field parsers into its own columns, and the columns
+ * are concatenated in file order once every chunk is done. Nothing is handed to a store here, so the caller can
+ * check the whole file before applying any of it.
+ */
+final class ParallelRecordLoader {
+    private final static int chunksPerWorker = 4;
+    private final static int minChunkSize = 1 << 20;
+    private final static int maxChunkSize = 1 << 26;
+    private final static int boundaryProbe = 256;
+
+    private final Path path;
+    private final int workers;
+    private int[] ids;
+    private String[] names;
+    private float[] grades;
+
+    ParallelRecordLoader(Path path, int workers) {
+        this.path = path;
+        this.workers = workers;
+    }
+
+    int[] ids() {
+        return ids;
+    }
+    String[] names() {
+        return names;
+    }
+    float[] grades() {
+        return grades;
+    }
+
+    void read() throws IOException, IllegalArgumentException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            List<Chunk> chunks = split(channel);
+            ForkJoinPool pool = new ForkJoinPool(workers);
+            try {
+                pool.invoke(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        invokeAll(chunks);
+                    }
+                });
+            } finally {
+                pool.shutdown();
+            }
+
+            long line = 0;
+            int records = 0;
+            for (Chunk chunk : chunks) {
+                if (chunk.failure != null) {
+                    throw chunk.failure;
+                }
+                if (chunk.invalidLine > 0) {
+                    throw new IllegalArgumentException(String.format(
+                            "Invalid record on line %d of file %s", line + chunk.invalidLine, path.getFileName()
+                    ));
+                }
+                line += chunk.lines;
+                records += chunk.records;
+            }
+            ids = new int[records];
+            names = new String[records];
+            grades = new float[records];
+            int offset = 0;
+            for (Chunk chunk : chunks) {
+                System.arraycopy(chunk.ids, 0, ids, offset, chunk.records);
+                System.arraycopy(chunk.names, 0, names, offset, chunk.records);
+                System.arraycopy(chunk.grades, 0, grades, offset, chunk.records);
+                offset += chunk.records;
+            }
+        }
+    }
+
+    // Chunk boundaries are moved forward to just after the next newline, so every chunk starts on a line.
+    private List<Chunk> split(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long chunkSize = Math.min(maxChunkSize, Math.max(minChunkSize, size / ((long) workers * chunksPerWorker)));
+        List<Chunk> chunks = new ArrayList<>();
+        long start = 0;
+        while (start < size) {
+            long end = start + chunkSize >= size ? size : lineStartAfter(channel, start + chunkSize, size);
+            chunks.add(new Chunk(channel, start, (int) (end - start)));
+            start = end;
+        }
+        return chunks;
+    }
+
+    private static long lineStartAfter(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(boundaryProbe);
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += Math.max(read, 0);
+        }
+        return size;
+    }
+
+    private final static class Chunk extends RecursiveAction {
+        private final FileChannel channel;
+        private final long start;
+        private final int length;
+        private int[] ids = new int[0];
+        private String[] names = new String[0];
+        private float[] grades = new float[0];
+        private int records;
+        private long lines;
+        private long invalidLine;
+        private IOException failure;
+
+        private Chunk(FileChannel channel, long start, int length) {
+            this.channel = channel;
+            this.start = start;
+            this.length = length;
+        }
+
+        @Override
+        protected void compute() {
+            byte[] bytes = new byte[length];
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, start + buffer.position()) < 0) {
+                        throw new IOException("Record file shrank while it was being read");
+                    }
+                }
+            } catch (IOException e) {
+                failure = e;
+                return;
+            }
+
+            int expected = Math.max(16, length / 24);
+            ids = new int[expected];
+            names = new String[expected];
+            grades = new float[expected];
+            int lineStart = 0;
+            for (int i = 0; i < length; i++) {
+                if (bytes[i] == '\n') {
+                    if (!parseLine(bytes, lineStart, i)) {
+                        return;
+                    }
+                    lineStart = i + 1;
+                }
+            }
+            if (lineStart < length) {
+                parseLine(bytes, lineStart, length);
+            }
+        }
+
+        // Returns false and remembers the line if it is malformed.
+        private boolean parseLine(byte[] bytes, int from, int to) {
+            lines++;
+            try {
+                RecordFileReader.parseRecord(bytes, from, to, this::add);
+                return true;
+            } catch (NumberFormatException e) {
+                invalidLine = lines;
+                return false;
+            }
+        }
+
+        private void add(int id, String name, float grade) {
+            if (records == ids.length) {
+                ids = Arrays.copyOf(ids, records * 2);
+                names = Arrays.copyOf(names, records * 2);
+                grades = Arrays.copyOf(grades, records * 2);
+            }
+            ids[records] = id;
+            names[records] = name;
+            grades[records] = grade;
+            records++;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package studentrecordsystem.recordsystem;
+
+import org.jetbrains.annotations.NotNull;
+import studentrecordsystem.student.Student;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Thread-safe store whose every version is an immutable {@link RosterSnapshot}. A change builds the next version by
+ * path copying and publishes it with a compare-and-set on the current one, retrying if another writer got in first,
+ * so {@link #snapshot()} is a single volatile read and readers never block writers.
+ */
+public final class PersistentStudentStore implements StudentStore {
+    private final AtomicReference<RosterSnapshot> current = new AtomicReference<>(RosterSnapshot.empty);
+
+    public RosterSnapshot snapshot() {
+        return current.get();
+    }
+
+    // Applies the change to the current version and returns the version it was applied to.
+    private RosterSnapshot update(UnaryOperator<RosterSnapshot> change) {
+        while (true) {
+            RosterSnapshot previous = current.get();
+            RosterSnapshot next = change.apply(previous);
+            if (next == previous || current.compareAndSet(previous, next)) {
+                return previous;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return current.get().size();
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return current.get().contains(id);
+    }
+
+    @Override
+    public Student get(int id) {
+        return current.get().get(id);
+    }
+
+    @Override
+    public boolean insert(int id, @NotNull String name, float grade) {
+        RosterSnapshot previous = update(version -> version.contains(id) ? version : version.with(id, name, grade));
+        return !previous.contains(id);
+    }
+
+    @Override
+    public Student put(int id, @NotNull String name, float grade) {
+        return update(version -> version.with(id, name, grade)).get(id);
+    }
+
+    @Override
+    public Student remove(int id) {
+        return update(version -> version.without(id)).get(id);
+    }
+
+    @Override
+    public String setName(int id, @NotNull String name) {
+        RosterSnapshot previous = update(
+                version -> version.contains(id) ? version.with(id, name, version.gradeOf(id)) : version
+        );
+        return previous.nameOf(id);
+    }
+
+    @Override
+    public float setGrade(int id, float grade) {
+        RosterSnapshot previous = update(version -> {
+            String name = version.nameOf(id);
+            return name == null ? version : version.with(id, name, grade);
+        });
+        return previous.gradeOf(id);
+    }
+
+    @Override
+    public boolean move(int id, int newId) {
+        RosterSnapshot previous = update(version -> {
+            String name = version.nameOf(id);
+            if (name == null || version.contains(newId)) {
+                return version;
+            }
+            return version.without(id).with(newId, name, version.gradeOf(id));
+        });
+        return previous.contains(id) && !previous.contains(newId);
+    }
+
+    // Iterates the version current at the call, so concurrent changes are never seen half-applied.
+    @Override
+    public void forEach(@NotNull Visitor visitor) {
+        current.get().forEach(visitor);
+    }
+
+    @Override
+    public void ensureCapacity(int capacity) {
+    }
+}
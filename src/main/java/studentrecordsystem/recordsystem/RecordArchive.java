@@ -0,0 +1,402 @@
+package studentrecordsystem.recordsystem;
+
+import org.jetbrains.annotations.NotNull;
+import studentrecordsystem.student.Student;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compressed archive of a roster, sorted by id and cut into independently compressed blocks. Layout, little-endian:
+ * <pre>
+ * header  magic "SRSA" | int version | long record count | int block count | int CRC32C of the header
+ * blocks  block count x Deflate stream
+ * index   block count x (long offset | int compressed length | int length | int first id | int records | int CRC32C)
+ * footer  long index offset | int CRC32C of the index | int magic
+ * </pre>
+ * Inside a block every column is stored on its own as unsigned varints: ids as the first id and then the gap to the
+ * previous one, grades as fixed-point hundredths from 0 to 10000, and names as codes into a dictionary of the
+ * block's distinct names that precedes them. Grades are rounded to two decimals, so any grade with at most two
+ * decimals reads back exactly.
+ * The index at the end lets a reader stream the blocks in order or decode just the one block that holds an id.
+ * Opening checks the header and index against their checksums and every index entry against the file, so a block
+ * is only read within the blocks area and a damaged archive fails with an IOException rather than a huge allocation.
+ */
+public final class RecordArchive implements Closeable {
+    private final static int magic = 0x41535253; // "SRSA" read as a little-endian int
+    private final static int version = 2;
+    private final static int headerBytes = 24;
+    private final static int indexEntryBytes = 28;
+    private final static int footerBytes = 16;
+    private final static int blockRecords = 8192;
+    private final static int maxInflateRatio = 1032; // the most Deflate can shrink its input
+    private final static float gradeScale = 100;
+
+    private final FileChannel channel;
+    private final String fileName;
+    private final long records;
+    private final long[] offsets;
+    private final int[] compressedLengths;
+    private final int[] lengths;
+    private final int[] firstIds;
+    private final int[] blockSizes;
+    private final int[] checksums;
+
+    private RecordArchive(FileChannel channel, String fileName, long records, int blockCount) {
+        this.channel = channel;
+        this.fileName = fileName;
+        this.records = records;
+        offsets = new long[blockCount];
+        compressedLengths = new int[blockCount];
+        lengths = new int[blockCount];
+        firstIds = new int[blockCount];
+        blockSizes = new int[blockCount];
+        checksums = new int[blockCount];
+    }
+
+    public static void write(@NotNull Path target, @NotNull StudentStore students) throws IOException {
+        int count = students.size();
+        long[] order = new long[count];
+        float[] grades = new float[count];
+        String[] names = new String[count];
+        int[] row = {0};
+        students.forEach((id, name, grade) -> {
+            order[row[0]] = (long) id << 32 | row[0];
+            grades[row[0]] = grade;
+            names[row[0]] = name;
+            row[0]++;
+        });
+        Arrays.sort(order);
+
+        int blockCount = (count + blockRecords - 1) / blockRecords;
+        ByteBuffer index = ByteBuffer.allocate(blockCount * indexEntryBytes).order(ByteOrder.LITTLE_ENDIAN);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (FileChannel channel = FileChannel.open(
+                temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING
+        )) {
+            ByteBuffer header = ByteBuffer.allocate(headerBytes).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(magic).putInt(version).putLong(count).putInt(blockCount);
+            header.putInt(checksum(header.array(), headerBytes - 4)).flip();
+            writeFully(channel, header);
+
+            byte[] compressed = new byte[1 << 16];
+            for (int start = 0; start < count; start += blockRecords) {
+                int end = Math.min(count, start + blockRecords);
+                byte[] block = encodeBlock(order, start, end, grades, names);
+
+                deflater.reset();
+                deflater.setInput(block);
+                deflater.finish();
+                int compressedLength = 0;
+                while (!deflater.finished()) {
+                    if (compressedLength == compressed.length) {
+                        compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                    }
+                    compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+                }
+                index.putLong(channel.position())
+                        .putInt(compressedLength)
+                        .putInt(block.length)
+                        .putInt((int) (order[start] >>> 32))
+                        .putInt(end - start)
+                        .putInt(checksum(compressed, compressedLength));
+                writeFully(channel, ByteBuffer.wrap(compressed, 0, compressedLength));
+            }
+
+            long indexOffset = channel.position();
+            writeFully(channel, index.flip());
+            ByteBuffer footer = ByteBuffer.allocate(footerBytes).order(ByteOrder.LITTLE_ENDIAN);
+            footer.putLong(indexOffset).putInt(checksum(index.array(), index.limit())).putInt(magic).flip();
+            writeFully(channel, footer);
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        } finally {
+            deflater.end();
+        }
+        try {
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static byte[] encodeBlock(long[] order, int start, int end, float[] grades, String[] names) {
+        ByteArrayOutputStream block = new ByteArrayOutputStream((end - start) * 8);
+        writeVarint(block, end - start);
+        int previousId = 0;
+        for (int i = start; i < end; i++) {
+            int id = (int) (order[i] >>> 32);
+            writeVarint(block, id - previousId);
+            previousId = id;
+        }
+        for (int i = start; i < end; i++) {
+            writeVarint(block, Math.round(grades[(int) order[i]] * gradeScale));
+        }
+        HashMap<String, Integer> dictionary = new HashMap<>();
+        int[] codes = new int[end - start];
+        ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        for (int i = start; i < end; i++) {
+            String name = names[(int) order[i]];
+            Integer code = dictionary.get(name);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.put(name, code);
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                writeVarint(entries, bytes.length);
+                entries.writeBytes(bytes);
+            }
+            codes[i - start] = code;
+        }
+        writeVarint(block, dictionary.size());
+        block.writeBytes(entries.toByteArray());
+        for (int code : codes) {
+            writeVarint(block, code);
+        }
+        return block.toByteArray();
+    }
+
+    public static RecordArchive open(@NotNull Path source) throws IOException {
+        FileChannel channel = FileChannel.open(source, StandardOpenOption.READ);
+        try {
+            String fileName = source.getFileName().toString();
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(headerBytes).order(ByteOrder.LITTLE_ENDIAN);
+            ByteBuffer footer = ByteBuffer.allocate(footerBytes).order(ByteOrder.LITTLE_ENDIAN);
+            if (size < headerBytes + footerBytes || readFully(channel, header, 0) < headerBytes
+                    || header.getInt(0) != magic) {
+                throw new IOException(String.format("File %s is not a record archive", fileName));
+            }
+            if (header.getInt(4) != version) {
+                throw new IOException(
+                        String.format("File %s has unsupported version %d", fileName, header.getInt(4))
+                );
+            }
+            long records = header.getLong(8);
+            int blockCount = header.getInt(16);
+            long indexBytes = (long) blockCount * indexEntryBytes;
+            if (header.getInt(20) != checksum(header.array(), headerBytes - 4)
+                    || readFully(channel, footer, size - footerBytes) < footerBytes || footer.getInt(12) != magic
+                    || blockCount < 0 || records < 0 || indexBytes > size - headerBytes - footerBytes) {
+                throw corrupt(fileName);
+            }
+            long indexOffset = footer.getLong(0);
+            ByteBuffer index = ByteBuffer.allocate((int) indexBytes).order(ByteOrder.LITTLE_ENDIAN);
+            if (indexOffset != size - footerBytes - indexBytes || readFully(channel, index, indexOffset) < indexBytes
+                    || footer.getInt(8) != checksum(index.array(), index.limit())) {
+                throw corrupt(fileName);
+            }
+
+            RecordArchive archive = new RecordArchive(channel, fileName, records, blockCount);
+            long blocksEnd = headerBytes;
+            long total = 0;
+            for (int block = 0; block < blockCount; block++) {
+                long offset = index.getLong();
+                int compressedLength = index.getInt();
+                int length = index.getInt();
+                int firstId = index.getInt();
+                int blockSize = index.getInt();
+                // Blocks follow each other in id order between the header and the index.
+                if (offset < blocksEnd || compressedLength < 0 || offset + compressedLength > indexOffset
+                        || length < 0 || length > (long) compressedLength * maxInflateRatio
+                        || blockSize <= 0 || blockSize > blockRecords
+                        || block > 0 && firstId <= archive.firstIds[block - 1]) {
+                    throw archive.corrupt(block);
+                }
+                archive.offsets[block] = offset;
+                archive.compressedLengths[block] = compressedLength;
+                archive.lengths[block] = length;
+                archive.firstIds[block] = firstId;
+                archive.blockSizes[block] = blockSize;
+                archive.checksums[block] = index.getInt();
+                blocksEnd = offset + compressedLength;
+                total += blockSize;
+            }
+            if (total != records) {
+                throw corrupt(fileName);
+            }
+            return archive;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Streams the whole archive in id order.
+    public static long read(@NotNull Path source, @NotNull StudentStore.Visitor visitor) throws IOException {
+        try (RecordArchive archive = open(source)) {
+            archive.forEach(visitor);
+            return archive.size();
+        }
+    }
+
+    public long size() {
+        return records;
+    }
+    public int blockCount() {
+        return offsets.length;
+    }
+
+    public void forEach(@NotNull StudentStore.Visitor visitor) throws IOException {
+        for (int block = 0; block < offsets.length; block++) {
+            readBlock(block, visitor);
+        }
+    }
+
+    // Decodes only the block whose id range covers the id. Null if the archive has no such student.
+    public Student get(int id) throws IOException {
+        int block = Arrays.binarySearch(firstIds, id);
+        if (block < 0) {
+            block = -block - 2;
+        }
+        if (block < 0) {
+            return null;
+        }
+        Student[] found = {null};
+        readBlock(block, (blockId, name, grade) -> {
+            if (blockId == id) {
+                found[0] = new Student(name, blockId, grade);
+            }
+        });
+        return found[0];
+    }
+
+    public void readBlock(int block, @NotNull StudentStore.Visitor visitor) throws IOException, IllegalArgumentException {
+        if (block < 0 || block >= offsets.length) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid block %d. Block must be between 0 and %d", block, offsets.length - 1)
+            );
+        }
+        ByteBuffer compressed = ByteBuffer.allocate(compressedLengths[block]);
+        if (readFully(channel, compressed, offsets[block]) < compressedLengths[block]
+                || checksum(compressed.array(), compressedLengths[block]) != checksums[block]) {
+            throw corrupt(block);
+        }
+        byte[] bytes = new byte[lengths[block]];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed.array());
+            if (inflater.inflate(bytes) != bytes.length || !inflater.finished()) {
+                throw corrupt(block);
+            }
+        } catch (DataFormatException e) {
+            throw corrupt(block);
+        } finally {
+            inflater.end();
+        }
+        try {
+            if (!decodeBlock(ByteBuffer.wrap(bytes), blockSizes[block], visitor)) {
+                throw corrupt(block);
+            }
+        } catch (RuntimeException e) {
+            throw corrupt(block);
+        }
+    }
+
+    // False if the block does not hold the expected number of records, before anything is visited.
+    private static boolean decodeBlock(ByteBuffer block, int expected, StudentStore.Visitor visitor) {
+        int count = readVarint(block);
+        if (count != expected) {
+            return false;
+        }
+        int[] ids = new int[count];
+        int id = 0;
+        for (int i = 0; i < count; i++) {
+            id += readVarint(block);
+            ids[i] = id;
+        }
+        float[] grades = new float[count];
+        for (int i = 0; i < count; i++) {
+            grades[i] = readVarint(block) / gradeScale;
+        }
+        int names = readVarint(block);
+        if (names < 0 || names > count) {
+            return false;
+        }
+        String[] dictionary = new String[names];
+        for (int code = 0; code < dictionary.length; code++) {
+            int length = readVarint(block);
+            dictionary[code] = new String(block.array(), block.position(), length, StandardCharsets.UTF_8);
+            block.position(block.position() + length);
+        }
+        for (int i = 0; i < count; i++) {
+            visitor.visit(ids[i], dictionary[readVarint(block)], grades[i]);
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private IOException corrupt(int block) {
+        return new IOException(String.format("Block %d of file %s is corrupt", block, fileName));
+    }
+    private static IOException corrupt(String fileName) {
+        return new IOException(String.format("File %s is corrupt", fileName));
+    }
+
+    private static int checksum(byte[] bytes, int length) {
+        CRC32C checksum = new CRC32C();
+        checksum.update(bytes, 0, length);
+        return (int) checksum.getValue();
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Varint is longer than 5 bytes");
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static int readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        buffer.flip();
+        return total;
+    }
+}
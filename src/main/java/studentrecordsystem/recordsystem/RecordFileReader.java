@@ -0,0 +1,224 @@
+package studentrecordsystem.recordsystem;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streaming parser for the {@code id,name,grade} text format written by {@link RecordSystem#save(String)}. The file
+ * is read through one reusable buffer and fields are parsed straight from its bytes, so memory use does not depend
+ * on the file size and the only allocation per record is the name.
+ */
+public final class RecordFileReader implements Closeable {
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(long bytesRead, long totalBytes, long records);
+    }
+
+    private final static int defaultBufferSize = 1 << 16;
+    private final static float[] floatPowersOfTen = {1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f};
+    private final static double[] doublePowersOfTen = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final FileChannel channel;
+    private final String fileName;
+    private byte[] buffer;
+
+    public RecordFileReader(@NotNull Path path) throws IOException {
+        this(path, defaultBufferSize);
+    }
+    public RecordFileReader(@NotNull Path path, int bufferSize) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        fileName = path.getFileName().toString();
+        buffer = new byte[Math.max(bufferSize, 64)];
+    }
+
+    public long read(@NotNull StudentStore.Visitor visitor, @NotNull ProgressListener listener) throws IOException {
+        long totalBytes = channel.size();
+        long bytesRead = 0;
+        long records = 0;
+        long line = 0;
+        int filled = 0;
+        boolean endOfFile = false;
+
+        while (!endOfFile) {
+            if (filled == buffer.length) {
+                byte[] larger = new byte[buffer.length * 2];
+                System.arraycopy(buffer, 0, larger, 0, filled);
+                buffer = larger;
+            }
+            int read = channel.read(ByteBuffer.wrap(buffer, filled, buffer.length - filled));
+            if (read < 0) {
+                endOfFile = true;
+            } else {
+                filled += read;
+                bytesRead += read;
+            }
+
+            int lineStart = 0;
+            for (int i = 0; i < filled; i++) {
+                if (buffer[i] == '\n') {
+                    line++;
+                    if (parseLine(buffer, lineStart, i, line, visitor)) {
+                        records++;
+                    }
+                    lineStart = i + 1;
+                }
+            }
+            if (endOfFile && lineStart < filled) {
+                line++;
+                if (parseLine(buffer, lineStart, filled, line, visitor)) {
+                    records++;
+                }
+                lineStart = filled;
+            }
+            System.arraycopy(buffer, lineStart, buffer, 0, filled - lineStart);
+            filled -= lineStart;
+            listener.onProgress(bytesRead, totalBytes, records);
+        }
+        return records;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private boolean parseLine(byte[] bytes, int from, int to, long line, StudentStore.Visitor visitor) {
+        try {
+            return parseRecord(bytes, from, to, visitor);
+        } catch (NumberFormatException e) {
+            throw invalidRecord(line);
+        }
+    }
+
+    // Parses one line without its '\n' and passes the record to the visitor. Returns false for a blank line.
+    static boolean parseRecord(byte[] bytes, int from, int to, StudentStore.Visitor visitor)
+            throws NumberFormatException {
+        if (to > from && bytes[to - 1] == '\r') {
+            to--;
+        }
+        if (to == from) {
+            return false;
+        }
+        int firstComma = indexOf(bytes, (byte) ',', from, to);
+        int secondComma = firstComma < 0 ? -1 : indexOf(bytes, (byte) ',', firstComma + 1, to);
+        if (secondComma < 0) {
+            throw new NumberFormatException();
+        }
+        int id = parseInt(bytes, from, firstComma);
+        float grade = parseFloat(bytes, secondComma + 1, to);
+        String name = new String(bytes, firstComma + 1, secondComma - firstComma - 1, StandardCharsets.UTF_8);
+        visitor.visit(id, name, grade);
+        return true;
+    }
+
+    private IllegalArgumentException invalidRecord(long line) {
+        return new IllegalArgumentException(String.format("Invalid record on line %d of file %s", line, fileName));
+    }
+
+    static int indexOf(byte[] bytes, byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static int parseInt(byte[] bytes, int from, int to) throws NumberFormatException {
+        boolean negative = from < to && bytes[from] == '-';
+        int i = negative ? from + 1 : from;
+        if (i == to || to - i > 10) {
+            throw new NumberFormatException();
+        }
+        long value = 0;
+        for (; i < to; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException();
+            }
+            value = value * 10 + digit;
+        }
+        value = negative ? -value : value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException();
+        }
+        return (int) value;
+    }
+
+    // Plain decimals are converted with a single correctly rounded division; anything else (exponents, very long
+    // mantissas, results sitting exactly between two floats) falls back to Float.parseFloat.
+    static float parseFloat(byte[] bytes, int from, int to) throws NumberFormatException {
+        boolean negative = from < to && bytes[from] == '-';
+        int i = negative || (from < to && bytes[from] == '+') ? from + 1 : from;
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean seenPoint = false;
+        boolean seenDigit = false;
+        for (; i < to; i++) {
+            byte b = bytes[i];
+            if (b >= '0' && b <= '9') {
+                seenDigit = true;
+                if (mantissa == 0 && b == '0') {
+                    if (seenPoint) {
+                        scale++;
+                    }
+                    continue;
+                }
+                if (++digits > 18) {
+                    return slowParseFloat(bytes, from, to);
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                if (seenPoint) {
+                    scale++;
+                }
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                return slowParseFloat(bytes, from, to);
+            }
+        }
+        if (!seenDigit) {
+            return slowParseFloat(bytes, from, to);
+        }
+        while (scale > 0 && mantissa % 10 == 0 && mantissa != 0) {
+            mantissa /= 10;
+            scale--;
+        }
+
+        float value;
+        if (mantissa == 0) {
+            value = 0;
+        } else if (mantissa < (1 << 24) && scale < floatPowersOfTen.length) {
+            value = mantissa / floatPowersOfTen[scale];
+        } else if (mantissa < (1L << 53) && scale < doublePowersOfTen.length) {
+            double exact = mantissa / doublePowersOfTen[scale];
+            value = (float) exact;
+            if (isFloatMidpoint(exact, value)) {
+                return slowParseFloat(bytes, from, to);
+            }
+        } else {
+            return slowParseFloat(bytes, from, to);
+        }
+        return negative ? -value : value;
+    }
+
+    private static boolean isFloatMidpoint(double exact, float rounded) {
+        return exact == ((double) rounded + Math.nextUp(rounded)) / 2
+                || exact == ((double) rounded + Math.nextDown(rounded)) / 2;
+    }
+
+    private static float slowParseFloat(byte[] bytes, int from, int to) throws NumberFormatException {
+        return Float.parseFloat(new String(bytes, from, to - from, StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,161 @@
+package studentrecordsystem.recordsystem;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * Writer for the {@code id,name,grade} text format read by {@link RecordFileReader}. Records are encoded straight into
+ * one reusable byte buffer that is written to a temporary sibling file in large chunks; {@link #commit()} syncs it and
+ * atomically renames it over the target, so the previous file survives a crash part way through a save.
+ */
+public final class RecordFileWriter implements Closeable {
+    private final static int defaultBufferSize = 1 << 18;
+    private final static int maxRecordBytes = 64;
+    private final static long gradeScale = 1_000_000;
+    private final static double maxFastGrade = 1e9;
+
+    private final Path target;
+    private final Path temporary;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private long bytesWritten;
+    private long records;
+    private boolean committed;
+
+    public RecordFileWriter(@NotNull Path target) throws IOException {
+        this(target, defaultBufferSize);
+    }
+    public RecordFileWriter(@NotNull Path target, int bufferSize) throws IOException {
+        this.target = target;
+        temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        channel = FileChannel.open(
+                temporary,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING
+        );
+        buffer = ByteBuffer.allocate(Math.max(bufferSize, maxRecordBytes * 4));
+    }
+
+    public void write(int id, @NotNull String name, float grade) throws IOException {
+        if (buffer.remaining() < maxRecordBytes + name.length() * 3) {
+            flush();
+            if (buffer.remaining() < maxRecordBytes + name.length() * 3) {
+                ByteBuffer large = ByteBuffer.allocate(maxRecordBytes + name.length() * 3);
+                encode(large, id, name, grade);
+                writeFully(large.flip());
+                records++;
+                return;
+            }
+        }
+        encode(buffer, id, name, grade);
+        records++;
+    }
+
+    public long bytesWritten() {
+        return bytesWritten + buffer.position();
+    }
+    public long records() {
+        return records;
+    }
+
+    public void commit() throws IOException {
+        flush();
+        channel.force(true);
+        channel.close();
+        try {
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        committed = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!committed) {
+            channel.close();
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private void flush() throws IOException {
+        writeFully(buffer.flip());
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            bytesWritten += channel.write(bytes);
+        }
+    }
+
+    static void encode(ByteBuffer out, int id, String name, float grade) {
+        encodeLong(out, id);
+        out.put((byte) ',');
+        encodeName(out, name);
+        out.put((byte) ',');
+        encodeGrade(out, grade);
+        out.put((byte) '\n');
+    }
+
+    private static void encodeName(ByteBuffer out, String name) {
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c >= 0x80) {
+                out.put(name.getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+        }
+        for (int i = 0; i < name.length(); i++) {
+            out.put((byte) name.charAt(i));
+        }
+    }
+
+    // Same digits as String.format("%f", grade): six decimals, rounded half up.
+    private static void encodeGrade(ByteBuffer out, float grade) {
+        double value = grade;
+        if (!(Math.abs(value) < maxFastGrade)) {
+            out.put(String.format(Locale.ROOT, "%f", grade).getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        if (Double.compare(value, 0.0) < 0) {
+            out.put((byte) '-');
+        }
+        long scaled = Math.round(Math.abs(value) * gradeScale);
+        encodeLong(out, scaled / gradeScale);
+        out.put((byte) '.');
+        long fraction = scaled % gradeScale;
+        for (long digit = gradeScale / 10; digit > 0; digit /= 10) {
+            out.put((byte) ('0' + fraction / digit % 10));
+        }
+    }
+
+    private static void encodeLong(ByteBuffer out, long value) {
+        if (value < 0) {
+            out.put((byte) '-');
+            value = -value;
+        }
+        int start = out.position();
+        do {
+            out.put((byte) ('0' + value % 10));
+            value /= 10;
+        } while (value > 0);
+        for (int low = start, high = out.position() - 1; low < high; low++, high--) {
+            byte swap = out.get(low);
+            out.put(low, out.get(high));
+            out.put(high, swap);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package studentrecordsystem.recordsystem;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Makes a {@link RecordSystem} durable through snapshots plus an {@link OperationLog}. Files are numbered by
+ * generation: {@code <name>-<n>.srs} is a binary snapshot of the roster at the start of generation n and
+ * {@code <name>-<n>.log} holds every change made during it. Recovery loads the newest snapshot and replays the logs
+ * from its generation onwards; a snapshot starts a new generation and then removes the older files.
+ * <p>
+ * The log is synced in the background every {@code syncIntervalMillis}, so one fsync covers every change in that
+ * window. Periodic snapshots are only taken in the background for concurrent record systems; single-threaded ones
+ * should call {@link #snapshot()} from their own thread.
+ */
+public final class RecordJournal implements RecordListener, Closeable {
+    private final RecordSystem system;
+    private final Path directory;
+    private final String name;
+    private final Pattern fileFormat;
+    private final ScheduledExecutorService scheduler;
+    private volatile OperationLog log;
+    private long generation;
+    private volatile IOException backgroundFailure;
+
+    private RecordJournal(RecordSystem system, Path directory, String name) {
+        this.system = system;
+        this.directory = directory;
+        this.name = name;
+        fileFormat = Pattern.compile(Pattern.quote(name) + "-(\\d+)\\.(srs|log)");
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "record-journal-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static RecordJournal open(
+            @NotNull RecordSystem system,
+            @NotNull Path directory,
+            @NotNull String name,
+            long syncIntervalMillis,
+            long snapshotIntervalMillis
+    ) throws IOException, IllegalArgumentException {
+        RecordSystem.checkFileName(name);
+        if (syncIntervalMillis < 1 || snapshotIntervalMillis < 1) {
+            throw new IllegalArgumentException("Invalid interval. Sync and snapshot intervals must be positive");
+        }
+        RecordJournal journal = new RecordJournal(system, directory, name);
+        journal.recover();
+        system.addListener(journal);
+        journal.scheduler.scheduleWithFixedDelay(
+                journal::syncQuietly, syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS
+        );
+        if (system.isConcurrent()) {
+            journal.scheduler.scheduleWithFixedDelay(
+                    journal::snapshotQuietly, snapshotIntervalMillis, snapshotIntervalMillis, TimeUnit.MILLISECONDS
+            );
+        }
+        return journal;
+    }
+
+    private void recover() throws IOException {
+        TreeSet<Long> snapshots = new TreeSet<>();
+        TreeSet<Long> logs = new TreeSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Matcher matcher = fileFormat.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    (matcher.group(2).equals("srs") ? snapshots : logs).add(Long.parseLong(matcher.group(1)));
+                }
+            }
+        }
+
+        long first = snapshots.isEmpty() ? 0 : snapshots.last();
+        if (!snapshots.isEmpty()) {
+            BinaryRecordFile.read(snapshotFile(first), system.replayer()::onAdd);
+        }
+        RecordListener replayer = system.replayer();
+        for (long logGeneration : logs.tailSet(first)) {
+            OperationLog.replay(logFile(logGeneration), replayer);
+        }
+        generation = Math.max(first, logs.isEmpty() ? 1 : logs.last());
+        log = OperationLog.open(logFile(generation));
+    }
+
+    public void snapshot() throws IOException {
+        throwBackgroundFailure();
+        OperationLog previous;
+        long snapshotGeneration;
+        system.locks().lockAllShared();
+        try {
+            previous = log;
+            if (previous.appended() == 0 && Files.exists(snapshotFile(generation))) {
+                return;
+            }
+            snapshotGeneration = generation + 1;
+            log = OperationLog.open(logFile(snapshotGeneration));
+            generation = snapshotGeneration;
+            previous.close();
+            BinaryRecordFile.write(snapshotFile(snapshotGeneration), system.store());
+        } finally {
+            system.locks().unlockAllShared();
+        }
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Matcher matcher = fileFormat.matcher(file.getFileName().toString());
+                if (matcher.matches() && Long.parseLong(matcher.group(1)) < snapshotGeneration) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    public void sync() throws IOException {
+        throwBackgroundFailure();
+        log.sync();
+    }
+
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        system.removeListener(this);
+        log.close();
+        throwBackgroundFailure();
+    }
+
+    @Override
+    public void onAdd(int id, String name, float grade) {
+        log.onAdd(id, name, grade);
+    }
+    @Override
+    public void onDelete(int id, String name, float grade) {
+        log.onDelete(id, name, grade);
+    }
+    @Override
+    public void onUpdateName(int id, String oldName, String newName) {
+        log.onUpdateName(id, oldName, newName);
+    }
+    @Override
+    public void onUpdateId(int id, int newId) {
+        log.onUpdateId(id, newId);
+    }
+    @Override
+    public void onUpdateGrade(int id, float oldGrade, float newGrade) {
+        log.onUpdateGrade(id, oldGrade, newGrade);
+    }
+
+    private Path snapshotFile(long fileGeneration) {
+        return directory.resolve(name + "-" + fileGeneration + ".srs");
+    }
+    private Path logFile(long fileGeneration) {
+        return directory.resolve(name + "-" + fileGeneration + ".log");
+    }
+
+    private void throwBackgroundFailure() throws IOException {
+        IOException failure = backgroundFailure;
+        if (failure != null) {
+            throw new IOException("Background journal write failed", failure);
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            log.sync();
+        } catch (IOException e) {
+            backgroundFailure = e;
+        }
+    }
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException e) {
+            if (backgroundFailure == null) {
+                backgroundFailure = e;
+            }
+        }
+    }
+}
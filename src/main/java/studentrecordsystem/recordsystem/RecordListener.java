@@ -0,0 +1,25 @@
+package studentrecordsystem.recordsystem;
+
+/**
+ * Callback for every change a {@link RecordSystem} applies to its store. Listeners run on the mutating thread while
+ * it still holds the lock of the changed ids, so changes to one id are always seen in the order they were applied.
+ * Values a caller does not know (for example the old name when replaying a log) are passed as {@code null} or NaN.
+ */
+public interface RecordListener {
+    default void onAdd(int id, String name, float grade) {
+    }
+    default void onDelete(int id, String name, float grade) {
+    }
+    // A stored record overwritten in place, as when a file is loaded over existing students. Seen as a delete and an
+    // add unless a listener tells the two apart.
+    default void onReplace(int id, String oldName, float oldGrade, String newName, float newGrade) {
+        onDelete(id, oldName, oldGrade);
+        onAdd(id, newName, newGrade);
+    }
+    default void onUpdateName(int id, String oldName, String newName) {
+    }
+    default void onUpdateId(int id, int newId) {
+    }
+    default void onUpdateGrade(int id, float oldGrade, float newGrade) {
+    }
+}
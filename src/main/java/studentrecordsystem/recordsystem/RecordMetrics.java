@@ -0,0 +1,250 @@
+package studentrecordsystem.recordsystem;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Always-on instrumentation of a {@link RecordSystem}: a count per operation, rejections per {@link Status}, latency
+ * histograms and persistence throughput. Each thread counts an operation in one plain slot of its own block, kept
+ * per operation and status, and reads the clock for one operation in 64 by counting down, so an unsampled
+ * operation costs a cached block lookup and two ordinary stores. Reads add up every block; a block whose thread has
+ * ended is folded into shared {@link LongAdder}s. Saves and loads are always timed.
+ * {@link #snapshot()} flattens everything into named values, which is also what the MXBean exposes.
+ */
+public final class RecordMetrics implements RecordMetricsMXBean {
+    public enum Operation {
+        ADD,
+        DELETE,
+        UPDATE_NAME,
+        UPDATE_ID,
+        UPDATE_GRADE,
+        BATCH,
+        SAVE,
+        LOAD
+    }
+
+    // Counts of one thread by operation and status, written only by it; opaque accesses keep reads from other
+    // threads untorn.
+    private final static class ThreadCounters {
+        private final Thread owner = Thread.currentThread();
+        private final long[] counts = new long[operations.length * statuses.length];
+        private final AtomicBoolean folded = new AtomicBoolean();
+        private int untilSample = 1;
+    }
+
+    private final static Operation[] operations = Operation.values();
+    private final static Status[] statuses = Status.values();
+    private final static VarHandle slots = MethodHandles.arrayElementVarHandle(long[].class);
+    private final static int sampleInterval = 64;
+    private final static int sweepInterval = 64;
+    private final static int cacheSize = 256;
+    private final static long notSampled = Long.MIN_VALUE;
+    private final static double nanosPerSecond = 1e9;
+
+    private final LongAdder[] counts = adders(operations.length); // ended threads, saves and loads
+    private final LongAdder[] rejections = adders(statuses.length);
+    private final ConcurrentLinkedQueue<ThreadCounters> threadCounters = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger registrations = new AtomicInteger();
+    private final ThreadLocal<ThreadCounters> local = ThreadLocal.withInitial(this::register);
+    // Blocks by thread id, checked against their owner, so the hot path rarely pays for a thread-local lookup.
+    private final ThreadCounters[] cache = new ThreadCounters[cacheSize];
+    private final LatencyHistogram[] latencies = new LatencyHistogram[operations.length];
+    private final LongAdder[] bytes = adders(operations.length);
+    private final LongAdder[] records = adders(operations.length);
+    private final LongAdder[] transferNanos = adders(operations.length);
+
+    RecordMetrics() {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+    }
+
+    private ThreadCounters counters() {
+        Thread thread = Thread.currentThread();
+        ThreadCounters counters = cache[(int) thread.threadId() & (cacheSize - 1)];
+        return counters != null && counters.owner == thread ? counters : cacheMiss(thread);
+    }
+    private ThreadCounters cacheMiss(Thread thread) {
+        ThreadCounters counters = local.get();
+        cache[(int) thread.threadId() & (cacheSize - 1)] = counters;
+        return counters;
+    }
+
+    private static int slot(Operation operation, Status status) {
+        return operation.ordinal() * statuses.length + status.ordinal();
+    }
+
+    // Every few registrations, blocks of threads that have ended are folded into the adders and dropped, so threads
+    // that come and go, such as one per connection, do not pile up blocks.
+    private ThreadCounters register() {
+        if (registrations.incrementAndGet() % sweepInterval == 0) {
+            for (ThreadCounters counters : threadCounters) {
+                if (!counters.owner.isAlive() && counters.folded.compareAndSet(false, true)) {
+                    for (Operation operation : operations) {
+                        for (Status status : statuses) {
+                            long count = counters.counts[slot(operation, status)];
+                            counts[operation.ordinal()].add(count);
+                            if (status != Status.OK) {
+                                rejections[status.ordinal()].add(count);
+                            }
+                        }
+                    }
+                    threadCounters.remove(counters);
+                }
+            }
+        }
+        ThreadCounters counters = new ThreadCounters();
+        threadCounters.add(counters);
+        return counters;
+    }
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    long start() {
+        ThreadCounters counters = counters();
+        if (--counters.untilSample > 0) {
+            return notSampled;
+        }
+        counters.untilSample = sampleInterval;
+        return System.nanoTime();
+    }
+
+    Status finish(Operation operation, Status status, long start) {
+        long[] block = counters().counts;
+        int slot = slot(operation, status);
+        // Only the owner writes its block, so a plain read and an opaque write make an untorn increment.
+        slots.setOpaque(block, slot, block[slot] + 1);
+        if (start != notSampled) {
+            latencies[operation.ordinal()].record(System.nanoTime() - start);
+        }
+        return status;
+    }
+
+    // A batch counts as one operation, rejected with the status of its first failure.
+    BatchResult finish(BatchResult result, long start) {
+        finish(Operation.BATCH, result.isApplied() ? Status.OK : result.failureStatus(0), start);
+        return result;
+    }
+
+    void transferred(Operation operation, long byteCount, long recordCount, long start) {
+        long elapsed = System.nanoTime() - start;
+        counts[operation.ordinal()].increment();
+        latencies[operation.ordinal()].record(elapsed);
+        bytes[operation.ordinal()].add(byteCount);
+        records[operation.ordinal()].add(recordCount);
+        transferNanos[operation.ordinal()].add(elapsed);
+    }
+
+    public long count(@NotNull Operation operation) {
+        long count = counts[operation.ordinal()].sum();
+        for (ThreadCounters counters : threadCounters) {
+            for (Status status : statuses) {
+                count += counters.folded.get() ? 0 : (long) slots.getOpaque(counters.counts, slot(operation, status));
+            }
+        }
+        return count;
+    }
+    public long rejections(@NotNull Status status) {
+        long count = rejections[status.ordinal()].sum();
+        if (status == Status.OK) {
+            return count;
+        }
+        for (ThreadCounters counters : threadCounters) {
+            for (Operation operation : operations) {
+                count += counters.folded.get() ? 0 : (long) slots.getOpaque(counters.counts, slot(operation, status));
+            }
+        }
+        return count;
+    }
+    public LatencyHistogram latency(@NotNull Operation operation) {
+        return latencies[operation.ordinal()];
+    }
+    public long bytes(@NotNull Operation operation) {
+        return bytes[operation.ordinal()].sum();
+    }
+    public long records(@NotNull Operation operation) {
+        return records[operation.ordinal()].sum();
+    }
+    // Average over every save or load so far, counting only the time spent in them.
+    public double bytesPerSecond(@NotNull Operation operation) {
+        long nanos = transferNanos[operation.ordinal()].sum();
+        return nanos == 0 ? 0 : bytes(operation) * nanosPerSecond / nanos;
+    }
+    public double recordsPerSecond(@NotNull Operation operation) {
+        long nanos = transferNanos[operation.ordinal()].sum();
+        return nanos == 0 ? 0 : records(operation) * nanosPerSecond / nanos;
+    }
+
+    // Values named like "add.count", "add.p99.nanos", "rejected.not_found" or "save.bytes.per.second".
+    public Map<String, Long> snapshot() {
+        Map<String, Long> values = new TreeMap<>();
+        for (Operation operation : operations) {
+            String prefix = operation.name().toLowerCase(Locale.ROOT) + ".";
+            LatencyHistogram latency = latency(operation);
+            values.put(prefix + "count", count(operation));
+            values.put(prefix + "p50.nanos", latency.valueAtPercentile(50));
+            values.put(prefix + "p99.nanos", latency.valueAtPercentile(99));
+            values.put(prefix + "p999.nanos", latency.valueAtPercentile(99.9));
+            values.put(prefix + "max.nanos", latency.max());
+            if (operation == Operation.SAVE || operation == Operation.LOAD) {
+                values.put(prefix + "bytes", bytes(operation));
+                values.put(prefix + "records", records(operation));
+                values.put(prefix + "bytes.per.second", (long) bytesPerSecond(operation));
+                values.put(prefix + "records.per.second", (long) recordsPerSecond(operation));
+            }
+        }
+        for (Status status : statuses) {
+            if (status != Status.OK) {
+                values.put("rejected." + status.name().toLowerCase(Locale.ROOT), rejections(status));
+            }
+        }
+        return values;
+    }
+
+    public ObjectName register(@NotNull String name) throws JMException {
+        ObjectName objectName = new ObjectName("studentrecordsystem:type=RecordMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    @Override
+    public long getOperationCount() {
+        long total = 0;
+        for (Operation operation : operations) {
+            total += count(operation);
+        }
+        return total;
+    }
+
+    @Override
+    public long getRejectionCount() {
+        long total = 0;
+        for (Status status : statuses) {
+            total += rejections(status);
+        }
+        return total;
+    }
+
+    @Override
+    public Map<String, Long> getMetrics() {
+        return snapshot();
+    }
+}
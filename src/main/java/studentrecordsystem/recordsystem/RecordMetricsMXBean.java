@@ -0,0 +1,12 @@
+package studentrecordsystem.recordsystem;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link RecordMetrics}.
+ */
+public interface RecordMetricsMXBean {
+    long getOperationCount();
+    long getRejectionCount();
+    Map<String, Long> getMetrics();
+}
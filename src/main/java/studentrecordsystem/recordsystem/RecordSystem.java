@@ -5,19 +5,34 @@ import studentrecordsystem.student.Student;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 
 public class RecordSystem {
-    private final HashMap<Integer, Student> students;
+    private final StudentStore students;
+    private final StripedLocks locks;
+    private final List<RecordListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile SecondaryIndexes indexes;
+    private volatile IdAllocator idAllocator;
+    private final RunningStatistics statistics;
+    private final RecordMetrics metrics = new RecordMetrics();
     private final static float minGrade = 0;
     private final static float maxGrade = 100;
     private final static int startId = 1;
-    private final static String nameFormat = "[a-zA-Z][a-zA-Z ]+[a-zA-Z]";
+    final static int maxNameLength = Short.MAX_VALUE;
+    private final static int idReservation = 64;
     private final static String fileNameFormat = "[-_a-zA-Z0-9]+";
+    private final static Pattern fileNamePattern = Pattern.compile(fileNameFormat);
     private final static String header = """
              ____________________________________________________________________________________________
             |                                   Student Record System                                    |
@@ -33,204 +48,978 @@ public class RecordSystem {
             """;
 
     public RecordSystem() {
-        students = new HashMap<>();
+        this(new ColumnarStudentStore());
+    }
+    public RecordSystem(@NotNull StudentStore store) {
+        students = store;
+        locks = StripedLocks.none;
+        statistics = trackStatistics();
     }
     public RecordSystem(@NotNull HashMap<Integer, Student> existingStudents) {
-        students = new HashMap<>();
+        students = new ColumnarStudentStore(existingStudents.size());
+        locks = StripedLocks.none;
         for (var entry : existingStudents.entrySet()) {
-            Student studentCopy = new Student(
-                    entry.getValue().getName(),
-                    entry.getValue().getId(),
-                    entry.getValue().getGrade()
+            students.put(entry.getKey(), entry.getValue().getName(), entry.getValue().getGrade());
+        }
+        statistics = trackStatistics();
+    }
+
+    private RecordSystem(@NotNull StudentStore store, @NotNull StripedLocks locks) {
+        students = store;
+        this.locks = locks;
+        statistics = trackStatistics();
+    }
+
+    public static RecordSystem concurrent(int stripes) throws IllegalArgumentException {
+        checkStripeCount(stripes);
+        return new RecordSystem(new StripedStudentStore(stripes), new StripedLocks(stripes));
+    }
+    // Thread-safe like concurrent(), backed by a PersistentStudentStore so snapshot() takes O(1) and viewAll, save
+    // and getStudents read a snapshot instead of holding locks while they iterate.
+    public static RecordSystem versioned(int stripes) throws IllegalArgumentException {
+        checkStripeCount(stripes);
+        return new RecordSystem(new PersistentStudentStore(), new StripedLocks(stripes));
+    }
+    private static void checkStripeCount(int stripes) throws IllegalArgumentException {
+        if (stripes < 1 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid stripe count %d. Stripe count must be a power of two", stripes)
             );
-            students.put(entry.getKey(), studentCopy);
         }
     }
 
     public void add(@NotNull Student student) throws IllegalArgumentException {
+        Status status = tryAdd(student);
+        if (status != Status.OK) {
+            throw rejection(status, student.getId(), 0, student.getName(), student.getGrade());
+        }
+    }
+    // The try* methods report a rejection as a Status, so a rejected call allocates nothing and never runs a regex. A
+    // change that is applied still allocates what the store and listeners need, such as the removed record on delete,
+    // the replaced name on updateName or a new name's bytes in the name dictionary.
+    public Status tryAdd(@NotNull Student student) {
+        long start = metrics.start();
+        return metrics.finish(RecordMetrics.Operation.ADD, applyAdd(student), start);
+    }
+    private Status applyAdd(Student student) {
         String name = student.getName();
         int id = student.getId();
         float grade = student.getGrade();
 
-        if (id < 1) {
-            throw new IllegalArgumentException(String.format("Invalid ID %d. ID must be a positive integer", id));
+        if (id < startId) {
+            return Status.INVALID_ID;
         }
-        if (!Pattern.matches(nameFormat, name)) {
-            throw new IllegalArgumentException(
-                    String.format(
-                            "Invalid new name %s. New name must contain alphabetic characters and spaces only",
-                            name
-                    )
-            );
+        Status nameStatus = checkName(name);
+        if (nameStatus != Status.OK) {
+            return nameStatus;
         }
-        if (grade < minGrade || grade > maxGrade) {
-            throw new IllegalArgumentException(
-                    String.format("Invalid new grade %f. New grade must be between 0 and 100 (inclusive)", grade)
-            );
+        if (!isValidGrade(grade)) {
+            return Status.INVALID_GRADE;
         }
-        if (students.containsKey(student.getId())) {
-            throw new IllegalArgumentException("Student already exists in the system");
+        locks.lock(id);
+        try {
+            if (!students.insert(id, name, grade)) {
+                return Status.ALREADY_EXISTS;
+            }
+            for (RecordListener listener : listeners) {
+                listener.onAdd(id, name, grade);
+            }
+        } finally {
+            locks.unlock(id);
         }
+        return Status.OK;
+    }
 
-        Student studentCopy = new Student(name, id, grade);
-        students.put(student.getId(), studentCopy);
+    // Adds the student under the lowest id the allocator has free, reusing ids freed by delete and updateId, and
+    // returns that id.
+    public int enroll(String name, float grade) throws IllegalArgumentException {
+        Status nameStatus = checkName(name);
+        if (nameStatus != Status.OK) {
+            throw rejection(nameStatus, 0, 0, name, grade);
+        }
+        if (!isValidGrade(grade)) {
+            throw rejection(Status.INVALID_GRADE, 0, 0, name, grade);
+        }
+        IdAllocator allocator = idAllocator();
+        while (true) {
+            int id = allocator.allocate();
+            Status status = tryAdd(new Student(name, id, grade));
+            if (status == Status.OK) {
+                return id;
+            }
+            // ALREADY_EXISTS means a plain add took the id after it was reserved, so it stays taken.
+            if (status != Status.ALREADY_EXISTS) {
+                allocator.release(id);
+                throw rejection(status, id, 0, name, grade);
+            }
+        }
     }
 
     public void delete(int id) throws IllegalArgumentException {
+        Status status = tryDelete(id);
+        if (status != Status.OK) {
+            throw rejection(status, id, 0, null, 0);
+        }
+    }
+    public void delete(@NotNull Student student) throws IllegalArgumentException {
+        Status status = tryDelete(student);
+        if (status == Status.NOT_FOUND) {
+            throw new IllegalArgumentException("Student does not exist in the system");
+        }
+        if (status != Status.OK) {
+            throw rejection(status, student.getId(), 0, null, 0);
+        }
+    }
+    public Status tryDelete(int id) {
+        long start = metrics.start();
+        return metrics.finish(RecordMetrics.Operation.DELETE, applyDelete(id), start);
+    }
+    private Status applyDelete(int id) {
         if (id < startId) {
-            throw new IllegalArgumentException(
-                    String.format("Invalid ID %d. ID must be a positive integer", id)
-            );
+            return Status.INVALID_ID;
         }
-        if (!students.containsKey(id)) {
-            throw new IllegalArgumentException(
-                    String.format("Student with id %d does not exist in the system", id)
-            );
+        locks.lock(id);
+        try {
+            Student removed = students.remove(id);
+            if (removed == null) {
+                return Status.NOT_FOUND;
+            }
+            fireDelete(removed);
+        } finally {
+            locks.unlock(id);
         }
-        students.remove(id);
+        return Status.OK;
     }
-    public void delete(@NotNull Student student) throws IllegalArgumentException {
+    // Like Map.remove(key, value), a student whose stored record differs is left in place.
+    public Status tryDelete(@NotNull Student student) {
+        long start = metrics.start();
+        return metrics.finish(RecordMetrics.Operation.DELETE, applyDelete(student), start);
+    }
+    private Status applyDelete(Student student) {
         int id = student.getId();
-        if (id < 1) {
-            throw new IllegalArgumentException(
-                    String.format("Invalid ID %d. ID must be a positive integer", id)
-            );
+        if (id < startId) {
+            return Status.INVALID_ID;
         }
-        if (!students.containsKey(id)) {
-            throw new IllegalArgumentException("Student does not exist in the system");
+        locks.lock(id);
+        try {
+            Student existing = students.get(id);
+            if (existing == null) {
+                return Status.NOT_FOUND;
+            }
+            if (existing.equals(student)) {
+                students.remove(id);
+                fireDelete(existing);
+            }
+        } finally {
+            locks.unlock(id);
         }
-        students.remove(id, student);
+        return Status.OK;
     }
 
-    public HashMap<Integer, Student> getStudents() { return students; }
+    public Student get(int id) {
+        locks.lockShared(id);
+        try {
+            return students.get(id);
+        } finally {
+            locks.unlockShared(id);
+        }
+    }
+
+    // Read without locks, so while writers run it is only a recent count.
+    public int size() {
+        return students.size();
+    }
+
+    public HashMap<Integer, Student> getStudents() {
+        RosterSnapshot snapshot = versionedSnapshot();
+        if (snapshot != null) {
+            return snapshot.toMap();
+        }
+        locks.lockAllShared();
+        try {
+            HashMap<Integer, Student> copy = new HashMap<>(students.size() * 4 / 3 + 1);
+            students.forEach((id, name, grade) -> copy.put(id, new Student(name, id, grade)));
+            return copy;
+        } finally {
+            locks.unlockAllShared();
+        }
+    }
+
+    public RosterSnapshot snapshot() {
+        RosterSnapshot snapshot = versionedSnapshot();
+        if (snapshot != null) {
+            return snapshot;
+        }
+        locks.lockAllShared();
+        try {
+            return RosterSnapshot.copyOf(students);
+        } finally {
+            locks.unlockAllShared();
+        }
+    }
+
+    // The current version of a PersistentStudentStore, or null for other stores. Taken under every stripe's read lock
+    // so a batch is never seen half-applied; the locks are held only for the reference read.
+    RosterSnapshot versionedSnapshot() {
+        if (!(students instanceof PersistentStudentStore versioned)) {
+            return null;
+        }
+        locks.lockAllShared();
+        try {
+            return versioned.snapshot();
+        } finally {
+            locks.unlockAllShared();
+        }
+    }
 
 
     public void updateName(int id, String newName) throws IllegalArgumentException {
-        if (id < 1) {
-            throw new IllegalArgumentException(
-                    String.format("Invalid ID %d. ID must be a positive integer", id)
-            );
+        Status status = tryUpdateName(id, newName);
+        if (status != Status.OK) {
+            throw rejection(status, id, 0, newName, 0);
         }
-        if (!students.containsKey(id)) {
-            throw new IllegalArgumentException(
-                    String.format("Student with id %d does not exist in the system", id)
-            );
+    }
+    public Status tryUpdateName(int id, String newName) {
+        long start = metrics.start();
+        return metrics.finish(RecordMetrics.Operation.UPDATE_NAME, applyUpdateName(id, newName), start);
+    }
+    private Status applyUpdateName(int id, String newName) {
+        if (id < startId) {
+            return Status.INVALID_ID;
         }
-        if (!Pattern.matches(nameFormat, newName)) {
-            throw new IllegalArgumentException(
-                    String.format(
-                            "Invalid new name %s. New name must contain alphabetic characters and spaces only",
-                            newName
-                    )
-            );
+        locks.lock(id);
+        try {
+            if (!students.contains(id)) {
+                return Status.NOT_FOUND;
+            }
+            Status nameStatus = checkName(newName);
+            if (nameStatus != Status.OK) {
+                return nameStatus;
+            }
+            String oldName = students.setName(id, newName);
+            for (RecordListener listener : listeners) {
+                listener.onUpdateName(id, oldName, newName);
+            }
+        } finally {
+            locks.unlock(id);
         }
-        students.get(id).setName(newName);
+        return Status.OK;
     }
+
     public void updateId(int id, int newId) throws IllegalArgumentException {
-        if (id < 1) {
-            throw new IllegalArgumentException(
-                    String.format("Invalid ID %d. ID must be a positive integer", id)
-            );
+        Status status = tryUpdateId(id, newId);
+        if (status != Status.OK) {
+            throw rejection(status, id, newId, null, 0);
+        }
+    }
+    public Status tryUpdateId(int id, int newId) {
+        long start = metrics.start();
+        return metrics.finish(RecordMetrics.Operation.UPDATE_ID, applyUpdateId(id, newId), start);
+    }
+    private Status applyUpdateId(int id, int newId) {
+        if (id < startId) {
+            return Status.INVALID_ID;
         }
-        if (newId < 1) {
+        if (newId < startId) {
+            return Status.INVALID_NEW_ID;
+        }
+        locks.lock(id, newId);
+        try {
+            if (!students.contains(id)) {
+                return Status.NOT_FOUND;
+            }
+            if (students.contains(newId)) {
+                return Status.NEW_ID_EXISTS;
+            }
+            students.move(id, newId);
+            for (RecordListener listener : listeners) {
+                listener.onUpdateId(id, newId);
+            }
+        } finally {
+            locks.unlock(id, newId);
+        }
+        return Status.OK;
+    }
+
+    // updateId into another record system, for ShardedRecordSystem moves between shards. The record is deleted here
+    // and added there while both ids are locked, locking this system first when sourceFirst is set, so callers must
+    // agree on one order between any two systems.
+    Status tryMoveTo(int id, int newId, @NotNull RecordSystem target, boolean sourceFirst) {
+        long start = metrics.start();
+        return metrics.finish(RecordMetrics.Operation.UPDATE_ID, applyMoveTo(id, newId, target, sourceFirst), start);
+    }
+    private Status applyMoveTo(int id, int newId, RecordSystem target, boolean sourceFirst) {
+        if (id < startId) {
+            return Status.INVALID_ID;
+        }
+        if (newId < startId) {
+            return Status.INVALID_NEW_ID;
+        }
+        if (sourceFirst) {
+            locks.lock(id);
+            target.locks.lock(newId);
+        } else {
+            target.locks.lock(newId);
+            locks.lock(id);
+        }
+        try {
+            if (!students.contains(id)) {
+                return Status.NOT_FOUND;
+            }
+            if (target.students.contains(newId)) {
+                return Status.NEW_ID_EXISTS;
+            }
+            Student moved = students.remove(id);
+            fireDelete(moved);
+            target.students.insert(newId, moved.getName(), moved.getGrade());
+            for (RecordListener listener : target.listeners) {
+                listener.onAdd(newId, moved.getName(), moved.getGrade());
+            }
+        } finally {
+            locks.unlock(id);
+            target.locks.unlock(newId);
+        }
+        return Status.OK;
+    }
+
+    public void updateGrade(int id, float newGrade) throws IllegalArgumentException {
+        Status status = tryUpdateGrade(id, newGrade);
+        if (status != Status.OK) {
+            throw rejection(status, id, 0, null, newGrade);
+        }
+    }
+    public Status tryUpdateGrade(int id, float newGrade) {
+        long start = metrics.start();
+        return metrics.finish(RecordMetrics.Operation.UPDATE_GRADE, applyUpdateGrade(id, newGrade), start);
+    }
+    private Status applyUpdateGrade(int id, float newGrade) {
+        if (id < startId) {
+            return Status.INVALID_ID;
+        }
+        if (!isValidGrade(newGrade)) {
+            return Status.INVALID_GRADE;
+        }
+        locks.lock(id);
+        try {
+            if (!students.contains(id)) {
+                return Status.NOT_FOUND;
+            }
+            float oldGrade = students.setGrade(id, newGrade);
+            for (RecordListener listener : listeners) {
+                listener.onUpdateGrade(id, oldGrade, newGrade);
+            }
+        } finally {
+            locks.unlock(id);
+        }
+        return Status.OK;
+    }
+
+    public void viewAll() {
+        try {
+            render(System.out, null, 0, Integer.MAX_VALUE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    public void render(@NotNull Appendable out, SortOrder order, int offset, int limit)
+            throws IOException, IllegalArgumentException {
+        if (offset < 0 || limit < 0) {
             throw new IllegalArgumentException(
-                    String.format("Invalid new ID %d. New ID must be a positive integer", newId)
+                    String.format("Invalid page offset %d, limit %d. Both must not be negative", offset, limit)
             );
         }
-        if (!students.containsKey(id)) {
+        if (order == null && (offset > 0 || limit < Integer.MAX_VALUE)) {
+            // Store order has no positions to seek to, so a page is cut from id order instead of a full visit.
+            order = SortOrder.ID;
+        }
+        TableWriter table = new TableWriter(out);
+        RosterSnapshot snapshot = order == null ? versionedSnapshot() : null;
+        if (snapshot == null) {
+            locks.lockAllShared();
+        }
+        try {
+            if ((snapshot == null ? students.size() : snapshot.size()) == 0) {
+                table.text("Student Record System is empty...\n");
+            } else {
+                table.text(header);
+                table.text(separator);
+                table.text(columnHeadings);
+                table.text(separator);
+                if (order == null) {
+                    renderAll(table, snapshot == null ? students::forEach : snapshot::forEach);
+                } else if (limit > 0) {
+                    int[] remaining = {limit};
+                    indexes().forEachSorted(order, offset, id -> {
+                        Student student = students.get(id);
+                        try {
+                            table.row(id, student.getName(), student.getGrade());
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        return --remaining[0] > 0;
+                    });
+                }
+                table.text(footer);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            if (snapshot == null) {
+                locks.unlockAllShared();
+            }
+        }
+        table.flush();
+    }
+
+    // Store order, as viewAll has always printed it.
+    private void renderAll(TableWriter table, Consumer<StudentStore.Visitor> rows) {
+        rows.accept((id, name, grade) -> {
+            try {
+                table.row(id, name, grade);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    public void save(String fileName) throws IOException, IllegalArgumentException {
+        if (students.size() == 0) {
+            throw new IOException("Student File System is empty");
+        }
+        checkFileName(fileName);
+        long start = System.nanoTime();
+        try (RecordFileWriter writer = new RecordFileWriter(Path.of(fileName + ".txt"))) {
+            RosterSnapshot snapshot = versionedSnapshot();
+            if (snapshot == null) {
+                locks.lockAllShared();
+            }
+            try {
+                Consumer<StudentStore.Visitor> rows = snapshot == null ? students::forEach : snapshot::forEach;
+                rows.accept((id, name, grade) -> {
+                    try {
+                        writer.write(id, name, grade);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                if (snapshot == null) {
+                    locks.unlockAllShared();
+                }
+            }
+            writer.commit();
+            metrics.transferred(RecordMetrics.Operation.SAVE, writer.bytesWritten(), writer.records(), start);
+        }
+    }
+    public void load(String fileName) throws IOException, IllegalArgumentException {
+        load(fileName, (bytesRead, totalBytes, records) -> {});
+    }
+    public void load(String fileName, @NotNull RecordFileReader.ProgressListener listener)
+            throws IOException, IllegalArgumentException {
+        checkFileName(fileName);
+
+        File file = new File(fileName + ".txt");
+        if (!file.exists()) {
+            throw new FileNotFoundException("File " + fileName + ".txt is missing");
+        }
+
+        long start = System.nanoTime();
+        try (RecordFileReader reader = new RecordFileReader(file.toPath())) {
+            long records = reader.read(this::putRecord, listener);
+            metrics.transferred(RecordMetrics.Operation.LOAD, file.length(), records, start);
+        }
+    }
+
+    // Parses the file on a pool of workers and adds every record as one addAll batch, so nothing is loaded unless
+    // every id is new to the system and unique in the file and every name and grade is valid.
+    public BatchResult loadParallel(String fileName, int workers) throws IOException, IllegalArgumentException {
+        checkFileName(fileName);
+        if (workers < 1) {
             throw new IllegalArgumentException(
-                    String.format("Student with id %d does not exist in the system", id)
+                    String.format("Invalid worker count %d. Worker count must be positive", workers)
             );
         }
-        if (students.containsKey(newId)) {
+
+        File file = new File(fileName + ".txt");
+        if (!file.exists()) {
+            throw new FileNotFoundException("File " + fileName + ".txt is missing");
+        }
+
+        long start = System.nanoTime();
+        ParallelRecordLoader loader = new ParallelRecordLoader(file.toPath(), workers);
+        loader.read();
+        BatchResult result = addAll(loader.ids(), loader.names(), loader.grades());
+        if (result.isApplied()) {
+            metrics.transferred(RecordMetrics.Operation.LOAD, file.length(), loader.ids().length, start);
+        }
+        return result;
+    }
+
+    public void saveBinary(String fileName) throws IOException, IllegalArgumentException {
+        if (students.size() == 0) {
+            throw new IOException("Student File System is empty");
+        }
+        checkFileName(fileName);
+        long start = System.nanoTime();
+        Path target = Path.of(fileName + ".srs");
+        int records;
+        locks.lockAllShared();
+        try {
+            records = students.size();
+            BinaryRecordFile.write(target, students);
+        } finally {
+            locks.unlockAllShared();
+        }
+        metrics.transferred(RecordMetrics.Operation.SAVE, Files.size(target), records, start);
+    }
+    public void loadBinary(String fileName) throws IOException, IllegalArgumentException {
+        checkFileName(fileName);
+
+        File file = new File(fileName + ".srs");
+        if (!file.exists()) {
+            throw new FileNotFoundException("File " + fileName + ".srs is missing");
+        }
+
+        long start = System.nanoTime();
+        long records = BinaryRecordFile.read(file.toPath(), this::putRecord);
+        metrics.transferred(RecordMetrics.Operation.LOAD, file.length(), records, start);
+    }
+
+    // Compressed archive, see RecordArchive. Grades are kept to two decimals.
+    public void saveArchive(String fileName) throws IOException, IllegalArgumentException {
+        if (students.size() == 0) {
+            throw new IOException("Student File System is empty");
+        }
+        checkFileName(fileName);
+        long start = System.nanoTime();
+        Path target = Path.of(fileName + ".sra");
+        int records;
+        locks.lockAllShared();
+        try {
+            records = students.size();
+            RecordArchive.write(target, students);
+        } finally {
+            locks.unlockAllShared();
+        }
+        metrics.transferred(RecordMetrics.Operation.SAVE, Files.size(target), records, start);
+    }
+    public void loadArchive(String fileName) throws IOException, IllegalArgumentException {
+        checkFileName(fileName);
+
+        File file = new File(fileName + ".sra");
+        if (!file.exists()) {
+            throw new FileNotFoundException("File " + fileName + ".sra is missing");
+        }
+
+        long start = System.nanoTime();
+        long records = RecordArchive.read(file.toPath(), this::putRecord);
+        metrics.transferred(RecordMetrics.Operation.LOAD, file.length(), records, start);
+    }
+
+    public BatchResult addAll(@NotNull Collection<Student> newStudents) {
+        int[] ids = new int[newStudents.size()];
+        String[] names = new String[newStudents.size()];
+        float[] grades = new float[newStudents.size()];
+        int index = 0;
+        for (Student student : newStudents) {
+            ids[index] = student.getId();
+            names[index] = student.getName();
+            grades[index] = student.getGrade();
+            index++;
+        }
+        return addAll(ids, names, grades);
+    }
+    public BatchResult addAll(int @NotNull [] ids, String @NotNull [] names, float @NotNull [] grades)
+            throws IllegalArgumentException {
+        if (ids.length != names.length || ids.length != grades.length) {
+            throw new IllegalArgumentException(String.format(
+                    "Got %d ids, %d names and %d grades, batch sizes must match", ids.length, names.length, grades.length
+            ));
+        }
+        long start = metrics.start();
+        BatchResult result = new BatchResult(ids.length);
+        IntIndex batchIds = new IntIndex(ids.length);
+        locks.lockAll();
+        try {
+            for (int i = 0; i < ids.length; i++) {
+                Status nameStatus = names[i] == null ? Status.INVALID_NAME : checkName(names[i]);
+                if (ids[i] < startId) {
+                    result.fail(i, Status.INVALID_ID);
+                } else if (nameStatus != Status.OK) {
+                    result.fail(i, nameStatus);
+                } else if (!isValidGrade(grades[i])) {
+                    result.fail(i, Status.INVALID_GRADE);
+                } else if (students.contains(ids[i])) {
+                    result.fail(i, Status.ALREADY_EXISTS);
+                } else if (batchIds.put(ids[i], i) >= 0) {
+                    result.fail(i, Status.DUPLICATE_IN_BATCH);
+                }
+            }
+            if (result.isApplied()) {
+                students.ensureCapacity(students.size() + ids.length);
+                for (int i = 0; i < ids.length; i++) {
+                    students.insert(ids[i], names[i], grades[i]);
+                    for (RecordListener listener : listeners) {
+                        listener.onAdd(ids[i], names[i], grades[i]);
+                    }
+                }
+            }
+        } finally {
+            locks.unlockAll();
+        }
+        return metrics.finish(result, start);
+    }
+    public BatchResult updateGrades(@NotNull Map<Integer, Float> newGrades) {
+        int[] ids = new int[newGrades.size()];
+        float[] grades = new float[newGrades.size()];
+        int index = 0;
+        for (var entry : newGrades.entrySet()) {
+            ids[index] = entry.getKey();
+            grades[index] = entry.getValue();
+            index++;
+        }
+        return updateGrades(ids, grades);
+    }
+    public BatchResult updateGrades(int @NotNull [] ids, float @NotNull [] newGrades) throws IllegalArgumentException {
+        if (ids.length != newGrades.length) {
             throw new IllegalArgumentException(
-                    String.format("New ID: %d already exists in the system", newId)
+                    String.format("Got %d ids but %d grades, batch sizes must match", ids.length, newGrades.length)
             );
         }
-        Student studentCopy = students.get(id);
-        studentCopy.setId(newId);
-        students.put(newId, studentCopy);
-        students.remove(id);
+        long start = metrics.start();
+        BatchResult result = new BatchResult(ids.length);
+        locks.lockAll();
+        try {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] < startId) {
+                    result.fail(i, Status.INVALID_ID);
+                } else if (!isValidGrade(newGrades[i])) {
+                    result.fail(i, Status.INVALID_GRADE);
+                } else if (!students.contains(ids[i])) {
+                    result.fail(i, Status.NOT_FOUND);
+                }
+            }
+            if (result.isApplied()) {
+                for (int i = 0; i < ids.length; i++) {
+                    float oldGrade = students.setGrade(ids[i], newGrades[i]);
+                    for (RecordListener listener : listeners) {
+                        listener.onUpdateGrade(ids[i], oldGrade, newGrades[i]);
+                    }
+                }
+            }
+        } finally {
+            locks.unlockAll();
+        }
+        return metrics.finish(result, start);
     }
-    public void updateGrade(int id, float newGrade) throws IllegalArgumentException {
-        if (id < 1) {
+    public BatchResult deleteAll(int @NotNull [] ids) {
+        long start = metrics.start();
+        BatchResult result = new BatchResult(ids.length);
+        IntIndex batchIds = new IntIndex(ids.length);
+        locks.lockAll();
+        try {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] < startId) {
+                    result.fail(i, Status.INVALID_ID);
+                } else if (!students.contains(ids[i])) {
+                    result.fail(i, Status.NOT_FOUND);
+                } else if (batchIds.put(ids[i], i) >= 0) {
+                    result.fail(i, Status.DUPLICATE_IN_BATCH);
+                }
+            }
+            if (result.isApplied()) {
+                for (int id : ids) {
+                    fireDelete(students.remove(id));
+                }
+            }
+        } finally {
+            locks.unlockAll();
+        }
+        return metrics.finish(result, start);
+    }
+
+    public List<Student> findByGradeRange(float minGrade, float maxGrade) {
+        return findByGradeRange(minGrade, maxGrade, Integer.MAX_VALUE);
+    }
+    // The first limit students in the range by grade then id; the range walk stops once it has them.
+    public List<Student> findByGradeRange(float minGrade, float maxGrade, int limit) throws IllegalArgumentException {
+        if (limit < 0) {
             throw new IllegalArgumentException(
-                    String.format("Invalid ID %d. ID must be a positive integer", id)
+                    String.format("Invalid limit %d. Limit must not be negative", limit)
             );
         }
-        if (newGrade < minGrade || newGrade > maxGrade) {
+        List<Student> found = new ArrayList<>(Math.min(limit, 1024));
+        if (limit == 0) {
+            return found;
+        }
+        locks.lockAllShared();
+        try {
+            indexes().forEachInGradeRange(minGrade, maxGrade, id -> {
+                found.add(students.get(id));
+                return found.size() < limit;
+            });
+        } finally {
+            locks.unlockAllShared();
+        }
+        return found;
+    }
+    public List<Student> topByGrade(int count) throws IllegalArgumentException {
+        if (count < 0) {
             throw new IllegalArgumentException(
-                    String.format(
-                            "Invalid new grade %f. New grade must be between 0 and 100 (inclusive)",
-                            newGrade
-                    )
+                    String.format("Invalid count %d. Count must not be negative", count)
             );
         }
-        students.get(id).setGrade(newGrade);
+        List<Student> found = new ArrayList<>(Math.min(count, 1024));
+        if (count == 0) {
+            return found;
+        }
+        locks.lockAllShared();
+        try {
+            indexes().forEachByGradeDescending(id -> {
+                found.add(students.get(id));
+                return found.size() < count;
+            });
+        } finally {
+            locks.unlockAllShared();
+        }
+        return found;
+    }
+    public List<Student> findByNamePrefix(@NotNull String prefix) {
+        List<Student> found = new ArrayList<>();
+        locks.lockAllShared();
+        try {
+            indexes().forEachWithNamePrefix(prefix, id -> found.add(students.get(id)));
+        } finally {
+            locks.unlockAllShared();
+        }
+        return found;
     }
 
-    public void viewAll() {
-        if (students.size() == 0) {
-            System.out.print("Student Record System is empty...\n");
-        } else {
-            System.out.print(header);
-            System.out.print(separator);
-            System.out.print(columnHeadings);
-            System.out.print(separator);
-
-            for (Student student : students.values()) {
-                System.out.print("|");
-                System.out.printf(
-                        "%1$-15d|%2$-70s|%3$.2f|\n",
-                        student.getId(),
-                        student.getName(),
-                        student.getGrade()
-                );
+    // Built on the first query, while every stripe is read-locked, and maintained by the listener calls after that.
+    private SecondaryIndexes indexes() {
+        SecondaryIndexes current = indexes;
+        if (current == null) {
+            synchronized (listeners) {
+                current = indexes;
+                if (current == null) {
+                    current = new SecondaryIndexes(students);
+                    listeners.add(current);
+                    indexes = current;
+                }
             }
-
-            System.out.print(footer);
         }
+        return current;
     }
 
-    public void save(String fileName) throws IOException, IllegalArgumentException {
-        if (students.size() == 0) {
-            throw new IOException("Student File System is empty");
-        }
-        if (fileName.equals("")) {
-            throw new IllegalArgumentException("Invalid file name \"\", no file name given");
+    // Built from the store on first use while every stripe is read-locked, so no change slips between the scan and
+    // the listener, and maintained by the listener calls after that.
+    public IdAllocator idAllocator() {
+        IdAllocator current = idAllocator;
+        if (current == null) {
+            locks.lockAllShared();
+            try {
+                synchronized (listeners) {
+                    current = idAllocator;
+                    if (current == null) {
+                        current = new IdAllocator(students, idReservation);
+                        listeners.add(current);
+                        idAllocator = current;
+                    }
+                }
+            } finally {
+                locks.unlockAllShared();
+            }
         }
-        if (!Pattern.matches(fileNameFormat, fileName)) {
-            throw new IllegalArgumentException(String.format("Invalid file name %s", fileName));
+        return current;
+    }
+
+    // Always maintained with adders, so statistics() never scans the store and writers never share a monitor for it.
+    private RunningStatistics trackStatistics() {
+        RunningStatistics running = new RunningStatistics(students);
+        listeners.add(running);
+        return running;
+    }
+
+    // The first call builds the grade index for min, max and median, which is maintained from then on.
+    public GradeStatistics statistics() {
+        locks.lockAllShared();
+        try {
+            return statistics.snapshot(indexes());
+        } finally {
+            locks.unlockAllShared();
         }
-        FileWriter fWriter = new FileWriter(fileName + ".txt");
-        for (Student student : students.values()) {
-            fWriter.write(String.format("%1$d,%2$s,%3$f\n", student.getId(), student.getName(), student.getGrade()));
+    }
+
+    public RecordMetrics metrics() {
+        return metrics;
+    }
+
+    public void addListener(@NotNull RecordListener listener) {
+        listeners.add(listener);
+    }
+    public void removeListener(@NotNull RecordListener listener) {
+        listeners.remove(listener);
+    }
+
+    StudentStore store() {
+        return students;
+    }
+    StripedLocks locks() {
+        return locks;
+    }
+    public boolean isConcurrent() {
+        return locks != StripedLocks.none;
+    }
+
+    // Applies changes read back from a file or an operation log: existing records are overwritten and changes to
+    // missing students are skipped instead of rejected, but listeners still see every change that was applied.
+    RecordListener replayer() {
+        return new RecordListener() {
+            @Override
+            public void onAdd(int id, String name, float grade) {
+                putRecord(id, name, grade);
+            }
+            @Override
+            public void onDelete(int id, String name, float grade) {
+                locks.lock(id);
+                try {
+                    Student removed = students.remove(id);
+                    if (removed != null) {
+                        fireDelete(removed);
+                    }
+                } finally {
+                    locks.unlock(id);
+                }
+            }
+            @Override
+            public void onUpdateName(int id, String oldName, String newName) {
+                locks.lock(id);
+                try {
+                    String previous = students.setName(id, newName);
+                    if (previous != null) {
+                        for (RecordListener listener : listeners) {
+                            listener.onUpdateName(id, previous, newName);
+                        }
+                    }
+                } finally {
+                    locks.unlock(id);
+                }
+            }
+            @Override
+            public void onUpdateId(int id, int newId) {
+                locks.lock(id, newId);
+                try {
+                    if (students.move(id, newId)) {
+                        for (RecordListener listener : listeners) {
+                            listener.onUpdateId(id, newId);
+                        }
+                    }
+                } finally {
+                    locks.unlock(id, newId);
+                }
+            }
+            @Override
+            public void onUpdateGrade(int id, float oldGrade, float newGrade) {
+                locks.lock(id);
+                try {
+                    if (students.contains(id)) {
+                        float previous = students.setGrade(id, newGrade);
+                        for (RecordListener listener : listeners) {
+                            listener.onUpdateGrade(id, previous, newGrade);
+                        }
+                    }
+                } finally {
+                    locks.unlock(id);
+                }
+            }
+        };
+    }
+
+    void putRecord(int id, String name, float grade) {
+        locks.lock(id);
+        try {
+            Student previous = students.put(id, name, grade);
+            for (RecordListener listener : listeners) {
+                if (previous == null) {
+                    listener.onAdd(id, name, grade);
+                } else {
+                    listener.onReplace(id, previous.getName(), previous.getGrade(), name, grade);
+                }
+            }
+        } finally {
+            locks.unlock(id);
         }
-        fWriter.close();
     }
-    public void load(String fileName) throws IOException, IllegalArgumentException {
-        if (fileName.equals("")) {
-            throw new IllegalArgumentException("Invalid file name \"\", no file name given");
+
+    private void fireDelete(Student removed) {
+        for (RecordListener listener : listeners) {
+            listener.onDelete(removed.getId(), removed.getName(), removed.getGrade());
         }
-        if (!Pattern.matches(fileNameFormat, fileName)) {
-            throw new IllegalArgumentException(String.format("Invalid file name %s", fileName));
+    }
+
+    // Names are ASCII, so the limit is also their size in bytes and fits the short length prefix of every file and log
+    // format.
+    static Status checkName(String name) {
+        if (name.length() > maxNameLength) {
+            return Status.NAME_TOO_LONG;
         }
+        return isValidName(name) ? Status.OK : Status.INVALID_NAME;
+    }
 
-        File file = new File(fileName + ".txt");
-        if (!file.exists()) {
-            throw new FileNotFoundException("File " + fileName + ".txt is missing");
+    // Written so NaN fails it too: every comparison with NaN is false.
+    static boolean isValidGrade(float grade) {
+        return grade >= minGrade && grade <= maxGrade;
+    }
+
+    // Matches [a-zA-Z][a-zA-Z ]+[a-zA-Z], checked by hand so validation never runs a regex or allocates.
+    static boolean isValidName(String name) {
+        int length = name.length();
+        if (length < 3 || !isLetter(name.charAt(0)) || !isLetter(name.charAt(length - 1))) {
+            return false;
         }
+        for (int i = 1; i < length - 1; i++) {
+            char c = name.charAt(i);
+            if (c != ' ' && !isLetter(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-        String content = Files.readString(file.toPath());
-        String[] lines = content.split("\n");
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
 
-        for (String line : lines) {
-            String[] studentRecord = line.split(",");
-            int id = Integer.parseInt(studentRecord[0]);
-            String name = studentRecord[1];
-            float grade = Float.parseFloat(studentRecord[2]);
+    // Builds the exception the throwing methods have always raised for a rejected operation.
+    static IllegalArgumentException rejection(Status status, int id, int newId, String name, float grade) {
+        return new IllegalArgumentException(switch (status) {
+            case INVALID_ID -> String.format("Invalid ID %d. ID must be a positive integer", id);
+            case INVALID_NEW_ID -> String.format("Invalid new ID %d. New ID must be a positive integer", newId);
+            case INVALID_NAME -> String.format(
+                    "Invalid new name %s. New name must contain alphabetic characters and spaces only", name
+            );
+            case INVALID_GRADE -> String.format(
+                    "Invalid new grade %f. New grade must be between 0 and 100 (inclusive)", grade
+            );
+            case ALREADY_EXISTS -> "Student already exists in the system";
+            case NOT_FOUND -> String.format("Student with id %d does not exist in the system", id);
+            case NEW_ID_EXISTS -> String.format("New ID: %d already exists in the system", newId);
+            case NAME_TOO_LONG -> String.format(
+                    "Invalid new name of %d characters. New name must be at most %d characters", name.length(),
+                    maxNameLength
+            );
+            default -> status.name();
+        });
+    }
 
-            students.put(id, new Student(name, id, grade));
+    static void checkFileName(String fileName) throws IllegalArgumentException {
+        if (fileName.equals("")) {
+            throw new IllegalArgumentException("Invalid file name \"\", no file name given");
+        }
+        if (!fileNamePattern.matcher(fileName).matches()) {
+            throw new IllegalArgumentException(String.format("Invalid file name %s", fileName));
         }
     }
 }
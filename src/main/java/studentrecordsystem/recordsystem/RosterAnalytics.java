@@ -0,0 +1,356 @@
+package studentrecordsystem.recordsystem;
+
+import org.jetbrains.annotations.NotNull;
+import studentrecordsystem.student.Student;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parallel reports over a snapshot of a {@link RecordSystem}. The snapshot is copied into flat columns: from the
+ * current version of a versioned system while writers go on, or while every stripe is read-locked otherwise. The
+ * reports split the columns into fixed ranges of {@code leafSize} rows on a {@link ForkJoinPool}, sorts included.
+ * Ranges are always split and merged the same way, so results do not depend on the number of threads.
+ */
+public final class RosterAnalytics {
+    private final static int leafSize = 1 << 13;
+
+    private final ForkJoinPool pool;
+    private final int[] ids;
+    private final String[] names;
+    private final float[] grades;
+    private float[] sortedGrades;
+
+    public RosterAnalytics(@NotNull RecordSystem system) {
+        this(system, ForkJoinPool.commonPool());
+    }
+    public RosterAnalytics(@NotNull RecordSystem system, @NotNull ForkJoinPool pool) {
+        this.pool = pool;
+        RosterSnapshot snapshot = system.versionedSnapshot();
+        StudentStore store = system.store();
+        if (snapshot == null) {
+            system.locks().lockAllShared();
+        }
+        try {
+            int size = snapshot != null ? snapshot.size() : store.size();
+            ids = new int[size];
+            names = new String[size];
+            grades = new float[size];
+            int[] row = {0};
+            StudentStore.Visitor copy = (id, name, grade) -> {
+                ids[row[0]] = id;
+                names[row[0]] = name;
+                grades[row[0]] = grade;
+                row[0]++;
+            };
+            if (snapshot != null) {
+                snapshot.forEach(copy);
+            } else {
+                store.forEach(copy);
+            }
+        } finally {
+            if (snapshot == null) {
+                system.locks().unlockAllShared();
+            }
+        }
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public GradeStatistics summary() {
+        float[] sorted = sortedGrades();
+        return pool.invoke(new Moments(i -> grades[i], 0, grades.length)).toStatistics(medianOf(sorted));
+    }
+
+    // Nearest-rank percentile: the smallest grade with at least percentile% of the roster at or below it.
+    public float percentile(double percentile) throws IllegalArgumentException {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid percentile %s. Percentile must be between 0 and 100", percentile)
+            );
+        }
+        float[] sorted = sortedGrades();
+        if (sorted.length == 0) {
+            return Float.NaN;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    // Grade statistics per upper-cased first letter of the name.
+    public SortedMap<Character, GradeStatistics> distributionByInitial() {
+        long[] keys = pool.invoke(new InitialKeys(0, ids.length, new long[ids.length]));
+        pool.invoke(new ParallelSort(keys));
+        SortedMap<Character, GradeStatistics> distribution = new TreeMap<>();
+        int from = 0;
+        while (from < keys.length) {
+            char initial = (char) (keys[from] >>> 32);
+            int to = Arrays.binarySearch(keys, from, keys.length, ((long) initial + 1) << 32);
+            to = to < 0 ? -to - 1 : to;
+            Moments moments = new Moments(i -> gradeOf(keys[i]), from, to);
+            int count = to - from;
+            float median = count % 2 == 1
+                    ? gradeOf(keys[from + count / 2])
+                    : (float) (((double) gradeOf(keys[from + count / 2 - 1]) + gradeOf(keys[from + count / 2])) / 2);
+            distribution.put(initial, pool.invoke(moments).toStatistics(median));
+            from = to;
+        }
+        return distribution;
+    }
+
+    // Students whose grade is more than zScore standard deviations from the mean, in ascending id order.
+    public List<Student> outliers(double zScore) throws IllegalArgumentException {
+        if (!(zScore >= 0)) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid z-score %s. Z-score must not be negative", zScore)
+            );
+        }
+        Partial moments = pool.invoke(new Moments(i -> grades[i], 0, grades.length));
+        if (moments.count == 0) {
+            return new ArrayList<>();
+        }
+        double mean = moments.sum / moments.count;
+        double deviation = Math.sqrt(Math.max(0, moments.sumOfSquares / moments.count - mean * mean));
+        int[] rows = pool.invoke(new Outliers(mean, zScore * deviation, 0, grades.length));
+        List<Student> found = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            found.add(new Student(names[row], ids[row], grades[row]));
+        }
+        found.sort(Comparator.comparingInt(Student::getId));
+        return found;
+    }
+
+    private float[] sortedGrades() {
+        if (sortedGrades == null) {
+            float[] sorted = grades.clone();
+            pool.invoke(new ParallelSort(sorted));
+            sortedGrades = sorted;
+        }
+        return sortedGrades;
+    }
+
+    private static float medianOf(float[] sorted) {
+        int count = sorted.length;
+        if (count == 0) {
+            return Float.NaN;
+        }
+        return count % 2 == 1
+                ? sorted[count / 2]
+                : (float) (((double) sorted[count / 2 - 1] + sorted[count / 2]) / 2);
+    }
+
+    // Initial in the high half, grade bits ordered as unsigned ints in the low half.
+    private static long initialKey(String name, float grade) {
+        char initial = name.isEmpty() ? 0 : Character.toUpperCase(name.charAt(0));
+        return ((long) initial << 32) | ((SecondaryIndexes.sortableBits(grade) ^ 0x80000000) & 0xFFFFFFFFL);
+    }
+
+    private static float gradeOf(long initialKey) {
+        return SecondaryIndexes.gradeOf((initialKey ^ 0x80000000L) << 32);
+    }
+
+    @FunctionalInterface
+    private interface GradeColumn {
+        float gradeAt(int row);
+    }
+
+    private final static class Partial {
+        private int count;
+        private double sum;
+        private double sumOfSquares;
+        private float min = Float.NaN;
+        private float max = Float.NaN;
+        private final int[] bands = new int[GradeStatistics.bandCount];
+
+        private void add(float grade) {
+            count++;
+            sum += grade;
+            sumOfSquares += (double) grade * grade;
+            min = Float.isNaN(min) ? grade : Math.min(min, grade);
+            max = Float.isNaN(max) ? grade : Math.max(max, grade);
+            bands[GradeStatistics.bandOf(grade)]++;
+        }
+
+        private Partial merge(Partial other) {
+            count += other.count;
+            sum += other.sum;
+            sumOfSquares += other.sumOfSquares;
+            min = Float.isNaN(min) ? other.min : Float.isNaN(other.min) ? min : Math.min(min, other.min);
+            max = Float.isNaN(max) ? other.max : Float.isNaN(other.max) ? max : Math.max(max, other.max);
+            for (int i = 0; i < bands.length; i++) {
+                bands[i] += other.bands[i];
+            }
+            return this;
+        }
+
+        private GradeStatistics toStatistics(float median) {
+            return new GradeStatistics(count, sum, sumOfSquares, min, max, median, bands);
+        }
+    }
+
+    private final static class Moments extends RecursiveTask<Partial> {
+        private final GradeColumn column;
+        private final int from;
+        private final int to;
+
+        private Moments(GradeColumn column, int from, int to) {
+            this.column = column;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from <= leafSize) {
+                Partial partial = new Partial();
+                for (int row = from; row < to; row++) {
+                    partial.add(column.gradeAt(row));
+                }
+                return partial;
+            }
+            int middle = (from + to) >>> 1;
+            Moments upper = new Moments(column, middle, to);
+            upper.fork();
+            Partial lower = new Moments(column, from, middle).compute();
+            return lower.merge(upper.join());
+        }
+    }
+
+    private final class InitialKeys extends RecursiveTask<long[]> {
+        private final int from;
+        private final int to;
+        private final long[] keys;
+
+        private InitialKeys(int from, int to, long[] keys) {
+            this.from = from;
+            this.to = to;
+            this.keys = keys;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= leafSize) {
+                for (int row = from; row < to; row++) {
+                    keys[row] = initialKey(names[row], grades[row]);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new InitialKeys(from, middle, keys), new InitialKeys(middle, to, keys));
+            }
+            return keys;
+        }
+    }
+
+    private final class Outliers extends RecursiveTask<int[]> {
+        private final double mean;
+        private final double limit;
+        private final int from;
+        private final int to;
+
+        private Outliers(double mean, double limit, int from, int to) {
+            this.mean = mean;
+            this.limit = limit;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= leafSize) {
+                int[] rows = new int[16];
+                int count = 0;
+                for (int row = from; row < to; row++) {
+                    if (Math.abs(grades[row] - mean) > limit) {
+                        if (count == rows.length) {
+                            rows = Arrays.copyOf(rows, count * 2);
+                        }
+                        rows[count++] = row;
+                    }
+                }
+                return Arrays.copyOf(rows, count);
+            }
+            int middle = (from + to) >>> 1;
+            Outliers upper = new Outliers(mean, limit, middle, to);
+            upper.fork();
+            int[] lower = new Outliers(mean, limit, from, middle).compute();
+            int[] higher = upper.join();
+            int[] rows = Arrays.copyOf(lower, lower.length + higher.length);
+            System.arraycopy(higher, 0, rows, lower.length, higher.length);
+            return rows;
+        }
+    }
+
+    // Sorts a long[] or float[] range by range on the pool it runs in and merges the halves through a buffer.
+    // Arrays.parallelSort would fork into the common pool instead, or sort sequentially when that pool has one thread.
+    private final static class ParallelSort extends RecursiveTask<Void> {
+        private final Object array;
+        private final Object buffer;
+        private final int from;
+        private final int to;
+
+        private ParallelSort(long[] keys) {
+            this(keys, new long[keys.length], 0, keys.length);
+        }
+        private ParallelSort(float[] grades) {
+            this(grades, new float[grades.length], 0, grades.length);
+        }
+        private ParallelSort(Object array, Object buffer, int from, int to) {
+            this.array = array;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Void compute() {
+            if (to - from <= leafSize) {
+                if (array instanceof long[] keys) {
+                    Arrays.sort(keys, from, to);
+                } else {
+                    Arrays.sort((float[]) array, from, to);
+                }
+                return null;
+            }
+            int middle = (from + to) >>> 1;
+            ParallelSort upper = new ParallelSort(array, buffer, middle, to);
+            upper.fork();
+            new ParallelSort(array, buffer, from, middle).compute();
+            upper.join();
+            System.arraycopy(array, from, buffer, from, to - from);
+            if (array instanceof long[] keys) {
+                mergeKeys(keys, (long[]) buffer, middle);
+            } else {
+                mergeGrades((float[]) array, (float[]) buffer, middle);
+            }
+            return null;
+        }
+
+        private void mergeKeys(long[] keys, long[] halves, int middle) {
+            int lower = from;
+            int upper = middle;
+            for (int i = from; i < to; i++) {
+                keys[i] = upper == to || lower < middle && halves[lower] <= halves[upper]
+                        ? halves[lower++]
+                        : halves[upper++];
+            }
+        }
+        // Float.compare, so the order is the one Arrays.sort gives.
+        private void mergeGrades(float[] grades, float[] halves, int middle) {
+            int lower = from;
+            int upper = middle;
+            for (int i = from; i < to; i++) {
+                grades[i] = upper == to || lower < middle && Float.compare(halves[lower], halves[upper]) <= 0
+                        ? halves[lower++]
+                        : halves[upper++];
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package studentrecordsystem.recordsystem;
+
+import org.jetbrains.annotations.NotNull;
+import studentrecordsystem.student.Student;
+
+import java.util.HashMap;
+
+/**
+ * Immutable point-in-time view of a roster, held as a persistent 32-way trie on the bits of the id. Nodes keep a
+ * bitmap of their occupied slots and a packed slot array, and a change copies only the nodes on the path to its id,
+ * so versions share everything else and taking a snapshot is just keeping a reference to the root.
+ * Iteration is in ascending id order.
+ */
+public final class RosterSnapshot {
+    private final static int topShift = 30;
+    private final static Node emptyNode = new Node(0, new Object[0]);
+    final static RosterSnapshot empty = new RosterSnapshot(emptyNode, 0);
+
+    private final static class Leaf {
+        private final int id;
+        private final String name;
+        private final float grade;
+
+        private Leaf(int id, String name, float grade) {
+            this.id = id;
+            this.name = name;
+            this.grade = grade;
+        }
+    }
+
+    private final static class Node {
+        private final int bitmap;
+        private final Object[] slots;
+
+        private Node(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+    }
+
+    private final Node root;
+    private final int size;
+
+    private RosterSnapshot(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    // Copies a store that cannot share structure; the store must not change while this runs.
+    static RosterSnapshot copyOf(StudentStore store) {
+        RosterSnapshot[] copy = {empty};
+        store.forEach((id, name, grade) -> copy[0] = copy[0].with(id, name, grade));
+        return copy[0];
+    }
+
+    public int size() {
+        return size;
+    }
+    public boolean contains(int id) {
+        return leaf(id) != null;
+    }
+    public Student get(int id) {
+        Leaf leaf = leaf(id);
+        return leaf == null ? null : new Student(leaf.name, leaf.id, leaf.grade);
+    }
+
+    public void forEach(@NotNull StudentStore.Visitor visitor) {
+        forEach(root, visitor);
+    }
+
+    public HashMap<Integer, Student> toMap() {
+        HashMap<Integer, Student> copy = new HashMap<>(size * 4 / 3 + 1);
+        forEach((id, name, grade) -> copy.put(id, new Student(name, id, grade)));
+        return copy;
+    }
+
+    String nameOf(int id) {
+        Leaf leaf = leaf(id);
+        return leaf == null ? null : leaf.name;
+    }
+    float gradeOf(int id) {
+        Leaf leaf = leaf(id);
+        return leaf == null ? Float.NaN : leaf.grade;
+    }
+
+    RosterSnapshot with(int id, String name, float grade) {
+        boolean replaces = contains(id);
+        return new RosterSnapshot(with(root, new Leaf(id, name, grade), topShift), replaces ? size : size + 1);
+    }
+
+    RosterSnapshot without(int id) {
+        Node smaller = without(root, id, topShift);
+        return smaller == root ? this : new RosterSnapshot(smaller, size - 1);
+    }
+
+    private Leaf leaf(int id) {
+        Node node = root;
+        for (int shift = topShift; ; shift -= 5) {
+            int bit = 1 << ((id >>> shift) & 31);
+            if ((node.bitmap & bit) == 0) {
+                return null;
+            }
+            Object slot = node.slots[Integer.bitCount(node.bitmap & (bit - 1))];
+            if (slot instanceof Leaf leaf) {
+                return leaf.id == id ? leaf : null;
+            }
+            node = (Node) slot;
+        }
+    }
+
+    private static void forEach(Node node, StudentStore.Visitor visitor) {
+        for (Object slot : node.slots) {
+            if (slot instanceof Leaf leaf) {
+                visitor.visit(leaf.id, leaf.name, leaf.grade);
+            } else {
+                forEach((Node) slot, visitor);
+            }
+        }
+    }
+
+    private static Node with(Node node, Leaf leaf, int shift) {
+        int bit = 1 << ((leaf.id >>> shift) & 31);
+        int index = Integer.bitCount(node.bitmap & (bit - 1));
+        if ((node.bitmap & bit) == 0) {
+            Object[] slots = new Object[node.slots.length + 1];
+            System.arraycopy(node.slots, 0, slots, 0, index);
+            slots[index] = leaf;
+            System.arraycopy(node.slots, index, slots, index + 1, node.slots.length - index);
+            return new Node(node.bitmap | bit, slots);
+        }
+        Object slot = node.slots[index];
+        Object replacement;
+        if (slot instanceof Leaf existing) {
+            replacement = existing.id == leaf.id
+                    ? leaf
+                    : with(with(emptyNode, existing, shift - 5), leaf, shift - 5);
+        } else {
+            replacement = with((Node) slot, leaf, shift - 5);
+        }
+        Object[] slots = node.slots.clone();
+        slots[index] = replacement;
+        return new Node(node.bitmap, slots);
+    }
+
+    // Returns the same node when the id is absent. A child left holding a single leaf is replaced by that leaf, so
+    // every node below the root holds at least two records.
+    private static Node without(Node node, int id, int shift) {
+        int bit = 1 << ((id >>> shift) & 31);
+        if ((node.bitmap & bit) == 0) {
+            return node;
+        }
+        int index = Integer.bitCount(node.bitmap & (bit - 1));
+        Object slot = node.slots[index];
+        if (slot instanceof Leaf leaf) {
+            if (leaf.id != id) {
+                return node;
+            }
+            Object[] slots = new Object[node.slots.length - 1];
+            System.arraycopy(node.slots, 0, slots, 0, index);
+            System.arraycopy(node.slots, index + 1, slots, index, slots.length - index);
+            return new Node(node.bitmap & ~bit, slots);
+        }
+        Node child = (Node) slot;
+        Node smaller = without(child, id, shift - 5);
+        if (smaller == child) {
+            return node;
+        }
+        Object[] slots = node.slots.clone();
+        slots[index] = smaller.slots.length == 1 && smaller.slots[0] instanceof Leaf ? smaller.slots[0] : smaller;
+        return new Node(node.bitmap, slots);
+    }
+}
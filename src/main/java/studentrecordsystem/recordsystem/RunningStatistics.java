@@ -0,0 +1,68 @@
+package studentrecordsystem.recordsystem;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Grade aggregates kept up to date as a {@link RecordListener}: count, sum and sum of squares for the mean and
+ * standard deviation, and a band histogram. Every counter is an adder, so concurrent writers under different stripe
+ * locks never meet on a shared monitor. Min, max and median come from the grade index of {@link SecondaryIndexes},
+ * which is only built once statistics or an indexed query are asked for, so a store larger than memory pays for no
+ * on-heap order structure until then.
+ */
+final class RunningStatistics implements RecordListener {
+    private final LongAdder count = new LongAdder();
+    private final DoubleAdder sum = new DoubleAdder();
+    private final DoubleAdder sumOfSquares = new DoubleAdder();
+    private final LongAdder[] bands = new LongAdder[GradeStatistics.bandCount];
+
+    RunningStatistics(StudentStore store) {
+        for (int band = 0; band < bands.length; band++) {
+            bands[band] = new LongAdder();
+        }
+        store.forEach(this::onAdd);
+    }
+
+    // Must be called while no change can run, so the adders and the index agree.
+    GradeStatistics snapshot(SecondaryIndexes indexes) {
+        int[] bandCounts = new int[bands.length];
+        for (int band = 0; band < bands.length; band++) {
+            bandCounts[band] = bands[band].intValue();
+        }
+        int total = count.intValue();
+        if (total == 0) {
+            // Reset so rounding drift cannot outlive the records.
+            sum.reset();
+            sumOfSquares.reset();
+            return new GradeStatistics(0, 0, 0, Float.NaN, Float.NaN, Float.NaN, bandCounts);
+        }
+        float min = indexes.gradeAtRank(0);
+        float max = indexes.gradeAtRank(total - 1);
+        float median = total % 2 == 1
+                ? indexes.gradeAtRank(total / 2)
+                : (float) (((double) indexes.gradeAtRank(total / 2 - 1) + indexes.gradeAtRank(total / 2)) / 2);
+        return new GradeStatistics(total, sum.sum(), sumOfSquares.sum(), min, max, median, bandCounts);
+    }
+
+    @Override
+    public void onAdd(int id, String name, float grade) {
+        count.increment();
+        sum.add(grade);
+        sumOfSquares.add((double) grade * grade);
+        bands[GradeStatistics.bandOf(grade)].increment();
+    }
+
+    @Override
+    public void onDelete(int id, String name, float grade) {
+        count.decrement();
+        sum.add(-grade);
+        sumOfSquares.add(-(double) grade * grade);
+        bands[GradeStatistics.bandOf(grade)].decrement();
+    }
+
+    @Override
+    public void onUpdateGrade(int id, float oldGrade, float newGrade) {
+        onDelete(id, null, oldGrade);
+        onAdd(id, null, newGrade);
+    }
+}
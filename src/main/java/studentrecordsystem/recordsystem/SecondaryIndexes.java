@@ -0,0 +1,234 @@
+package studentrecordsystem.recordsystem;
+
+import studentrecordsystem.student.Student;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Id, grade and name indexes kept up to date as a {@link RecordListener}. Grades are held in a {@link LongOrderedSet} of
+ * {@code (sortable grade bits << 32) | id} keys, so equal grades stay distinct and ranges come out sorted by grade
+ * then id. Names map to the ids holding them in a {@link TreeMap}, so a prefix is one sub-map.
+ * <p>
+ * The listener calls never take the monitor, so writers on different stripes do not meet here. Each change is queued
+ * and applied by the next query, or by the writer whose change fills a batch of {@code 1024}. Queries run while
+ * every stripe is read-locked, so no change is half queued when they apply the queue.
+ */
+final class SecondaryIndexes implements RecordListener {
+    @FunctionalInterface
+    interface IdVisitor {
+        boolean visit(int id);
+    }
+
+    private final static class Change {
+        private final byte type;
+        private final int id;
+        private final int newId;
+        private final String name;
+        private final String oldName;
+        private final float grade;
+        private final float oldGrade;
+
+        private Change(byte type, int id, int newId, String name, String oldName, float grade, float oldGrade) {
+            this.type = type;
+            this.id = id;
+            this.newId = newId;
+            this.name = name;
+            this.oldName = oldName;
+            this.grade = grade;
+            this.oldGrade = oldGrade;
+        }
+    }
+
+    private final static byte add = 0;
+    private final static byte delete = 1;
+    private final static byte updateName = 2;
+    private final static byte updateId = 3;
+    private final static byte updateGrade = 4;
+    private final static int changeBatch = 1024;
+
+    private final StudentStore store;
+    private final ConcurrentLinkedQueue<Change> changes = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedChanges = new AtomicInteger();
+    private final LongOrderedSet ids = new LongOrderedSet();
+    private final LongOrderedSet grades = new LongOrderedSet();
+    private final TreeMap<String, int[]> names = new TreeMap<>();
+
+    SecondaryIndexes(StudentStore store) {
+        this.store = store;
+        store.forEach(this::addRecord);
+    }
+
+    static long gradeKey(float grade, int id) {
+        return ((long) sortableBits(grade) << 32) | (id & 0xFFFFFFFFL);
+    }
+
+    static float gradeOf(long gradeKey) {
+        int bits = (int) (gradeKey >> 32);
+        return Float.intBitsToFloat(bits ^ ((bits >> 31) & 0x7FFFFFFF));
+    }
+
+    static int sortableBits(float grade) {
+        int bits = Float.floatToIntBits(grade == 0 ? 0 : grade);
+        return bits ^ ((bits >> 31) & 0x7FFFFFFF);
+    }
+
+    // Grade with the given zero-based rank in ascending order; the rank must be below the number of students.
+    synchronized float gradeAtRank(int rank) {
+        applyChanges();
+        return gradeOf(grades.select(rank));
+    }
+
+    synchronized void forEachInGradeRange(float minGrade, float maxGrade, IdVisitor visitor) {
+        applyChanges();
+        grades.forEachInRange(
+                (long) sortableBits(minGrade) << 32,
+                ((long) sortableBits(maxGrade) << 32) | 0xFFFFFFFFL,
+                key -> visitor.visit((int) key)
+        );
+    }
+
+    synchronized void forEachByGradeDescending(IdVisitor visitor) {
+        applyChanges();
+        grades.forEachInRangeDescending(Long.MIN_VALUE, Long.MAX_VALUE, key -> visitor.visit((int) key));
+    }
+
+    synchronized void forEachSorted(SortOrder order, int offset, IdVisitor visitor) {
+        applyChanges();
+        switch (order) {
+            case ID -> ids.forEachFromRank(offset, key -> visitor.visit((int) key));
+            case GRADE -> grades.forEachFromRank(offset, key -> visitor.visit((int) key));
+            case GRADE_DESCENDING -> grades.forEachFromRankDescending(offset, key -> visitor.visit((int) key));
+            case NAME -> {
+                int skip = offset;
+                for (int[] sameName : names.values()) {
+                    if (skip >= sameName[0]) {
+                        skip -= sameName[0];
+                        continue;
+                    }
+                    int[] sorted = Arrays.copyOfRange(sameName, 1, sameName[0] + 1);
+                    Arrays.sort(sorted);
+                    for (int i = skip; i < sorted.length; i++) {
+                        if (!visitor.visit(sorted[i])) {
+                            return;
+                        }
+                    }
+                    skip = 0;
+                }
+            }
+        }
+    }
+
+    synchronized void forEachWithNamePrefix(String prefix, IdVisitor visitor) {
+        applyChanges();
+        Map<String, int[]> matches = names.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        for (int[] ids : matches.values()) {
+            for (int i = 1; i <= ids[0]; i++) {
+                if (!visitor.visit(ids[i])) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onAdd(int id, String name, float grade) {
+        queue(new Change(add, id, 0, name, null, grade, 0));
+    }
+    @Override
+    public void onDelete(int id, String name, float grade) {
+        queue(new Change(delete, id, 0, name, null, grade, 0));
+    }
+    @Override
+    public void onUpdateName(int id, String oldName, String newName) {
+        queue(new Change(updateName, id, 0, newName, oldName, 0, 0));
+    }
+    // Called with the student already stored under its new id, which is read now while the id is still locked.
+    @Override
+    public void onUpdateId(int id, int newId) {
+        Student moved = store.get(newId);
+        queue(new Change(updateId, id, newId, moved.getName(), null, moved.getGrade(), 0));
+    }
+    @Override
+    public void onUpdateGrade(int id, float oldGrade, float newGrade) {
+        queue(new Change(updateGrade, id, 0, null, null, newGrade, oldGrade));
+    }
+
+    // Listener calls for one id run under that id's lock, so the queue keeps each id's changes in order.
+    private void queue(Change change) {
+        changes.add(change);
+        if (queuedChanges.incrementAndGet() % changeBatch == 0) {
+            synchronized (this) {
+                applyChanges();
+            }
+        }
+    }
+
+    private void applyChanges() {
+        for (Change change; (change = changes.poll()) != null; ) {
+            switch (change.type) {
+                case add -> addRecord(change.id, change.name, change.grade);
+                case delete -> {
+                    ids.remove(change.id);
+                    grades.remove(gradeKey(change.grade, change.id));
+                    removeName(change.name, change.id);
+                }
+                case updateName -> {
+                    removeName(change.oldName, change.id);
+                    addName(change.name, change.id);
+                }
+                case updateId -> {
+                    ids.remove(change.id);
+                    ids.add(change.newId);
+                    grades.remove(gradeKey(change.grade, change.id));
+                    grades.add(gradeKey(change.grade, change.newId));
+                    removeName(change.name, change.id);
+                    addName(change.name, change.newId);
+                }
+                default -> {
+                    grades.remove(gradeKey(change.oldGrade, change.id));
+                    grades.add(gradeKey(change.grade, change.id));
+                }
+            }
+        }
+    }
+
+    private void addRecord(int id, String name, float grade) {
+        ids.add(id);
+        grades.add(gradeKey(grade, id));
+        addName(name, id);
+    }
+
+    // Each name maps to {count, id, id, ...}, so a name shared by thousands of students is still one array.
+    private void addName(String name, int id) {
+        int[] ids = names.get(name);
+        if (ids == null) {
+            names.put(name, new int[] {1, id});
+            return;
+        }
+        if (ids[0] + 1 == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+            names.put(name, ids);
+        }
+        ids[++ids[0]] = id;
+    }
+
+    private void removeName(String name, int id) {
+        int[] ids = names.get(name);
+        if (ids == null) {
+            return;
+        }
+        for (int i = 1; i <= ids[0]; i++) {
+            if (ids[i] == id) {
+                ids[i] = ids[ids[0]--];
+                break;
+            }
+        }
+        if (ids[0] == 0) {
+            names.remove(name);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package studentrecordsystem.recordsystem;
+
+import org.jetbrains.annotations.NotNull;
+import studentrecordsystem.student.Student;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Front-end over independent concurrent {@link RecordSystem} shards, each owning the students whose ids route to it.
+ * Single-record operations go straight to one shard, so they never contend with other shards' locks, and an
+ * {@code updateId} whose new id belongs to another shard moves the record while holding both ids' locks.
+ * Every shard is saved to and loaded from its own file, all shards at once.
+ */
+public final class ShardedRecordSystem {
+    @FunctionalInterface
+    private interface ShardTask {
+        void run(int shard) throws IOException;
+    }
+
+    private final static int stripesPerShard = 16;
+    private final static long hashMultiplier = 0x9E3779B97F4A7C15L;
+
+    private final RecordSystem[] shards;
+    private final IntUnaryOperator router;
+
+    private ShardedRecordSystem(int shardCount, IntUnaryOperator router) {
+        shards = new RecordSystem[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = RecordSystem.concurrent(stripesPerShard);
+        }
+        this.router = router;
+    }
+
+    // Spreads ids evenly, so runs of consecutive ids are shared out between all shards. Uses the high bits of a
+    // different hash from the lock stripes, so each shard's ids still spread over all of its stripes.
+    public static ShardedRecordSystem hashed(int shardCount) throws IllegalArgumentException {
+        checkShardCount(shardCount);
+        return new ShardedRecordSystem(
+                shardCount, id -> (int) ((((id * hashMultiplier) >>> 32) * shardCount) >>> 32)
+        );
+    }
+    // Ids 1 to rangeSize go to shard 0, the next rangeSize ids to shard 1 and so on; the last shard takes every id
+    // past the end of its range.
+    public static ShardedRecordSystem ranged(int shardCount, int rangeSize) throws IllegalArgumentException {
+        checkShardCount(shardCount);
+        if (rangeSize < 1) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid range size %d. Range size must be positive", rangeSize)
+            );
+        }
+        return new ShardedRecordSystem(shardCount, id -> Math.min(Math.max(id - 1, 0) / rangeSize, shardCount - 1));
+    }
+    private static void checkShardCount(int shardCount) throws IllegalArgumentException {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid shard count %d. Shard count must be positive", shardCount)
+            );
+        }
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+    public int shardOf(int id) {
+        return router.applyAsInt(id);
+    }
+    // For per-shard reads such as statistics(), metrics() or the indexed queries.
+    public RecordSystem shard(int index) throws IllegalArgumentException {
+        if (index < 0 || index >= shards.length) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid shard %d. Shard must be between 0 and %d", index, shards.length - 1)
+            );
+        }
+        return shards[index];
+    }
+    private RecordSystem shardFor(int id) {
+        return shards[router.applyAsInt(id)];
+    }
+
+    public int size() {
+        int size = 0;
+        for (RecordSystem shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    public void add(@NotNull Student student) throws IllegalArgumentException {
+        shardFor(student.getId()).add(student);
+    }
+    public Status tryAdd(@NotNull Student student) {
+        return shardFor(student.getId()).tryAdd(student);
+    }
+
+    public void delete(int id) throws IllegalArgumentException {
+        shardFor(id).delete(id);
+    }
+    public Status tryDelete(int id) {
+        return shardFor(id).tryDelete(id);
+    }
+
+    public void updateName(int id, String newName) throws IllegalArgumentException {
+        shardFor(id).updateName(id, newName);
+    }
+    public Status tryUpdateName(int id, String newName) {
+        return shardFor(id).tryUpdateName(id, newName);
+    }
+
+    public void updateGrade(int id, float newGrade) throws IllegalArgumentException {
+        shardFor(id).updateGrade(id, newGrade);
+    }
+    public Status tryUpdateGrade(int id, float newGrade) {
+        return shardFor(id).tryUpdateGrade(id, newGrade);
+    }
+
+    public void updateId(int id, int newId) throws IllegalArgumentException {
+        Status status = tryUpdateId(id, newId);
+        if (status != Status.OK) {
+            throw RecordSystem.rejection(status, id, newId, null, 0);
+        }
+    }
+    // Shards are always locked in index order, so moves in opposite directions cannot deadlock.
+    public Status tryUpdateId(int id, int newId) {
+        int source = router.applyAsInt(id);
+        int target = router.applyAsInt(newId);
+        if (source == target) {
+            return shards[source].tryUpdateId(id, newId);
+        }
+        return shards[source].tryMoveTo(id, newId, shards[target], source < target);
+    }
+
+    // Holds every shard's read locks, in index order, so no move between shards is seen half done.
+    public HashMap<Integer, Student> getStudents() {
+        HashMap<Integer, Student> students = new HashMap<>();
+        for (RecordSystem shard : shards) {
+            shard.locks().lockAllShared();
+        }
+        try {
+            for (RecordSystem shard : shards) {
+                students.putAll(shard.getStudents());
+            }
+        } finally {
+            for (int i = shards.length - 1; i >= 0; i--) {
+                shards[i].locks().unlockAllShared();
+            }
+        }
+        return students;
+    }
+
+    // Writes fileName-<shard>-of-<count>.txt for every shard, empty for an empty shard. Every shard is snapshotted
+    // while all their read locks are held, in index order as in getStudents, so the files together are one
+    // consistent roster and a move between shards is in exactly one of them. The files are written after the locks
+    // are released.
+    public void save(String fileName) throws IOException, IllegalArgumentException {
+        if (size() == 0) {
+            throw new IOException("Student File System is empty");
+        }
+        RecordSystem.checkFileName(fileName);
+        RosterSnapshot[] snapshots = new RosterSnapshot[shards.length];
+        for (RecordSystem shard : shards) {
+            shard.locks().lockAllShared();
+        }
+        try {
+            for (int shard = 0; shard < shards.length; shard++) {
+                snapshots[shard] = shards[shard].snapshot();
+            }
+        } finally {
+            for (int i = shards.length - 1; i >= 0; i--) {
+                shards[i].locks().unlockAllShared();
+            }
+        }
+        inParallel(shard -> {
+            Path file = Path.of(shardFileName(fileName, shard) + ".txt");
+            if (snapshots[shard].size() == 0) {
+                Files.write(file, new byte[0]);
+                return;
+            }
+            try (RecordFileWriter writer = new RecordFileWriter(file)) {
+                snapshots[shard].forEach((id, name, grade) -> {
+                    try {
+                        writer.write(id, name, grade);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                writer.commit();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        });
+    }
+    // Reads every shard file at once. Records are routed by id rather than by the file they are in, so files saved
+    // with a different partitioning still load correctly as long as the shard count matches.
+    public void load(String fileName) throws IOException, IllegalArgumentException {
+        RecordSystem.checkFileName(fileName);
+        for (int shard = 0; shard < shards.length; shard++) {
+            File file = new File(shardFileName(fileName, shard) + ".txt");
+            if (!file.exists()) {
+                throw new FileNotFoundException("File " + file.getName() + " is missing");
+            }
+        }
+        inParallel(shard -> {
+            try (RecordFileReader reader = new RecordFileReader(Path.of(shardFileName(fileName, shard) + ".txt"))) {
+                reader.read((id, name, grade) -> shardFor(id).putRecord(id, name, grade), (read, total, records) -> {});
+            }
+        });
+    }
+
+    private String shardFileName(String fileName, int shard) {
+        return fileName + "-" + shard + "-of-" + shards.length;
+    }
+
+    // Runs the task for every shard on its own thread and waits for all of them, then throws the first failure.
+    private void inParallel(ShardTask task) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(shards.length);
+        try {
+            List<Future<?>> futures = new ArrayList<>(shards.length);
+            for (int i = 0; i < shards.length; i++) {
+                int shard = i;
+                futures.add(pool.submit(() -> {
+                    task.run(shard);
+                    return null;
+                }));
+            }
+            Throwable failure = null;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    failure = failure == null ? e.getCause() : failure;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for shards");
+                }
+            }
+            if (failure instanceof IOException e) {
+                throw e;
+            }
+            if (failure instanceof RuntimeException e) {
+                throw e;
+            }
+            if (failure instanceof Error e) {
+                throw e;
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
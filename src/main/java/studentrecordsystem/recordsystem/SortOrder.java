@@ -0,0 +1,11 @@
+package studentrecordsystem.recordsystem;
+
+/**
+ * Row order for {@link RecordSystem#render}. Ties in name or grade are broken by ascending id.
+ */
+public enum SortOrder {
+    ID,
+    NAME,
+    GRADE,
+    GRADE_DESCENDING
+}
@@ -0,0 +1,17 @@
+package studentrecordsystem.recordsystem;
+
+/**
+ * Outcome of validating or applying a single record system operation.
+ */
+public enum Status {
+    OK,
+    INVALID_ID,
+    INVALID_NEW_ID,
+    INVALID_NAME,
+    INVALID_GRADE,
+    ALREADY_EXISTS,
+    NOT_FOUND,
+    NEW_ID_EXISTS,
+    DUPLICATE_IN_BATCH,
+    NAME_TOO_LONG
+}
@@ -0,0 +1,101 @@
+package studentrecordsystem.recordsystem;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Read-write locks striped by student id. Mutations of one id take the write lock of its stripe, so operations on
+ * ids in different stripes run in parallel, and whole-roster reads take every read lock to see a consistent view.
+ * A {@link #none} instance with no stripes is used by single-threaded record systems and makes every call a no-op.
+ */
+final class StripedLocks {
+    final static StripedLocks none = new StripedLocks();
+
+    private final ReentrantReadWriteLock[] stripes;
+
+    private StripedLocks() {
+        stripes = null;
+    }
+    StripedLocks(int stripeCount) {
+        stripes = new ReentrantReadWriteLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    static int stripeOf(int id, int stripeCount) {
+        return ((id * 0x85EBCA6B) >>> 16) & (stripeCount - 1);
+    }
+
+    void lock(int id) {
+        if (stripes != null) {
+            stripes[stripeOf(id, stripes.length)].writeLock().lock();
+        }
+    }
+    void unlock(int id) {
+        if (stripes != null) {
+            stripes[stripeOf(id, stripes.length)].writeLock().unlock();
+        }
+    }
+
+    void lock(int id, int otherId) {
+        if (stripes != null) {
+            int first = stripeOf(id, stripes.length);
+            int second = stripeOf(otherId, stripes.length);
+            stripes[Math.min(first, second)].writeLock().lock();
+            if (first != second) {
+                stripes[Math.max(first, second)].writeLock().lock();
+            }
+        }
+    }
+    void unlock(int id, int otherId) {
+        if (stripes != null) {
+            int first = stripeOf(id, stripes.length);
+            int second = stripeOf(otherId, stripes.length);
+            if (first != second) {
+                stripes[Math.max(first, second)].writeLock().unlock();
+            }
+            stripes[Math.min(first, second)].writeLock().unlock();
+        }
+    }
+
+    void lockShared(int id) {
+        if (stripes != null) {
+            stripes[stripeOf(id, stripes.length)].readLock().lock();
+        }
+    }
+    void unlockShared(int id) {
+        if (stripes != null) {
+            stripes[stripeOf(id, stripes.length)].readLock().unlock();
+        }
+    }
+
+    void lockAllShared() {
+        if (stripes != null) {
+            for (ReentrantReadWriteLock stripe : stripes) {
+                stripe.readLock().lock();
+            }
+        }
+    }
+    void unlockAllShared() {
+        if (stripes != null) {
+            for (int i = stripes.length - 1; i >= 0; i--) {
+                stripes[i].readLock().unlock();
+            }
+        }
+    }
+
+    void lockAll() {
+        if (stripes != null) {
+            for (ReentrantReadWriteLock stripe : stripes) {
+                stripe.writeLock().lock();
+            }
+        }
+    }
+    void unlockAll() {
+        if (stripes != null) {
+            for (int i = stripes.length - 1; i >= 0; i--) {
+                stripes[i].writeLock().unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package studentrecordsystem.recordsystem;
+
+import org.jetbrains.annotations.NotNull;
+import studentrecordsystem.student.Student;
+
+/**
+ * Store split into a power of two independent {@link ColumnarStudentStore} stripes using the same id to stripe mapping as
+ * {@link StripedLocks}. Operations on ids of different stripes never touch the same arrays, so a record system
+ * holding the matching stripe locks can run them in parallel.
+ */
+final class StripedStudentStore implements StudentStore {
+    private final ColumnarStudentStore[] stripes;
+
+    StripedStudentStore(int stripeCount) {
+        stripes = new ColumnarStudentStore[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ColumnarStudentStore();
+        }
+    }
+
+    private ColumnarStudentStore stripe(int id) {
+        return stripes[StripedLocks.stripeOf(id, stripes.length)];
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (ColumnarStudentStore stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return stripe(id).contains(id);
+    }
+
+    @Override
+    public Student get(int id) {
+        return stripe(id).get(id);
+    }
+
+    @Override
+    public boolean insert(int id, @NotNull String name, float grade) {
+        return stripe(id).insert(id, name, grade);
+    }
+
+    @Override
+    public Student put(int id, @NotNull String name, float grade) {
+        return stripe(id).put(id, name, grade);
+    }
+
+    @Override
+    public Student remove(int id) {
+        return stripe(id).remove(id);
+    }
+
+    @Override
+    public String setName(int id, @NotNull String name) {
+        return stripe(id).setName(id, name);
+    }
+
+    @Override
+    public float setGrade(int id, float grade) {
+        return stripe(id).setGrade(id, grade);
+    }
+
+    @Override
+    public boolean move(int id, int newId) {
+        ColumnarStudentStore from = stripe(id);
+        ColumnarStudentStore to = stripe(newId);
+        if (from == to) {
+            return from.move(id, newId);
+        }
+        if (!from.contains(id) || to.contains(newId)) {
+            return false;
+        }
+        Student student = from.remove(id);
+        to.insert(newId, student.getName(), student.getGrade());
+        return true;
+    }
+
+    @Override
+    public void forEach(@NotNull Visitor visitor) {
+        for (ColumnarStudentStore stripe : stripes) {
+            stripe.forEach(visitor);
+        }
+    }
+
+    @Override
+    public void ensureCapacity(int capacity) {
+        int perStripe = capacity / stripes.length + 1;
+        for (ColumnarStudentStore stripe : stripes) {
+            stripe.ensureCapacity(perStripe);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package studentrecordsystem.recordsystem;
+
+import org.jetbrains.annotations.NotNull;
+import studentrecordsystem.student.Student;
+
+/**
+ * Storage engine behind a {@link RecordSystem}. A store only keeps records, all validation of ids, names and grades
+ * is done by the record system before a store is called.
+ * Implementations are not required to be thread-safe.
+ */
+public interface StudentStore {
+    @FunctionalInterface
+    interface Visitor {
+        void visit(int id, String name, float grade);
+    }
+
+    int size();
+    boolean contains(int id);
+    Student get(int id);
+
+    boolean insert(int id, @NotNull String name, float grade);
+    Student put(int id, @NotNull String name, float grade);
+    Student remove(int id);
+
+    String setName(int id, @NotNull String name);
+    float setGrade(int id, float grade);
+    boolean move(int id, int newId);
+
+    void forEach(@NotNull Visitor visitor);
+    void ensureCapacity(int capacity);
+}
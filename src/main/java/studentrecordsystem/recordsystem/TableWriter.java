@@ -0,0 +1,79 @@
+package studentrecordsystem.recordsystem;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Writes the record table to an {@link Appendable} through a single {@link StringBuilder}, formatting rows by hand
+ * with the same layout as {@code "|%1$-15d|%2$-70s|%3$.2f|\n"}. The buffer is handed to the sink whenever it passes
+ * {@code flushThreshold} characters and once more on {@link #flush()}.
+ */
+final class TableWriter {
+    private final static int idWidth = 15;
+    private final static int nameWidth = 70;
+    private final static int flushThreshold = 1 << 16;
+    private final static double maxFastGrade = 1e15;
+
+    private final Appendable out;
+    private final StringBuilder buffer = new StringBuilder(4096);
+
+    TableWriter(Appendable out) {
+        this.out = out;
+    }
+
+    void text(String text) throws IOException {
+        buffer.append(text);
+        flushIfFull();
+    }
+
+    void row(int id, String name, float grade) throws IOException {
+        buffer.append('|');
+        int start = buffer.length();
+        buffer.append(id);
+        pad(start, idWidth);
+        buffer.append('|');
+        start = buffer.length();
+        buffer.append(name);
+        pad(start, nameWidth);
+        buffer.append('|');
+        appendGrade(grade);
+        buffer.append("|\n");
+        flushIfFull();
+    }
+
+    void flush() throws IOException {
+        out.append(buffer);
+        buffer.setLength(0);
+    }
+
+    private void flushIfFull() throws IOException {
+        if (buffer.length() >= flushThreshold) {
+            flush();
+        }
+    }
+
+    private void pad(int start, int width) {
+        for (int i = buffer.length() - start; i < width; i++) {
+            buffer.append(' ');
+        }
+    }
+
+    // Two decimals rounded half up, as %.2f prints a float.
+    private void appendGrade(float grade) {
+        double value = grade;
+        if (!(Math.abs(value) < maxFastGrade)) {
+            buffer.append(String.format(Locale.ROOT, "%.2f", grade));
+            return;
+        }
+        if (Double.compare(value, 0.0) < 0) {
+            buffer.append('-');
+        }
+        long hundredths = Math.round(Math.abs(value) * 100);
+        buffer.append(hundredths / 100).append('.');
+        long fraction = hundredths % 100;
+        if (fraction < 10) {
+            buffer.append('0');
+        }
+        buffer.append(fraction);
+    }
+}
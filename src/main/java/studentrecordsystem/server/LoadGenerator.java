@@ -0,0 +1,169 @@
+package studentrecordsystem.server;
+
+import org.jetbrains.annotations.NotNull;
+import studentrecordsystem.recordsystem.LatencyHistogram;
+import studentrecordsystem.recordsystem.Status;
+import studentrecordsystem.student.Student;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives a {@link RecordServer} from several connections, each on a virtual thread, and reports requests per second
+ * and latency percentiles. Every connection sends rounds of {@code pipelineDepth} requests before reading their
+ * responses; a request's latency runs from the flush of its round to the arrival of its response. The mix is 90%
+ * gets and 10% grade updates over ids 1 to {@code idRange}, which {@link #populate} fills in beforehand.
+ */
+public final class LoadGenerator {
+    public final static class Report {
+        private final long requests;
+        private final long errors;
+        private final long elapsedNanos;
+        private final LatencyHistogram latency;
+
+        private Report(long requests, long errors, long elapsedNanos, LatencyHistogram latency) {
+            this.requests = requests;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            this.latency = latency;
+        }
+
+        public long requests() {
+            return requests;
+        }
+        // Responses with any status but OK.
+        public long errors() {
+            return errors;
+        }
+        public double requestsPerSecond() {
+            return requests * 1e9 / elapsedNanos;
+        }
+        public LatencyHistogram latency() {
+            return latency;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    Locale.ROOT,
+                    "%d requests (%d errors) in %.1f s: %.0f requests/s, latency p50 %.1f us, p99 %.1f us, "
+                            + "p99.9 %.1f us, max %.1f us",
+                    requests, errors, elapsedNanos / 1e9, requestsPerSecond(),
+                    latency.valueAtPercentile(50) / 1e3, latency.valueAtPercentile(99) / 1e3,
+                    latency.valueAtPercentile(99.9) / 1e3, latency.max() / 1e3
+            );
+        }
+    }
+
+    private final static int populateBatch = 1024;
+    private final static int updatePercent = 10;
+
+    private LoadGenerator() {}
+
+    // Adds students 1 to idRange, skipping ids that already exist.
+    public static void populate(@NotNull String host, int port, int idRange) throws IOException {
+        try (RecordClient client = new RecordClient(host, port)) {
+            for (int first = 1; first <= idRange; first += populateBatch) {
+                int last = Math.min(idRange, first + populateBatch - 1);
+                for (int id = first; id <= last; id++) {
+                    client.sendAdd(new Student("Student", id, id % 101));
+                }
+                client.flush();
+                for (int id = first; id <= last; id++) {
+                    Status status = client.receive().status();
+                    if (status != Status.OK && status != Status.ALREADY_EXISTS) {
+                        throw new IOException(String.format("Could not add student %d: %s", id, status));
+                    }
+                }
+            }
+        }
+    }
+
+    public static Report run(
+            @NotNull String host,
+            int port,
+            int connections,
+            int pipelineDepth,
+            int idRange,
+            @NotNull Duration duration
+    ) throws IOException, IllegalArgumentException {
+        if (connections < 1 || pipelineDepth < 1 || idRange < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid load of %d connections, pipeline depth %d, id range %d. All must be positive",
+                    connections, pipelineDepth, idRange
+            ));
+        }
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder requests = new LongAdder();
+        LongAdder errors = new LongAdder();
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(connections);
+            for (int c = 0; c < connections; c++) {
+                long seed = c;
+                futures.add(pool.submit(() -> {
+                    drive(host, port, pipelineDepth, idRange, deadline, new SplittableRandom(seed), latency, requests,
+                            errors);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating load", e);
+        }
+        return new Report(requests.sum(), errors.sum(), System.nanoTime() - start, latency);
+    }
+
+    private static void drive(
+            String host,
+            int port,
+            int pipelineDepth,
+            int idRange,
+            long deadline,
+            SplittableRandom random,
+            LatencyHistogram latency,
+            LongAdder requests,
+            LongAdder errors
+    ) throws IOException {
+        try (RecordClient client = new RecordClient(host, port)) {
+            while (System.nanoTime() < deadline) {
+                for (int i = 0; i < pipelineDepth; i++) {
+                    int id = 1 + random.nextInt(idRange);
+                    if (random.nextInt(100) < updatePercent) {
+                        client.sendUpdateGrade(id, random.nextInt(101));
+                    } else {
+                        client.sendGet(id);
+                    }
+                }
+                long sent = System.nanoTime();
+                client.flush();
+                for (int i = 0; i < pipelineDepth; i++) {
+                    if (client.receive().status() != Status.OK) {
+                        errors.increment();
+                    }
+                    latency.record(System.nanoTime() - sent);
+                }
+                requests.add(pipelineDepth);
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package studentrecordsystem.server;
+
+import studentrecordsystem.recordsystem.Status;
+import studentrecordsystem.student.Student;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Wire format shared by {@link RecordServer} and {@link RecordClient}. A request is an opcode byte followed by its
+ * fixed fields, big-endian, with names as {@link DataOutputStream#writeUTF(String)} strings:
+ * <pre>
+ * ADD                    id:int grade:float name:utf
+ * GET                    id:int
+ * UPDATE_NAME            id:int name:utf
+ * UPDATE_GRADE           id:int grade:float
+ * UPDATE_ID              id:int newId:int
+ * DELETE                 id:int
+ * FIND_BY_GRADE_RANGE    min:float max:float limit:int
+ * </pre>
+ * Every response is a {@link Status} ordinal byte, a student count and that many {@code id:int grade:float name:utf}
+ * records. Responses come back in request order, so a client may send any number of requests before reading.
+ */
+final class Protocol {
+    final static byte add = 1;
+    final static byte get = 2;
+    final static byte updateName = 3;
+    final static byte updateGrade = 4;
+    final static byte updateId = 5;
+    final static byte delete = 6;
+    final static byte findByGradeRange = 7;
+
+    final static int bufferSize = 1 << 16;
+    private final static int maxUtfLength = 65535;
+
+    private final static Status[] statuses = Status.values();
+
+    private Protocol() {}
+
+    static void writeStudent(DataOutputStream out, Student student) throws IOException {
+        out.writeInt(student.getId());
+        out.writeFloat(student.getGrade());
+        out.writeUTF(student.getName());
+    }
+
+    // Whether writeUTF can encode the name: its modified UTF-8 form must fit in 65535 bytes.
+    static boolean fitsUtf(String name) {
+        int length = name.length();
+        if (length <= maxUtfLength / 3) {
+            return true;
+        }
+        if (length > maxUtfLength) {
+            return false;
+        }
+        int bytes = 0;
+        for (int i = 0; i < length; i++) {
+            char c = name.charAt(i);
+            bytes += c >= 0x0001 && c <= 0x007F ? 1 : c <= 0x07FF ? 2 : 3;
+        }
+        return bytes <= maxUtfLength;
+    }
+
+    static Student readStudent(DataInputStream in) throws IOException {
+        int id = in.readInt();
+        float grade = in.readFloat();
+        return new Student(in.readUTF(), id, grade);
+    }
+
+    static Status status(int ordinal) throws IOException {
+        if (ordinal < 0 || ordinal >= statuses.length) {
+            throw new IOException(String.format("Invalid status %d in response", ordinal));
+        }
+        return statuses[ordinal];
+    }
+}
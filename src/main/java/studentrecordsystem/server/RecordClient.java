@@ -0,0 +1,146 @@
+package studentrecordsystem.server;
+
+import org.jetbrains.annotations.NotNull;
+import studentrecordsystem.recordsystem.Status;
+import studentrecordsystem.student.Student;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Client for a {@link RecordServer}. The {@code try*}, {@link #get(int)} and {@link #findByGradeRange} calls send
+ * one request and wait for its response. For pipelining, queue any number of requests with the {@code send*}
+ * methods, {@link #flush()} them, then call {@link #receive()} once per request to read the responses in order.
+ * Keep the number of unread responses bounded: the server stops reading requests while its responses are not read.
+ * Not thread-safe; use one client per thread.
+ */
+public final class RecordClient implements Closeable {
+    public final static class Response {
+        private final Status status;
+        private final List<Student> students;
+
+        private Response(Status status, List<Student> students) {
+            this.status = status;
+            this.students = students;
+        }
+
+        public Status status() {
+            return status;
+        }
+        public List<Student> students() {
+            return students;
+        }
+    }
+
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+
+    public RecordClient(@NotNull String host, int port) throws IOException {
+        socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), Protocol.bufferSize));
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), Protocol.bufferSize));
+    }
+
+    public void sendAdd(@NotNull Student student) throws IOException {
+        out.writeByte(Protocol.add);
+        out.writeInt(student.getId());
+        out.writeFloat(student.getGrade());
+        out.writeUTF(student.getName());
+    }
+    public void sendGet(int id) throws IOException {
+        out.writeByte(Protocol.get);
+        out.writeInt(id);
+    }
+    public void sendUpdateName(int id, @NotNull String newName) throws IOException {
+        out.writeByte(Protocol.updateName);
+        out.writeInt(id);
+        out.writeUTF(newName);
+    }
+    public void sendUpdateGrade(int id, float newGrade) throws IOException {
+        out.writeByte(Protocol.updateGrade);
+        out.writeInt(id);
+        out.writeFloat(newGrade);
+    }
+    public void sendUpdateId(int id, int newId) throws IOException {
+        out.writeByte(Protocol.updateId);
+        out.writeInt(id);
+        out.writeInt(newId);
+    }
+    public void sendDelete(int id) throws IOException {
+        out.writeByte(Protocol.delete);
+        out.writeInt(id);
+    }
+    public void sendFindByGradeRange(float minGrade, float maxGrade, int limit) throws IOException {
+        out.writeByte(Protocol.findByGradeRange);
+        out.writeFloat(minGrade);
+        out.writeFloat(maxGrade);
+        out.writeInt(limit);
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    public Response receive() throws IOException {
+        Status status = Protocol.status(in.readUnsignedByte());
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException(String.format("Invalid student count %d in response", count));
+        }
+        List<Student> students = count == 0 ? List.of() : new ArrayList<>(Math.min(count, 1024));
+        for (int i = 0; i < count; i++) {
+            students.add(Protocol.readStudent(in));
+        }
+        return new Response(status, students);
+    }
+
+    public Status tryAdd(@NotNull Student student) throws IOException {
+        sendAdd(student);
+        return call().status();
+    }
+    // Null if there is no student with the id.
+    public Student get(int id) throws IOException {
+        sendGet(id);
+        Response response = call();
+        return response.students().isEmpty() ? null : response.students().get(0);
+    }
+    public Status tryUpdateName(int id, @NotNull String newName) throws IOException {
+        sendUpdateName(id, newName);
+        return call().status();
+    }
+    public Status tryUpdateGrade(int id, float newGrade) throws IOException {
+        sendUpdateGrade(id, newGrade);
+        return call().status();
+    }
+    public Status tryUpdateId(int id, int newId) throws IOException {
+        sendUpdateId(id, newId);
+        return call().status();
+    }
+    public Status tryDelete(int id) throws IOException {
+        sendDelete(id);
+        return call().status();
+    }
+    public List<Student> findByGradeRange(float minGrade, float maxGrade, int limit) throws IOException {
+        sendFindByGradeRange(minGrade, maxGrade, limit);
+        return call().students();
+    }
+
+    private Response call() throws IOException {
+        flush();
+        return receive();
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,177 @@
+package studentrecordsystem.server;
+
+import org.jetbrains.annotations.NotNull;
+import studentrecordsystem.recordsystem.RecordSystem;
+import studentrecordsystem.recordsystem.Status;
+import studentrecordsystem.student.Student;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves a thread-safe {@link RecordSystem} over the {@link Protocol} on a loopback socket. Every connection runs
+ * on its own virtual thread with plain blocking reads and writes. Responses are buffered and only flushed once every
+ * request already received on the connection has been answered, so a pipelining client gets its responses in
+ * batches rather than a write per request.
+ */
+public final class RecordServer implements Closeable {
+    private final static int backlog = 1024;
+
+    private final RecordSystem records;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+    private final Thread acceptor;
+
+    private RecordServer(RecordSystem records, ServerSocket serverSocket) {
+        this.records = records;
+        this.serverSocket = serverSocket;
+        acceptor = Thread.ofVirtual().name("record-server-acceptor").unstarted(this::accept);
+    }
+
+    // Port 0 picks any free port; see port().
+    public static RecordServer start(@NotNull RecordSystem records, int port)
+            throws IOException, IllegalArgumentException {
+        if (!records.isConcurrent()) {
+            throw new IllegalArgumentException(
+                    "Record system is not thread-safe, use RecordSystem.concurrent or RecordSystem.versioned"
+            );
+        }
+        if (port < 0 || port > 0xFFFF) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid port %d. Port must be between 0 and %d", port, 0xFFFF)
+            );
+        }
+        RecordServer server = new RecordServer(
+                records, new ServerSocket(port, backlog, InetAddress.getLoopbackAddress())
+        );
+        server.acceptor.start();
+        return server;
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    // Blocks until the server is closed.
+    public void awaitClose() throws InterruptedException {
+        acceptor.join();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket socket : openSockets) {
+            socket.close();
+        }
+        connections.shutdown();
+        try {
+            acceptor.join();
+            connections.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                openSockets.add(socket);
+                connections.execute(() -> serve(socket));
+            } catch (IOException e) {
+                // The socket was closed by close(), or the accept failed and the loop retries.
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(socket.getInputStream(), Protocol.bufferSize)
+            );
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(socket.getOutputStream(), Protocol.bufferSize)
+            );
+            int opcode;
+            while ((opcode = in.read()) >= 0) {
+                handle(opcode, in, out);
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (EOFException e) {
+            // The client closed the connection in the middle of a request.
+        } catch (IOException e) {
+            // The connection failed, or close() closed it; either way there is nobody left to answer.
+        } finally {
+            openSockets.remove(socket);
+        }
+    }
+
+    private void handle(int opcode, DataInputStream in, DataOutputStream out) throws IOException {
+        switch (opcode) {
+            case Protocol.add -> {
+                int id = in.readInt();
+                float grade = in.readFloat();
+                respond(out, records.tryAdd(new Student(in.readUTF(), id, grade)));
+            }
+            case Protocol.get -> {
+                Student student = records.get(in.readInt());
+                if (student == null) {
+                    respond(out, Status.NOT_FOUND);
+                } else {
+                    respond(out, Status.OK, List.of(student));
+                }
+            }
+            case Protocol.updateName -> {
+                int id = in.readInt();
+                respond(out, records.tryUpdateName(id, in.readUTF()));
+            }
+            case Protocol.updateGrade -> respond(out, records.tryUpdateGrade(in.readInt(), in.readFloat()));
+            case Protocol.updateId -> respond(out, records.tryUpdateId(in.readInt(), in.readInt()));
+            case Protocol.delete -> respond(out, records.tryDelete(in.readInt()));
+            case Protocol.findByGradeRange -> {
+                float min = in.readFloat();
+                float max = in.readFloat();
+                int limit = in.readInt();
+                respond(out, Status.OK, records.findByGradeRange(min, max, Math.max(0, limit)));
+            }
+            default -> throw new IOException(String.format("Unknown opcode %d", opcode));
+        }
+    }
+
+    private static void respond(DataOutputStream out, Status status) throws IOException {
+        respond(out, status, List.of());
+    }
+    private static void respond(DataOutputStream out, Status status, List<Student> students) throws IOException {
+        // Checked before anything is written: writeUTF would throw halfway through the response and drop the
+        // connection. Only a store filled without validation can hold such a name.
+        for (Student student : students) {
+            if (!Protocol.fitsUtf(student.getName())) {
+                respond(out, Status.NAME_TOO_LONG);
+                return;
+            }
+        }
+        out.writeByte(status.ordinal());
+        out.writeInt(students.size());
+        for (Student student : students) {
+            Protocol.writeStudent(out, student);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package studentrecordsystem.recordsystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import studentrecordsystem.student.Student;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncRecordSystemTest {
+    private static String rejection(CompletableFuture<?> future) {
+        CompletionException e = assertThrows(CompletionException.class, future::join);
+        assertInstanceOf(IllegalArgumentException.class, e.getCause());
+        return e.getCause().getMessage();
+    }
+
+
+    @Test
+    void testAppliesCommandsInOrder() {
+        RecordSystem sys = new RecordSystem();
+        try (AsyncRecordSystem async = AsyncRecordSystem.start(sys, 16)) {
+            async.add(new Student("John Doe", 1, 75));
+            async.updateName(1, "Jane Doe");
+            async.updateGrade(1, 80);
+            async.updateId(1, 2);
+            assertEquals(new Student("Jane Doe", 2, 80), async.get(2).join());
+            assertNull(async.get(1).join());
+            async.delete(2).join();
+            assertNull(async.get(2).join());
+        }
+        assertTrue(sys.getStudents().isEmpty());
+    }
+    @ParameterizedTest
+    @CsvSource({
+            "0, John, 75, Invalid ID 0. ID must be a positive integer",
+            "2, John2, 75, Invalid new name John2. New name must contain alphabetic characters and spaces only",
+            "2, John, 101, Invalid new grade 101.000000. New grade must be between 0 and 100 (inclusive)",
+            "1, John, 75, Student already exists in the system"
+    })
+    void testRejectsAddLikeSynchronousAdd(int id, String name, float grade, String expectedMessage) {
+        RecordSystem sys = new RecordSystem();
+        sys.add(new Student("John Doe", 1, 75));
+        try (AsyncRecordSystem async = AsyncRecordSystem.start(sys, 16)) {
+            assertEquals(expectedMessage, rejection(async.add(new Student(name, id, grade))));
+        }
+        IllegalArgumentException e = assertThrows(
+                IllegalArgumentException.class, () -> sys.add(new Student(name, id, grade))
+        );
+        assertEquals(expectedMessage, e.getMessage());
+    }
+    @Test
+    void testRejectsUpdatesLikeSynchronousUpdates() {
+        RecordSystem sys = new RecordSystem();
+        sys.add(new Student("John Doe", 1, 75));
+        sys.add(new Student("Jane Doe", 2, 80));
+        try (AsyncRecordSystem async = AsyncRecordSystem.start(sys, 16)) {
+            assertEquals("Student with id 3 does not exist in the system", rejection(async.delete(3)));
+            assertEquals("New ID: 2 already exists in the system", rejection(async.updateId(1, 2)));
+            assertEquals("Invalid new ID -1. New ID must be a positive integer", rejection(async.updateId(1, -1)));
+            assertEquals(
+                    "Invalid new grade -1.000000. New grade must be between 0 and 100 (inclusive)",
+                    rejection(async.updateGrade(1, -1))
+            );
+            async.updateGrade(1, 90).join();
+        }
+        assertEquals(90, sys.get(1).getGrade());
+    }
+    @Test
+    void testAppliesCommandsFromManyThreads() throws Exception {
+        RecordSystem sys = new RecordSystem();
+        int threads = 4;
+        int perThread = 20000;
+        AsyncRecordSystem async = AsyncRecordSystem.start(sys, 1024);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> submitters = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int first = t * perThread + 1;
+                submitters.add(executor.submit(() -> {
+                    CompletableFuture<Void> last = null;
+                    for (int id = first; id < first + perThread; id++) {
+                        async.add(new Student("Student", id, 50));
+                        last = async.updateGrade(id, id % 101);
+                    }
+                    last.join();
+                    return null;
+                }));
+            }
+            for (Future<?> submitter : submitters) {
+                submitter.get();
+            }
+        } finally {
+            executor.shutdown();
+            async.close();
+        }
+
+        assertEquals(threads * perThread, sys.getStudents().size());
+        for (Student student : sys.getStudents().values()) {
+            assertEquals(student.getId() % 101, student.getGrade());
+        }
+        assertTrue(async.batches() < threads * perThread * 2);
+    }
+    @Test
+    void testCompletesEachCommandOfALoneProducer() throws Exception {
+        RecordSystem sys = new RecordSystem();
+        try (AsyncRecordSystem async = AsyncRecordSystem.start(sys, 16)) {
+            // One command at a time lets the writer park between commands, so a lost wake-up would hang a future.
+            for (int id = 1; id <= 20000; id++) {
+                async.add(new Student("Student", id, 50)).get(5, TimeUnit.SECONDS);
+                if (id % 1000 == 0) {
+                    Thread.sleep(1);
+                }
+            }
+        }
+        assertEquals(20000, sys.getStudents().size());
+    }
+    @Test
+    void testSmallRingAppliesBackpressure() {
+        RecordSystem sys = new RecordSystem();
+        try (AsyncRecordSystem async = AsyncRecordSystem.start(sys, 2)) {
+            CompletableFuture<Void> last = null;
+            for (int id = 1; id <= 1000; id++) {
+                last = async.add(new Student("Student", id, 50));
+                assertTrue(async.pending() <= 2);
+            }
+            last.join();
+        }
+        assertEquals(1000, sys.getStudents().size());
+    }
+    @Test
+    void testCloseAppliesSubmittedCommands() {
+        RecordSystem sys = new RecordSystem();
+        AsyncRecordSystem async = AsyncRecordSystem.start(sys, 64);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int id = 1; id <= 500; id++) {
+            futures.add(async.add(new Student("Student", id, 50)));
+        }
+        async.close();
+
+        for (CompletableFuture<Void> future : futures) {
+            assertTrue(future.isDone() && !future.isCompletedExceptionally());
+        }
+        assertEquals(500, sys.getStudents().size());
+        assertEquals(0, async.pending());
+        CompletionException e = assertThrows(CompletionException.class, () -> async.delete(1).join());
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertEquals("Record system is closed", e.getCause().getMessage());
+    }
+    @ParameterizedTest
+    @CsvSource({
+            "0", "3", "-4"
+    })
+    void testInvalidCapacity(int capacity) {
+        IllegalArgumentException e = assertThrows(
+                IllegalArgumentException.class, () -> AsyncRecordSystem.start(new RecordSystem(), capacity)
+        );
+        assertEquals(
+                String.format("Invalid capacity %d. Capacity must be a power of two", capacity), e.getMessage()
+        );
+    }
+}
@@ -0,0 +1,178 @@
+package studentrecordsystem.recordsystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import studentrecordsystem.student.Student;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeStreamTest {
+    private static List<String> collect(ChangeStream stream, long fromSequence, int batchSize, List<Integer> sizes) {
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        stream.subscribe(batch -> {
+            sizes.add(batch.size());
+            for (ChangeEvent event : batch) {
+                events.add(event.toString());
+            }
+        }, fromSequence, batchSize);
+        return events;
+    }
+
+
+    @Test
+    void testPublishesEveryChangeInOrder() {
+        RecordSystem sys = new RecordSystem();
+        ChangeStream stream = ChangeStream.open(sys, 16);
+        List<String> events = collect(stream, 0, 256, new ArrayList<>());
+        sys.add(new Student("John Doe", 1, 75));
+        sys.updateName(1, "Jane Doe");
+        sys.updateGrade(1, 80);
+        sys.updateId(1, 2);
+        sys.delete(2);
+        assertThrows(IllegalArgumentException.class, () -> sys.delete(2));
+        stream.close();
+
+        assertEquals(List.of(
+                "0 ADD 1 John Doe 75.0",
+                "1 UPDATE_NAME 1 John Doe -> Jane Doe",
+                "2 UPDATE_GRADE 1 75.0 -> 80.0",
+                "3 UPDATE_ID 1 -> 2",
+                "4 DELETE 2 Jane Doe 80.0"
+        ), events);
+        assertEquals(5, stream.nextSequence());
+    }
+    @Test
+    void testResumesFromSequenceInBatches() {
+        RecordSystem sys = new RecordSystem();
+        ChangeStream stream = ChangeStream.open(sys, 64);
+        for (int id = 1; id <= 40; id++) {
+            sys.add(new Student("Student", id, id));
+        }
+        List<Integer> sizes = Collections.synchronizedList(new ArrayList<>());
+        List<String> events = collect(stream, 25, 10, sizes);
+        stream.close();
+        assertEquals(15, events.size());
+        assertEquals("25 ADD 26 Student 26.0", events.get(0));
+        assertTrue(sizes.stream().allMatch(size -> size <= 10));
+
+        IllegalArgumentException e = assertThrows(
+                IllegalArgumentException.class, () -> stream.subscribe(batch -> {}, 41, 1)
+        );
+        assertEquals("Sequence 41 is not buffered, buffered sequences are 0 to 40", e.getMessage());
+    }
+    @Test
+    void testOldEventsLeaveTheRing() {
+        RecordSystem sys = new RecordSystem();
+        ChangeStream stream = ChangeStream.open(sys, 8);
+        for (int id = 1; id <= 20; id++) {
+            sys.add(new Student("Student", id, id));
+        }
+        IllegalArgumentException e = assertThrows(
+                IllegalArgumentException.class, () -> stream.subscribe(batch -> {}, 11, 1)
+        );
+        assertEquals("Sequence 11 is not buffered, buffered sequences are 12 to 20", e.getMessage());
+        List<String> events = collect(stream, 12, 3, new ArrayList<>());
+        stream.close();
+        assertEquals(8, events.size());
+    }
+    @Test
+    void testSlowSubscriberHoldsBackChanges() throws Exception {
+        RecordSystem sys = RecordSystem.concurrent(4);
+        ChangeStream stream = ChangeStream.open(sys, 4);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        stream.subscribe(batch -> {
+            release.await();
+            batch.forEach(event -> events.add(event.toString()));
+        }, 0, 1);
+
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        Future<?> adds = writer.submit(() -> {
+            for (int id = 1; id <= 10; id++) {
+                sys.add(new Student("Student", id, id));
+            }
+        });
+        Thread.sleep(200);
+        assertFalse(adds.isDone());
+        assertEquals(4, stream.nextSequence());
+
+        release.countDown();
+        adds.get();
+        writer.shutdown();
+        stream.close();
+        assertEquals(10, events.size());
+        assertEquals("9 ADD 10 Student 10.0", events.get(9));
+    }
+    @Test
+    void testFailedSubscriberStopsWithoutBlockingChanges() throws Exception {
+        RecordSystem sys = new RecordSystem();
+        ChangeStream stream = ChangeStream.open(sys, 2);
+        ChangeStream.Subscription subscription = stream.subscribe(batch -> {
+            throw new IllegalStateException("portal is down");
+        });
+        for (int id = 1; id <= 10; id++) {
+            sys.add(new Student("Student", id, id));
+        }
+        stream.close();
+        assertEquals("portal is down", subscription.failure().getMessage());
+        assertEquals(0, subscription.position());
+    }
+    @Test
+    void testConcurrentChangesGetContiguousSequences() throws Exception {
+        RecordSystem sys = RecordSystem.concurrent(16);
+        ChangeStream stream = ChangeStream.open(sys, 128);
+        List<ChangeEvent> events = Collections.synchronizedList(new ArrayList<>());
+        stream.subscribe(events::addAll, 0, 64);
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int first = t * 1000 + 1;
+            futures.add(pool.submit(() -> {
+                for (int id = first; id < first + 1000; id++) {
+                    sys.add(new Student("Student", id, 50));
+                    sys.updateGrade(id, 60);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        stream.close();
+
+        assertEquals(8000, events.size());
+        boolean[] added = new boolean[4001];
+        for (int i = 0; i < events.size(); i++) {
+            ChangeEvent event = events.get(i);
+            assertEquals(i, event.sequence());
+            if (event.type() == ChangeEvent.Type.ADD) {
+                added[event.id()] = true;
+            } else {
+                assertTrue(added[event.id()]);
+            }
+        }
+    }
+    @ParameterizedTest
+    @CsvSource({
+            "0", "3", "-4"
+    })
+    void testInvalidCapacity(int capacity) {
+        IllegalArgumentException e = assertThrows(
+                IllegalArgumentException.class, () -> ChangeStream.open(new RecordSystem(), capacity)
+        );
+        assertEquals(String.format("Invalid capacity %d. Capacity must be a power of two", capacity), e.getMessage());
+        ChangeStream stream = ChangeStream.open(new RecordSystem(), 4);
+        e = assertThrows(IllegalArgumentException.class, () -> stream.subscribe(batch -> {}, 0, 0));
+        assertEquals("Invalid batch size 0. Batch size must be positive", e.getMessage());
+    }
+}
@@ -0,0 +1,274 @@
+package studentrecordsystem.recordsystem;
+
+import org.junit.jupiter.api.Test;
+import studentrecordsystem.student.Student;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentRecordSystemTest {
+    private static final int threads = 8;
+
+    private static String nameFor(int i) {
+        StringBuilder name = new StringBuilder("Student ");
+        do {
+            name.append((char) ('a' + i % 26));
+            i /= 26;
+        } while (i > 0);
+        return name.append('x').toString();
+    }
+
+    private static void runConcurrently(Runnable task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                task.run();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+    }
+
+
+    @Test
+    void testInvalidStripeCount() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> RecordSystem.concurrent(3));
+        assertEquals("Invalid stripe count 3. Stripe count must be a power of two", e.getMessage());
+    }
+
+    @Test
+    void testConcurrentAddOfSameIdSucceedsOnce() throws Exception {
+        RecordSystem sys = RecordSystem.concurrent(16);
+        int ids = 2000;
+        AtomicIntegerArray successes = new AtomicIntegerArray(ids + 1);
+        runConcurrently(() -> {
+            for (int id = 1; id <= ids; id++) {
+                try {
+                    sys.add(new Student(nameFor(id), id, 50));
+                    successes.incrementAndGet(id);
+                } catch (IllegalArgumentException e) {
+                    assertEquals("Student already exists in the system", e.getMessage());
+                }
+            }
+        });
+        for (int id = 1; id <= ids; id++) {
+            assertEquals(1, successes.get(id));
+        }
+        assertEquals(ids, sys.getStudents().size());
+    }
+
+    @Test
+    void testAddAndDeleteAreLinearizablePerId() throws Exception {
+        RecordSystem sys = RecordSystem.concurrent(8);
+        int ids = 64;
+        AtomicIntegerArray adds = new AtomicIntegerArray(ids + 1);
+        AtomicIntegerArray deletes = new AtomicIntegerArray(ids + 1);
+        runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 50000; i++) {
+                int id = 1 + random.nextInt(ids);
+                try {
+                    if (random.nextBoolean()) {
+                        sys.add(new Student(nameFor(id), id, random.nextInt(101)));
+                        adds.incrementAndGet(id);
+                    } else {
+                        sys.delete(id);
+                        deletes.incrementAndGet(id);
+                    }
+                } catch (IllegalArgumentException ignored) {
+                }
+            }
+        });
+        HashMap<Integer, Student> students = sys.getStudents();
+        for (int id = 1; id <= ids; id++) {
+            assertEquals(students.containsKey(id) ? 1 : 0, adds.get(id) - deletes.get(id));
+        }
+    }
+
+    @Test
+    void testConcurrentUpdateIdNeverLosesStudents() throws Exception {
+        RecordSystem sys = RecordSystem.concurrent(4);
+        int students = 500;
+        int idSpace = 1000;
+        for (int id = 1; id <= students; id++) {
+            sys.add(new Student(nameFor(id), id, id % 101));
+        }
+        runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 50000; i++) {
+                int id = 1 + random.nextInt(idSpace);
+                try {
+                    switch (random.nextInt(3)) {
+                        case 0 -> sys.updateId(id, 1 + random.nextInt(idSpace));
+                        case 1 -> sys.updateGrade(id, random.nextInt(101));
+                        default -> sys.updateName(id, nameFor(id));
+                    }
+                } catch (IllegalArgumentException ignored) {
+                }
+            }
+        });
+        HashMap<Integer, Student> result = sys.getStudents();
+        assertEquals(students, result.size());
+        HashSet<Integer> seen = new HashSet<>();
+        for (var entry : result.entrySet()) {
+            assertEquals(entry.getKey(), entry.getValue().getId());
+            assertTrue(seen.add(entry.getKey()));
+        }
+    }
+
+    @Test
+    void testVersionedSnapshotsStayConsistentUnderWrites() throws Exception {
+        RecordSystem sys = RecordSystem.versioned(8);
+        int students = 500;
+        for (int id = 1; id <= students; id++) {
+            sys.add(new Student(nameFor(id), id, 50));
+        }
+        RosterSnapshot before = sys.snapshot();
+        runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 20000; i++) {
+                int id = 1 + random.nextInt(2 * students);
+                try {
+                    if (random.nextInt(4) == 0) {
+                        RosterSnapshot snapshot = sys.snapshot();
+                        int[] seen = {0};
+                        snapshot.forEach((studentId, name, grade) -> seen[0]++);
+                        assertEquals(students, snapshot.size());
+                        assertEquals(students, seen[0]);
+                    } else if (random.nextBoolean()) {
+                        sys.updateId(id, 1 + random.nextInt(2 * students));
+                    } else {
+                        sys.updateGrade(id, random.nextInt(101));
+                    }
+                } catch (IllegalArgumentException ignored) {
+                }
+            }
+        });
+        assertEquals(students, sys.getStudents().size());
+        for (int id = 1; id <= students; id++) {
+            assertEquals(new Student(nameFor(id), id, 50), before.get(id));
+        }
+    }
+    @Test
+    void testStatisticsMatchRosterAfterConcurrentChanges() throws Exception {
+        RecordSystem sys = RecordSystem.concurrent(16);
+        int students = 4000;
+        runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 5000; i++) {
+                int id = 1 + random.nextInt(students);
+                try {
+                    switch (random.nextInt(3)) {
+                        case 0 -> sys.add(new Student(nameFor(id), id, random.nextInt(101)));
+                        case 1 -> sys.delete(id);
+                        default -> sys.updateGrade(id, random.nextInt(101));
+                    }
+                } catch (IllegalArgumentException ignored) {
+                }
+            }
+        });
+        GradeStatistics stats = sys.statistics();
+        float[] grades = new float[sys.getStudents().size()];
+        int i = 0;
+        double sum = 0;
+        for (Student student : sys.getStudents().values()) {
+            grades[i++] = student.getGrade();
+            sum += student.getGrade();
+        }
+        Arrays.sort(grades);
+        assertEquals(grades.length, stats.count());
+        assertEquals(sum / grades.length, stats.mean(), 1e-6);
+        assertEquals(grades[0], stats.min());
+        assertEquals(grades[grades.length - 1], stats.max());
+    }
+    @Test
+    void testIndexesMatchRosterAfterConcurrentChanges() throws Exception {
+        RecordSystem sys = RecordSystem.concurrent(16);
+        int students = 4000;
+        sys.statistics(); // builds the indexes before the writers start
+        runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 5000; i++) {
+                int id = 1 + random.nextInt(students);
+                try {
+                    switch (random.nextInt(5)) {
+                        case 0 -> sys.add(new Student(nameFor(id), id, random.nextInt(101)));
+                        case 1 -> sys.delete(id);
+                        case 2 -> sys.updateName(id, nameFor(id + 1));
+                        case 3 -> sys.updateId(id, 1 + random.nextInt(students));
+                        default -> sys.updateGrade(id, random.nextInt(101));
+                    }
+                } catch (IllegalArgumentException ignored) {
+                }
+                if (i % 500 == 0) {
+                    List<Student> top = sys.topByGrade(10);
+                    for (int j = 1; j < top.size(); j++) {
+                        assertTrue(top.get(j - 1).getGrade() >= top.get(j).getGrade());
+                    }
+                }
+            }
+        });
+        List<Student> expected = new ArrayList<>(sys.getStudents().values());
+        expected.sort(Comparator.comparingDouble(Student::getGrade).thenComparingInt(Student::getId));
+        assertEquals(expected, sys.findByGradeRange(0, 100));
+        Student first = expected.get(0);
+        assertTrue(sys.findByNamePrefix(first.getName()).contains(first));
+    }
+    @Test
+    void testConcurrentEnrollAssignsDistinctIds() throws Exception {
+        RecordSystem sys = RecordSystem.concurrent(16);
+        int perThread = 2000;
+        runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < perThread; i++) {
+                sys.enroll("Student", 50);
+                // Plain adds race the allocator for the same ids.
+                try {
+                    sys.add(new Student("Student", 1 + random.nextInt(threads * perThread), 50));
+                } catch (IllegalArgumentException ignored) {
+                }
+            }
+        });
+        HashMap<Integer, Student> students = sys.getStudents();
+        assertTrue(students.size() >= threads * perThread);
+        for (int id : students.keySet()) {
+            assertTrue(sys.idAllocator().isTaken(id));
+        }
+    }
+    @Test
+    void testVersionedSnapshotSeesBatchAtomically() throws Exception {
+        RecordSystem sys = RecordSystem.versioned(4);
+        List<Student> batch = new ArrayList<>();
+        for (int id = 1; id <= 1000; id++) {
+            batch.add(new Student(nameFor(id), id, 50));
+        }
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        Future<BatchResult> added = writer.submit(() -> sys.addAll(batch));
+        while (!added.isDone()) {
+            int size = sys.snapshot().size();
+            assertTrue(size == 0 || size == batch.size(), String.valueOf(size));
+        }
+        assertTrue(added.get().isApplied());
+        writer.shutdown();
+        assertEquals(batch.size(), sys.snapshot().size());
+    }
+}
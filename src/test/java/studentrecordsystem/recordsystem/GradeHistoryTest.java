@@ -0,0 +1,163 @@
+package studentrecordsystem.recordsystem;
+
+import org.junit.jupiter.api.Test;
+import studentrecordsystem.student.Student;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GradeHistoryTest {
+    @Test
+    void testRecordsOneGradePerTerm() {
+        RecordSystem sys = new RecordSystem();
+        GradeHistory history = GradeHistory.track(sys, 1);
+        sys.add(new Student("John Doe", 1, 60));
+        sys.updateGrade(1, 70);
+        history.advanceTerm(2);
+        sys.updateGrade(1, 80);
+        history.advanceTerm(4);
+        sys.updateGrade(1, 90);
+
+        List<String> entries = new ArrayList<>();
+        history.forEachEntry(1, (term, grade) -> entries.add(term + " " + grade));
+        assertEquals(List.of("1 60.0", "1 70.0", "2 80.0", "4 90.0"), entries);
+        assertEquals(4, history.size());
+        assertEquals(3, history.terms(1));
+        assertEquals(80, history.gpa(1), 1e-5);
+        // Least squares over (0, 70), (1, 80) and (3, 90).
+        assertEquals(90 / 14f, history.trend(1), 1e-5);
+        assertEquals(Float.NaN, history.gradeAt(1, 0));
+        assertEquals(70, history.gradeAt(1, 1));
+        assertEquals(80, history.gradeAt(1, 3));
+        assertEquals(90, history.gradeAt(1, 9));
+    }
+    @Test
+    void testTracksExistingStudentsAndIdChanges() {
+        RecordSystem sys = new RecordSystem();
+        sys.add(new Student("John Doe", 1, 60));
+        sys.add(new Student("Jane Doe", 2, 75));
+        GradeHistory history = GradeHistory.track(sys, 20241);
+        assertEquals(60, history.gpa(1));
+        assertEquals(Float.NaN, history.trend(1));
+
+        history.advanceTerm(20242);
+        sys.updateGrade(1, 64);
+        sys.updateId(1, 3);
+        assertEquals(62, history.gpa(3));
+        assertEquals(4, history.trend(3), 1e-5);
+        sys.delete(2);
+        history.close();
+        sys.updateGrade(3, 100);
+        assertEquals(62, history.gpa(3));
+
+        for (int id : new int[]{1, 2}) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> history.gpa(id));
+            assertEquals(String.format("Student with id %d has no grade history", id), e.getMessage());
+        }
+    }
+    @Test
+    void testCohortGradeAtTermMatchesReplay() {
+        RecordSystem sys = new RecordSystem();
+        GradeHistory history = GradeHistory.track(sys, 0);
+        Random random = new Random(11);
+        int students = 2000;
+        int terms = 12;
+        List<Map<Integer, Float>> expected = new ArrayList<>();
+        Map<Integer, Float> current = new HashMap<>();
+        Map<Integer, Integer> enrolledSince = new HashMap<>();
+        for (int term = 0; term < terms; term++) {
+            history.advanceTerm(term);
+            for (int i = 0; i < 5000; i++) {
+                int id = 1 + random.nextInt(students);
+                float grade = random.nextInt(101);
+                if (!current.containsKey(id)) {
+                    sys.add(new Student("Student", id, grade));
+                    enrolledSince.put(id, term);
+                } else if (random.nextInt(50) == 0) {
+                    sys.delete(id);
+                    current.remove(id);
+                    continue;
+                } else {
+                    sys.updateGrade(id, grade);
+                }
+                current.put(id, grade);
+            }
+            expected.add(new HashMap<>(current));
+        }
+        assertTrue(history.size() > 1 << 14);
+
+        for (int term = 0; term < terms; term++) {
+            Map<Integer, Float> found = new HashMap<>();
+            history.forEachGradeAt(term, found::put);
+            // A deleted student is gone from every term, and an id added again has no grades before that.
+            Map<Integer, Float> stillEnrolled = new HashMap<>(expected.get(term));
+            stillEnrolled.keySet().retainAll(current.keySet());
+            int atTerm = term;
+            stillEnrolled.keySet().removeIf(id -> enrolledSince.get(id) > atTerm);
+            assertEquals(stillEnrolled, found);
+        }
+        double average = current.values().stream().mapToDouble(Float::doubleValue).average().orElseThrow();
+        assertEquals(average, history.averageAt(terms), 1e-9);
+        assertEquals(Double.NaN, history.averageAt(-1));
+    }
+    @Test
+    void testOverwriteKeepsHistoryAndDeleteFreesTheSlot() {
+        RecordSystem sys = new RecordSystem();
+        GradeHistory history = GradeHistory.track(sys, 1);
+        sys.add(new Student("John Doe", 1, 60));
+        sys.add(new Student("Jane Doe", 2, 80));
+        history.advanceTerm(2);
+        sys.putRecord(1, "John Doe", 70);
+        assertEquals(2, history.terms(1));
+        assertEquals(65, history.gpa(1));
+        assertEquals(60, history.gradeAt(1, 1));
+
+        sys.delete(2);
+        sys.add(new Student("Jim Doe", 3, 90));
+        assertEquals(1, history.terms(3));
+        assertEquals(90, history.gpa(3));
+        assertEquals(Float.NaN, history.gradeAt(3, 1));
+        Map<Integer, Float> atFirstTerm = new HashMap<>();
+        history.forEachGradeAt(1, atFirstTerm::put);
+        assertEquals(Map.of(1, 60f), atFirstTerm);
+        Map<Integer, Float> atSecondTerm = new HashMap<>();
+        history.forEachGradeAt(2, atSecondTerm::put);
+        assertEquals(Map.of(1, 70f, 3, 90f), atSecondTerm);
+    }
+    @Test
+    void testWritersProceedWhileACohortIsVisited() throws Exception {
+        RecordSystem sys = new RecordSystem();
+        GradeHistory history = GradeHistory.track(sys, 1);
+        sys.add(new Student("John Doe", 1, 60));
+        sys.add(new Student("Jane Doe", 2, 80));
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Map<Integer, Float> visited = new HashMap<>();
+        // The update appends to the history from another thread while the scan is still visiting.
+        history.forEachGradeAt(1, (id, grade) -> {
+            visited.put(id, grade);
+            if (id == 1) {
+                assertDoesNotThrow(() -> pool.submit(() -> sys.updateGrade(2, 90)).get(10, TimeUnit.SECONDS));
+            }
+        });
+        pool.shutdown();
+        assertEquals(Map.of(1, 60f, 2, 80f), visited);
+        assertEquals(3, history.size());
+        assertEquals(90, history.gradeAt(2, 1));
+    }
+    @Test
+    void testTermCannotGoBack() {
+        GradeHistory history = GradeHistory.track(new RecordSystem(), 5);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> history.advanceTerm(4));
+        assertEquals("Invalid term 4. Term must not be before the current term 5", e.getMessage());
+        history.advanceTerm(5);
+        assertEquals(5, history.term());
+    }
+}
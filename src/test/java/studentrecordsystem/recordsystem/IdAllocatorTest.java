@@ -0,0 +1,175 @@
+package studentrecordsystem.recordsystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdAllocatorTest {
+    @Test
+    void testAllocatesLowestFreeIds() {
+        IdAllocator allocator = new IdAllocator(4);
+        allocator.take(1);
+        allocator.take(3);
+        assertEquals(2, allocator.nextFree(1));
+        assertEquals(4, allocator.nextFree(3));
+
+        assertEquals(List.of(2, 4, 5, 6, 7, 8), List.of(
+                allocator.allocate(), allocator.allocate(), allocator.allocate(),
+                allocator.allocate(), allocator.allocate(), allocator.allocate()
+        ));
+        // The second reservation holds 7 to 10, so 9 and 10 count as taken until they are used.
+        assertTrue(allocator.isTaken(10));
+        assertEquals(11, allocator.nextFree(1));
+        allocator.releaseReservation();
+        assertFalse(allocator.isTaken(10));
+        assertEquals(9, allocator.nextFree(1));
+        assertEquals(8, allocator.size());
+    }
+    @Test
+    void testReusesReleasedIds() {
+        IdAllocator allocator = new IdAllocator(1);
+        for (int id = 1; id <= 10; id++) {
+            assertEquals(id, allocator.allocate());
+        }
+        assertTrue(allocator.release(7));
+        assertTrue(allocator.release(3));
+        assertFalse(allocator.release(3));
+        assertEquals(List.of(3, 7, 11), List.of(allocator.allocate(), allocator.allocate(), allocator.allocate()));
+    }
+    @Test
+    void testSwitchesBetweenArrayAndBitmapRanges() {
+        IdAllocator allocator = new IdAllocator();
+        for (int id = 1; id <= 70000; id++) {
+            if (id != 5000 && id != 65546) {
+                assertTrue(allocator.take(id));
+            }
+        }
+        assertEquals(69998, allocator.size());
+        assertEquals(5000, allocator.nextFree(1));
+        assertEquals(65546, allocator.nextFree(5001));
+        assertEquals(70001, allocator.nextFree(65547));
+        assertFalse(allocator.isTaken(65546));
+        assertTrue(allocator.isTaken(65535));
+
+        for (int id = 2; id <= 65535; id++) {
+            if (id != 5000) {
+                assertTrue(allocator.release(id));
+            }
+        }
+        assertTrue(allocator.isTaken(1));
+        assertEquals(2, allocator.nextFree(1));
+        assertEquals(65535, allocator.nextFree(65535));
+        assertEquals(65546, allocator.nextFree(65536));
+        assertEquals(4465, allocator.size());
+    }
+    @Test
+    void testMatchesBitSetUnderRandomChanges() {
+        IdAllocator allocator = new IdAllocator();
+        BitSet expected = new BitSet();
+        expected.set(0);
+        Random random = new Random(7);
+        for (int i = 0; i < 200000; i++) {
+            // Clustered ids, so ranges cross the array limit in both directions.
+            int id = 1 + random.nextInt(3) * 65536 + random.nextInt(i % 2 == 0 ? 9000 : 65536);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.get(id), allocator.release(id));
+                expected.clear(id);
+            } else {
+                assertEquals(!expected.get(id), allocator.take(id));
+                expected.set(id);
+            }
+            if (i % 1000 == 0) {
+                int from = 1 + random.nextInt(3 * 65536);
+                assertEquals(expected.nextClearBit(from), allocator.nextFree(from));
+                assertEquals(expected.nextClearBit(1), allocator.nextFree(1));
+            }
+        }
+        assertEquals(expected.cardinality() - 1, allocator.size());
+        for (int id = 1; id < 4 * 65536; id++) {
+            assertEquals(expected.get(id), allocator.isTaken(id));
+        }
+    }
+    @Test
+    void testConcurrentAllocationsAreDistinct() throws Exception {
+        IdAllocator allocator = new IdAllocator(64);
+        int threads = 4;
+        int perThread = 20000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<int[]>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                int[] ids = new int[perThread];
+                for (int i = 0; i < perThread; i++) {
+                    ids[i] = allocator.allocate();
+                }
+                allocator.releaseReservation();
+                return ids;
+            }));
+        }
+        Set<Integer> allocated = new HashSet<>();
+        for (Future<int[]> future : futures) {
+            for (int id : future.get()) {
+                assertTrue(allocated.add(id));
+            }
+        }
+        pool.shutdown();
+        assertEquals(threads * perThread, allocator.size());
+        for (int id : allocated) {
+            assertTrue(allocator.isTaken(id));
+        }
+    }
+    @Test
+    void testEnrollWithinAReservationNeverTakesTheMonitor() throws Exception {
+        RecordSystem sys = RecordSystem.concurrent(4);
+        IdAllocator allocator = sys.idAllocator();
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        assertEquals(1, pool.submit(() -> sys.enroll("Student", 50)).get());
+        Future<?> enrolled;
+        // The first enroll reserved ids 1 to 64 for the pool's thread, so the next 63 need nothing from the monitor.
+        synchronized (allocator) {
+            enrolled = pool.submit(() -> {
+                for (int i = 2; i <= 64; i++) {
+                    assertEquals(i, sys.enroll("Student", 50));
+                }
+                sys.delete(7);
+                sys.updateId(8, 1000);
+            });
+            enrolled.get(10, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        assertEquals(63, allocator.size());
+        assertFalse(allocator.isTaken(7));
+        assertFalse(allocator.isTaken(8));
+        assertTrue(allocator.isTaken(1000));
+        assertEquals(7, allocator.nextFree(1));
+    }
+    @ParameterizedTest
+    @CsvSource({
+            "0", "-1", "-2147483648"
+    })
+    void testInvalidId(int id) {
+        IdAllocator allocator = new IdAllocator();
+        String expected = String.format("Invalid ID %d. ID must be a positive integer", id);
+        assertEquals(expected, assertThrows(IllegalArgumentException.class, () -> allocator.isTaken(id)).getMessage());
+        assertEquals(expected, assertThrows(IllegalArgumentException.class, () -> allocator.take(id)).getMessage());
+        assertEquals(expected, assertThrows(IllegalArgumentException.class, () -> allocator.nextFree(id)).getMessage());
+    }
+    @Test
+    void testInvalidReservation() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> new IdAllocator(0));
+        assertEquals("Invalid reservation 0. Reservation must be positive", e.getMessage());
+    }
+}
@@ -0,0 +1,88 @@
+package studentrecordsystem.recordsystem;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongOrderedSetTest {
+    private static List<Long> ascending(LongOrderedSet set, long from, long to) {
+        List<Long> keys = new ArrayList<>();
+        set.forEachInRange(from, to, key -> keys.add(key));
+        return keys;
+    }
+
+    private static List<Long> descending(LongOrderedSet set, long from, long to) {
+        List<Long> keys = new ArrayList<>();
+        set.forEachInRangeDescending(from, to, key -> keys.add(key));
+        return keys;
+    }
+
+
+    @Test
+    void testMatchesTreeSetUnderRandomOperations() {
+        LongOrderedSet set = new LongOrderedSet();
+        TreeSet<Long> expected = new TreeSet<>();
+        Random random = new Random(9);
+        for (int round = 0; round < 4; round++) {
+            for (int i = 0; i < 30000; i++) {
+                long key = random.nextInt(20000) - 10000;
+                if (random.nextInt(round % 2 == 0 ? 3 : 5) == 0) {
+                    assertEquals(expected.add(key), set.add(key));
+                } else {
+                    assertEquals(expected.remove(key), set.remove(key));
+                }
+            }
+            assertEquals(expected.size(), set.size());
+            for (int i = 0; i < 200; i++) {
+                long key = random.nextInt(22000) - 11000;
+                assertEquals(expected.contains(key), set.contains(key));
+                assertEquals(expected.headSet(key).size(), set.rank(key));
+                long to = key + random.nextInt(500);
+                NavigableSet<Long> range = expected.subSet(key, true, to, true);
+                assertEquals(new ArrayList<>(range), ascending(set, key, to));
+                assertEquals(new ArrayList<>(range.descendingSet()), descending(set, key, to));
+            }
+            List<Long> all = new ArrayList<>(expected);
+            for (int rank = 0; rank < all.size(); rank += 97) {
+                assertEquals(all.get(rank), set.select(rank));
+            }
+        }
+    }
+    @Test
+    void testVisitFromRank() {
+        LongOrderedSet set = new LongOrderedSet();
+        for (long key = 2000; key > 0; key--) {
+            set.add(key * 3);
+        }
+        List<Long> keys = new ArrayList<>();
+        set.forEachFromRank(1500, key -> keys.add(key) && keys.size() < 3);
+        assertEquals(List.of(4503L, 4506L, 4509L), keys);
+        keys.clear();
+        set.forEachFromRankDescending(1999, key -> keys.add(key));
+        assertEquals(List.of(3L), keys);
+        keys.clear();
+        set.forEachFromRank(2000, key -> keys.add(key));
+        assertTrue(keys.isEmpty());
+    }
+    @Test
+    void testEmptiedSetIsReusable() {
+        LongOrderedSet set = new LongOrderedSet();
+        for (long key = 0; key < 5000; key++) {
+            set.add(key);
+        }
+        for (long key = 0; key < 5000; key++) {
+            assertTrue(set.remove(key));
+        }
+        assertEquals(0, set.size());
+        assertTrue(ascending(set, Long.MIN_VALUE, Long.MAX_VALUE).isEmpty());
+        assertTrue(descending(set, Long.MIN_VALUE, Long.MAX_VALUE).isEmpty());
+        set.add(7);
+        assertEquals(7, set.select(0));
+    }
+}
@@ -0,0 +1,165 @@
+package studentrecordsystem.recordsystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import studentrecordsystem.student.Student;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordArchiveTest {
+    private final static String[] names = {"Jason", "Sanchayata", "John", "Sarah", "Mary Ann", "Emile"};
+
+    @TempDir
+    Path directory;
+
+    // Spread ids with two-decimal grades, added out of id order so the archive has to sort them.
+    private static RecordSystem roster(int size) {
+        RecordSystem sys = new RecordSystem();
+        Random random = new Random(42);
+        for (int i = size - 1; i >= 0; i--) {
+            sys.add(new Student(names[random.nextInt(names.length)], 10000000 + i * 7, random.nextInt(10001) / 100f));
+        }
+        return sys;
+    }
+
+
+    @ParameterizedTest
+    @CsvSource({
+            "1", "3", "8192", "20000"
+    })
+    void testRoundTrip(int size) throws IOException {
+        RecordSystem sys = roster(size);
+        Path file = directory.resolve("roster.sra");
+        RecordArchive.write(file, sys.store());
+
+        RecordSystem loadedSys = new RecordSystem();
+        assertEquals(size, RecordArchive.read(file, loadedSys::putRecord));
+        assertEquals(sys.getStudents(), loadedSys.getStudents());
+    }
+    @Test
+    void testStreamsInIdOrder() throws IOException {
+        Path file = directory.resolve("roster.sra");
+        RecordArchive.write(file, roster(20000).store());
+
+        List<Integer> ids = new ArrayList<>();
+        RecordArchive.read(file, (id, name, grade) -> ids.add(id));
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(10000000 + i * 7, ids.get(i));
+        }
+    }
+    @Test
+    void testRandomAccess() throws IOException {
+        RecordSystem sys = roster(20000);
+        Path file = directory.resolve("roster.sra");
+        RecordArchive.write(file, sys.store());
+
+        try (RecordArchive archive = RecordArchive.open(file)) {
+            assertEquals(20000, archive.size());
+            assertEquals(3, archive.blockCount());
+            for (int id : new int[]{10000000, 10057337, 10057344, 10139993}) {
+                assertEquals(sys.get(id), archive.get(id));
+            }
+            assertNull(archive.get(9999999));
+            assertNull(archive.get(10000001));
+            assertNull(archive.get(10140000));
+
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> archive.readBlock(3, (id, name, grade) -> {}));
+            assertEquals("Invalid block 3. Block must be between 0 and 2", e.getMessage());
+        }
+    }
+    @Test
+    void testSmallerThanTextFile() throws IOException {
+        RecordSystem sys = roster(20000);
+        Path text = directory.resolve("roster.txt");
+        try (RecordFileWriter writer = new RecordFileWriter(text)) {
+            for (Student student : sys.getStudents().values()) {
+                writer.write(student.getId(), student.getName(), student.getGrade());
+            }
+            writer.commit();
+        }
+        Path file = directory.resolve("roster.sra");
+        RecordArchive.write(file, sys.store());
+
+        assertTrue(Files.size(file) * 4 < Files.size(text));
+    }
+    @Test
+    void testCorruptBlock() throws IOException {
+        Path file = directory.resolve("roster.sra");
+        RecordArchive.write(file, roster(20000).store());
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[40] ^= 1;
+        Files.write(file, bytes);
+
+        try (RecordArchive archive = RecordArchive.open(file)) {
+            IOException e = assertThrows(IOException.class, () -> archive.readBlock(0, (id, name, grade) -> {}));
+            assertEquals("Block 0 of file roster.sra is corrupt", e.getMessage());
+            archive.readBlock(1, (id, name, grade) -> {});
+        }
+    }
+    // Offsets from the end of a 20000-record archive: footer 16 bytes, index 3 entries of 28 bytes.
+    @ParameterizedTest
+    @CsvSource({
+            "header, 16",
+            "index, -60",
+            "footer, -12",
+            "truncated, -1"
+    })
+    void testCorruptHeaderIndexOrFooter(String part, int offset) throws IOException {
+        Path file = directory.resolve("roster.sra");
+        RecordArchive.write(file, roster(20000).store());
+        byte[] bytes = Files.readAllBytes(file);
+        if (part.equals("truncated")) {
+            bytes = Arrays.copyOf(bytes, bytes.length - 1);
+        } else {
+            bytes[offset >= 0 ? offset : bytes.length + offset] ^= 1;
+        }
+        Files.write(file, bytes);
+
+        IOException e = assertThrows(IOException.class, () -> RecordArchive.open(file));
+        assertEquals("File roster.sra is corrupt", e.getMessage());
+    }
+    // An index entry that passes the index checksum but points outside the blocks fails before anything is read.
+    @ParameterizedTest
+    @CsvSource({
+            "8, 2147483647",
+            "12, -1",
+            "12, 2147483647",
+            "20, 0"
+    })
+    void testIndexEntryOutsideTheFile(int field, int value) throws IOException {
+        Path file = directory.resolve("roster.sra");
+        RecordArchive.write(file, roster(20000).store());
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        int indexOffset = bytes.capacity() - 16 - 3 * 28;
+        bytes.putInt(indexOffset + 28 + field, value);
+        CRC32C checksum = new CRC32C();
+        checksum.update(bytes.array(), indexOffset, 3 * 28);
+        bytes.putInt(bytes.capacity() - 8, (int) checksum.getValue());
+        Files.write(file, bytes.array());
+
+        IOException e = assertThrows(IOException.class, () -> RecordArchive.open(file));
+        assertEquals("Block 1 of file roster.sra is corrupt", e.getMessage());
+    }
+    @Test
+    void testNotAnArchive() throws IOException {
+        Path file = directory.resolve("roster.sra");
+        Files.writeString(file, "10154707 Jason 82.0\n10163270 Sanchayata 70.0\n");
+
+        IOException e = assertThrows(IOException.class, () -> RecordArchive.open(file));
+        assertEquals("File roster.sra is not a record archive", e.getMessage());
+    }
+}
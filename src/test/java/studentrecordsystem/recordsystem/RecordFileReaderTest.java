@@ -0,0 +1,133 @@
+package studentrecordsystem.recordsystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import studentrecordsystem.student.Student;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordFileReaderTest {
+    private static float parseFloat(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        return RecordFileReader.parseFloat(bytes, 0, bytes.length);
+    }
+
+
+    @ParameterizedTest
+    @CsvSource({
+            "82.000000", "32.200001", "0.900000", "100", "0", "-0", "0.05", "1.", "12.223", "1e2", "99.999999",
+            "0.0078125", "16777217", "3.4028235e38"
+    })
+    void testParseFloatMatchesFloatParseFloat(String text) {
+        assertEquals(Float.parseFloat(text), parseFloat(text));
+    }
+    @Test
+    void testParseFloatMatchesFloatParseFloatForSavedGrades() {
+        Random random = new Random(7);
+        for (int i = 0; i < 200000; i++) {
+            String text = String.format("%f", random.nextFloat() * 100);
+            assertEquals(Float.parseFloat(text), parseFloat(text), text);
+        }
+    }
+    @ParameterizedTest
+    @CsvSource({
+            "abc", "''", "1.2.3", "--1"
+    })
+    void testParseFloatRejectsInvalidInput(String text) {
+        assertThrows(NumberFormatException.class, () -> parseFloat(text));
+    }
+
+
+    @Test
+    void testReadAcrossBufferBoundaries() throws IOException {
+        Path file = Files.createTempFile("records", ".txt");
+        HashMap<Integer, Student> expected = new HashMap<>();
+        StringBuilder content = new StringBuilder();
+        for (int id = 1; id <= 1000; id++) {
+            Student student = new Student("Jonathan Woodgate", id, id % 101);
+            expected.put(id, student);
+            content.append(String.format("%1$d,%2$s,%3$f\n", id, student.getName(), student.getGrade()));
+        }
+        Files.writeString(file, content.toString());
+
+        HashMap<Integer, Student> actual = new HashMap<>();
+        List<Long> progress = new ArrayList<>();
+        try (RecordFileReader reader = new RecordFileReader(file, 64)) {
+            long records = reader.read(
+                    (id, name, grade) -> actual.put(id, new Student(name, id, grade)),
+                    (bytesRead, totalBytes, recordsRead) -> progress.add(bytesRead)
+            );
+            assertEquals(1000, records);
+        } finally {
+            Files.delete(file);
+        }
+        assertEquals(expected, actual);
+        assertEquals(content.length(), progress.get(progress.size() - 1));
+    }
+    @Test
+    void testReadInvalidRecord() throws IOException {
+        Path file = Files.createTempFile("records", ".txt");
+        Files.writeString(file, "1,Jason,82.000000\n2,John\n");
+        try (RecordFileReader reader = new RecordFileReader(file)) {
+            IllegalArgumentException e = assertThrows(
+                    IllegalArgumentException.class,
+                    () -> reader.read((id, name, grade) -> {}, (bytesRead, totalBytes, records) -> {})
+            );
+            assertEquals("Invalid record on line 2 of file " + file.getFileName(), e.getMessage());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+
+    @ParameterizedTest
+    @CsvSource({"1", "3", "8"})
+    void testParallelLoaderMatchesSequentialReader(int workers) throws IOException {
+        Path file = Files.createTempFile("records", ".txt");
+        StringBuilder content = new StringBuilder();
+        Random random = new Random(workers);
+        for (int id = 1; id <= 150000; id++) {
+            content.append(String.format("%1$d,%2$s,%3$f\n", id, id % 3 == 0 ? "Jason" : "Sanchayata", random.nextFloat() * 100));
+            if (id % 40000 == 0) {
+                content.append("\r\n");
+            }
+        }
+        Files.writeString(file, content);
+
+        List<Student> expected = new ArrayList<>();
+        try (RecordFileReader reader = new RecordFileReader(file)) {
+            reader.read((id, name, grade) -> expected.add(new Student(name, id, grade)), (read, total, records) -> {});
+        }
+        ParallelRecordLoader loader = new ParallelRecordLoader(file, workers);
+        loader.read();
+        List<Student> actual = new ArrayList<>();
+        for (int i = 0; i < loader.ids().length; i++) {
+            actual.add(new Student(loader.names()[i], loader.ids()[i], loader.grades()[i]));
+        }
+        assertEquals(expected, actual);
+        Files.delete(file);
+    }
+    @Test
+    void testParallelLoaderReportsLineOfInvalidRecord() throws IOException {
+        Path file = Files.createTempFile("records", ".txt");
+        StringBuilder content = new StringBuilder();
+        for (int id = 1; id <= 100000; id++) {
+            content.append(id == 87654 ? "87654,John" : id + ",John,50.000000").append('\n');
+        }
+        Files.writeString(file, content);
+        ParallelRecordLoader loader = new ParallelRecordLoader(file, 4);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, loader::read);
+        assertEquals("Invalid record on line 87654 of file " + file.getFileName(), e.getMessage());
+        Files.delete(file);
+    }
+}
@@ -0,0 +1,49 @@
+package studentrecordsystem.recordsystem;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordFileWriterTest {
+    @Test
+    void testOutputMatchesStringFormat() throws IOException {
+        Path file = Files.createTempFile("records", ".txt");
+        StringBuilder expected = new StringBuilder();
+        Random random = new Random(11);
+        float[] edgeGrades = {0, -0f, 100, 0.0078125f, 32.2f, 1e-7f, 99.9999995f, 3.4e38f, -12.5f};
+        try (RecordFileWriter writer = new RecordFileWriter(file, 256)) {
+            for (int i = 0; i < 100000; i++) {
+                int id = i < 3 ? new int[] {Integer.MIN_VALUE, Integer.MAX_VALUE, 0}[i] : random.nextInt();
+                float grade = i < edgeGrades.length ? edgeGrades[i] : random.nextFloat() * 100;
+                writer.write(id, "Sanchayata", grade);
+                expected.append(String.format(Locale.ROOT, "%1$d,%2$s,%3$f\n", id, "Sanchayata", grade));
+            }
+            writer.commit();
+        }
+        try {
+            assertEquals(expected.toString(), Files.readString(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+    @Test
+    void testUncommittedWriteKeepsPreviousFile() throws IOException {
+        Path file = Files.createTempFile("records", ".txt");
+        Files.writeString(file, "1,Jason,82.000000\n");
+        try (RecordFileWriter writer = new RecordFileWriter(file)) {
+            writer.write(2, "John", 57);
+        }
+        try {
+            assertEquals("1,Jason,82.000000\n", Files.readString(file));
+            assertFalse(Files.exists(file.resolveSibling(file.getFileName() + ".tmp")));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package studentrecordsystem.recordsystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import studentrecordsystem.student.Student;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordJournalTest {
+    @TempDir
+    Path directory;
+
+    private RecordJournal open(RecordSystem sys) throws IOException {
+        return RecordJournal.open(sys, directory, "roster", 10, 60000);
+    }
+
+    private static void applyChanges(RecordSystem sys) {
+        sys.add(new Student("Jason", 10154707, 82));
+        sys.add(new Student("Sanchayata", 10163270, 70));
+        sys.add(new Student("John", 10199398, 57));
+        sys.updateName(10163270, "Sancha");
+        sys.updateId(10199398, 2);
+        sys.updateGrade(2, 12.5f);
+        sys.delete(10154707);
+    }
+
+
+    @Test
+    void testRecoverFromLogOnly() throws IOException {
+        RecordSystem sys = new RecordSystem();
+        try (RecordJournal ignored = open(sys)) {
+            applyChanges(sys);
+        }
+
+        RecordSystem recovered = new RecordSystem();
+        open(recovered).close();
+        assertEquals(sys.getStudents(), recovered.getStudents());
+    }
+    @Test
+    void testRecoverFromSnapshotAndLogTail() throws IOException {
+        RecordSystem sys = new RecordSystem();
+        try (RecordJournal journal = open(sys)) {
+            applyChanges(sys);
+            journal.snapshot();
+            sys.add(new Student("Sarah", 88888888, 0.9f));
+            sys.updateGrade(10163270, 99);
+        }
+        assertTrue(Files.exists(directory.resolve("roster-2.srs")));
+        assertFalse(Files.exists(directory.resolve("roster-1.log")));
+
+        RecordSystem recovered = new RecordSystem();
+        open(recovered).close();
+        HashMap<Integer, Student> expected = new HashMap<>();
+        expected.put(10163270, new Student("Sancha", 10163270, 99));
+        expected.put(2, new Student("John", 2, 12.5f));
+        expected.put(88888888, new Student("Sarah", 88888888, 0.9f));
+        assertEquals(expected, recovered.getStudents());
+    }
+    @Test
+    void testTornLogTailIsDropped() throws IOException {
+        RecordSystem sys = new RecordSystem();
+        try (RecordJournal ignored = open(sys)) {
+            applyChanges(sys);
+        }
+        Files.write(directory.resolve("roster-1.log"), new byte[] {0, 0, 0, 20, 1, 2}, StandardOpenOption.APPEND);
+
+        RecordSystem recovered = new RecordSystem();
+        try (RecordJournal ignored = open(recovered)) {
+            recovered.add(new Student("Henry", 23054570, 69));
+        }
+        RecordSystem recoveredAgain = new RecordSystem();
+        open(recoveredAgain).close();
+
+        HashMap<Integer, Student> expected = sys.getStudents();
+        expected.put(23054570, new Student("Henry", 23054570, 69));
+        assertEquals(expected, recoveredAgain.getStudents());
+    }
+    @Test
+    void testOverlongNameIsRejectedBeforeTheLog() throws IOException {
+        String longName = "A" + " b".repeat(RecordSystem.maxNameLength / 2) + "c";
+        String longestName = "A".repeat(RecordSystem.maxNameLength);
+        RecordSystem sys = new RecordSystem();
+        try (RecordJournal ignored = open(sys)) {
+            applyChanges(sys);
+            IllegalArgumentException e = assertThrows(
+                    IllegalArgumentException.class, () -> sys.add(new Student(longName, 3, 50))
+            );
+            assertEquals(String.format(
+                    "Invalid new name of %d characters. New name must be at most 32767 characters", longName.length()
+            ), e.getMessage());
+            assertThrows(IllegalArgumentException.class, () -> sys.updateName(10163270, longName));
+            sys.add(new Student(longestName, 4, 50));
+            sys.updateGrade(2, 99);
+        }
+
+        RecordSystem recovered = new RecordSystem();
+        open(recovered).close();
+        assertEquals(sys.getStudents(), recovered.getStudents());
+        assertEquals(longestName, recovered.get(4).getName());
+        assertEquals(99, recovered.get(2).getGrade());
+    }
+    @Test
+    void testBackgroundSnapshotsInConcurrentMode() throws Exception {
+        RecordSystem sys = RecordSystem.concurrent(4);
+        try (RecordJournal ignored = RecordJournal.open(sys, directory, "roster", 5, 20)) {
+            applyChanges(sys);
+            long deadline = System.currentTimeMillis() + 10000;
+            while (!Files.exists(directory.resolve("roster-2.srs")) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+        RecordSystem recovered = new RecordSystem();
+        open(recovered).close();
+        assertEquals(sys.getStudents(), recovered.getStudents());
+    }
+}
@@ -0,0 +1,125 @@
+package studentrecordsystem.recordsystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import studentrecordsystem.student.Student;
+
+import javax.management.ObjectName;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordMetricsTest {
+    @ParameterizedTest
+    @CsvSource({
+            "0", "1", "31", "32", "33", "63", "64", "100", "1000", "123456", "987654321", "9223372036854775807"
+    })
+    void testHistogramBucketHoldsValueWithinThreePercent(long value) {
+        int index = LatencyHistogram.indexOf(value);
+        long highest = LatencyHistogram.highestValueAt(index);
+        assertTrue(highest >= value);
+        assertTrue(highest - value <= value / 32);
+        if (index > 0) {
+            assertTrue(LatencyHistogram.highestValueAt(index - 1) < value);
+        }
+    }
+    @Test
+    void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.valueAtPercentile(99));
+        assertTrue(Double.isNaN(histogram.mean()));
+        for (long value = 1; value <= 10000; value++) {
+            histogram.record(value);
+        }
+        assertEquals(10000, histogram.count());
+        assertEquals(10000, histogram.max());
+        assertEquals(5000.5, histogram.mean(), 1e-9);
+        assertEquals(5000, histogram.valueAtPercentile(50), 5000 / 32);
+        assertEquals(9900, histogram.valueAtPercentile(99), 9900 / 32);
+        assertEquals(10000, histogram.valueAtPercentile(100));
+        assertEquals(1, histogram.valueAtPercentile(0));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> histogram.valueAtPercentile(101));
+        assertEquals("Invalid percentile 101.0. Percentile must be between 0 and 100", e.getMessage());
+    }
+    @Test
+    void testCountsOperationsAndRejections() {
+        RecordSystem sys = new RecordSystem();
+        for (int id = 1; id <= 10; id++) {
+            sys.tryAdd(new Student("Student", id, 50));
+        }
+        sys.tryAdd(new Student("Student", 1, 50));
+        sys.tryAdd(new Student("Student", 0, 50));
+        sys.tryUpdateGrade(2, 75);
+        sys.tryUpdateGrade(11, 75);
+        sys.tryUpdateName(3, "Renamed");
+        sys.tryUpdateId(4, 40);
+        sys.tryDelete(5);
+        sys.tryDelete(5);
+        sys.deleteAll(new int[] {6, 6});
+        sys.addAll(new int[] {20, 21}, new String[] {"New", "Newer"}, new float[] {10, 20});
+
+        RecordMetrics metrics = sys.metrics();
+        assertEquals(12, metrics.count(RecordMetrics.Operation.ADD));
+        assertEquals(2, metrics.count(RecordMetrics.Operation.UPDATE_GRADE));
+        assertEquals(1, metrics.count(RecordMetrics.Operation.UPDATE_NAME));
+        assertEquals(1, metrics.count(RecordMetrics.Operation.UPDATE_ID));
+        assertEquals(2, metrics.count(RecordMetrics.Operation.DELETE));
+        assertEquals(2, metrics.count(RecordMetrics.Operation.BATCH));
+        assertEquals(1, metrics.rejections(Status.ALREADY_EXISTS));
+        assertEquals(1, metrics.rejections(Status.INVALID_ID));
+        assertEquals(2, metrics.rejections(Status.NOT_FOUND));
+        assertEquals(1, metrics.rejections(Status.DUPLICATE_IN_BATCH));
+        assertEquals(0, metrics.rejections(Status.INVALID_GRADE));
+        assertEquals(20, metrics.getOperationCount());
+        assertEquals(5, metrics.getRejectionCount());
+    }
+    @Test
+    void testRecordsPersistenceThroughput() throws Exception {
+        RecordSystem sys = new RecordSystem();
+        for (int id = 1; id <= 100; id++) {
+            sys.add(new Student("Student", id, id % 100));
+        }
+        try {
+            sys.save("metricsTest");
+            RecordSystem loaded = new RecordSystem();
+            loaded.load("metricsTest");
+
+            long bytes = new File("metricsTest.txt").length();
+            RecordMetrics saved = sys.metrics();
+            assertEquals(1, saved.count(RecordMetrics.Operation.SAVE));
+            assertEquals(bytes, saved.bytes(RecordMetrics.Operation.SAVE));
+            assertEquals(100, saved.records(RecordMetrics.Operation.SAVE));
+            assertEquals(1, saved.latency(RecordMetrics.Operation.SAVE).count());
+            assertTrue(saved.bytesPerSecond(RecordMetrics.Operation.SAVE) > 0);
+            assertEquals(bytes, loaded.metrics().bytes(RecordMetrics.Operation.LOAD));
+            assertEquals(100, loaded.metrics().records(RecordMetrics.Operation.LOAD));
+            assertTrue(loaded.metrics().recordsPerSecond(RecordMetrics.Operation.LOAD) > 0);
+            assertEquals(0, loaded.metrics().count(RecordMetrics.Operation.ADD));
+        } finally {
+            new File("metricsTest.txt").delete();
+        }
+    }
+    @Test
+    void testSnapshotAndMBean() throws Exception {
+        RecordSystem sys = new RecordSystem();
+        sys.tryDelete(1);
+        Map<String, Long> values = sys.metrics().snapshot();
+        assertEquals(1, values.get("delete.count"));
+        assertEquals(1, values.get("rejected.not_found"));
+        assertTrue(values.containsKey("add.p99.nanos"));
+        assertTrue(values.containsKey("save.bytes.per.second"));
+        assertFalse(values.containsKey("rejected.ok"));
+
+        ObjectName name = sys.metrics().register("metricsTest");
+        try {
+            var server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(1L, server.getAttribute(name, "OperationCount"));
+            assertEquals(1L, server.getAttribute(name, "RejectionCount"));
+        } finally {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        }
+    }
+}
@@ -7,7 +7,13 @@ import studentrecordsystem.student.Student;
 
 import java.io.*;
 import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Pattern;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -435,4 +441,480 @@ class RecordSystemTest {
         );
         assertEquals("File " + missingFileName + ".txt is missing", e.getMessage());
     }
+
+
+    @Test
+    void testEnrollAssignsLowestFreeIds() {
+        assertEquals(1, sys.enroll("Henry", 69));
+        assertEquals(2, sys.enroll("Mary Ann", 90));
+        assertEquals(new Student("Mary Ann", 2, 90), sys.get(2));
+
+        IdAllocator ids = sys.idAllocator();
+        assertTrue(ids.isTaken(10154707));
+        sys.updateId(10154707, 3);
+        assertFalse(ids.isTaken(10154707));
+        sys.delete(1);
+        assertFalse(ids.isTaken(1));
+        sys.add(new Student("Tom", 4, 50));
+        // The rest of the reservation, 3 to 64, is handed out first, skipping the ids updateId and add took.
+        for (int id = 5; id <= 64; id++) {
+            assertEquals(id, sys.enroll("Henry", 69));
+        }
+        assertEquals(1, sys.enroll("Henry", 69));
+    }
+    @ParameterizedTest
+    @CsvSource({
+            "Henry2, 69, Invalid new name Henry2. New name must contain alphabetic characters and spaces only",
+            "Henry, 101, Invalid new grade 101.000000. New grade must be between 0 and 100 (inclusive)"
+    })
+    void testEnrollRejectsInvalidStudent(String name, float grade, String expectedMessage) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> sys.enroll(name, grade));
+        assertEquals(expectedMessage, e.getMessage());
+        assertEquals(1, sys.enroll("Henry", 69));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "test", "students", "database01", "student-data"
+    })
+    void testSaveAndLoadBinary(String fileName) {
+        try {
+            sys.saveBinary(fileName);
+            RecordSystem loadedSys = new RecordSystem();
+            loadedSys.loadBinary(fileName);
+            assertEquals(sys.getStudents(), loadedSys.getStudents());
+
+            if (!new File(fileName + ".srs").delete()) {
+                throw new IOException("Failed to delete test saved file.");
+            }
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    }
+    @Test
+    void testLoadCorruptBinaryFile() throws IOException {
+        sys.saveBinary("corrupt");
+        File savedFile = new File("corrupt.srs");
+        try {
+            byte[] bytes = Files.readAllBytes(savedFile.toPath());
+            bytes[bytes.length - 1] ^= 1;
+            Files.write(savedFile.toPath(), bytes);
+
+            IOException e = assertThrows(IOException.class, () -> new RecordSystem().loadBinary("corrupt"));
+            assertEquals("File corrupt.srs is corrupt", e.getMessage());
+        } finally {
+            assertTrue(savedFile.delete());
+        }
+    }
+    @Test
+    void testConvertTextFileToBinary() throws IOException {
+        sys.save("convert");
+        File textFile = new File("convert.txt");
+        File binaryFile = new File("convert.srs");
+        try {
+            assertEquals(3, BinaryRecordFile.convert(textFile.toPath(), binaryFile.toPath()));
+            RecordSystem loadedSys = new RecordSystem();
+            loadedSys.loadBinary("convert");
+            assertEquals(sys.getStudents(), loadedSys.getStudents());
+        } finally {
+            assertTrue(textFile.delete());
+            assertTrue(binaryFile.delete());
+        }
+    }
+    @ParameterizedTest
+    @CsvSource({
+            "test", "students", "database01", "student-data"
+    })
+    void testSaveAndLoadArchive(String fileName) throws IOException {
+        sys.saveArchive(fileName);
+        File savedFile = new File(fileName + ".sra");
+        try {
+            RecordSystem loadedSys = new RecordSystem();
+            loadedSys.loadArchive(fileName);
+            assertEquals(sys.getStudents(), loadedSys.getStudents());
+        } finally {
+            assertTrue(savedFile.delete());
+        }
+    }
+
+
+    @ParameterizedTest
+    @CsvSource({
+            "0, 100, 3", "57, 70, 2", "70.5, 90, 1", "90, 100, 0"
+    })
+    void testFindByGradeRange(float minGrade, float maxGrade, int expectedCount) {
+        List<Student> found = sys.findByGradeRange(minGrade, maxGrade);
+        assertEquals(expectedCount, found.size());
+        for (int i = 0; i < found.size(); i++) {
+            assertTrue(found.get(i).getGrade() >= minGrade && found.get(i).getGrade() <= maxGrade);
+            assertTrue(i == 0 || found.get(i - 1).getGrade() <= found.get(i).getGrade());
+        }
+    }
+    @ParameterizedTest
+    @CsvSource({
+            "0, 100, 0, ''", "0, 100, 2, 10199398 10163270", "57, 70, 1, 10199398", "70.5, 90, 5, 10154707"
+    })
+    void testFindByGradeRangeStopsAtLimit(float minGrade, float maxGrade, int limit, String expectedIds) {
+        StringBuilder ids = new StringBuilder();
+        for (Student student : sys.findByGradeRange(minGrade, maxGrade, limit)) {
+            ids.append(ids.isEmpty() ? "" : " ").append(student.getId());
+        }
+        assertEquals(expectedIds, ids.toString());
+
+        IllegalArgumentException e = assertThrows(
+                IllegalArgumentException.class, () -> sys.findByGradeRange(minGrade, maxGrade, -1)
+        );
+        assertEquals("Invalid limit -1. Limit must not be negative", e.getMessage());
+    }
+    @Test
+    void testTopByGradeFollowsUpdates() {
+        sys.updateGrade(10199398, 95);
+        sys.add(new Student("Henry", 23054570, 69));
+        assertEquals(
+                List.of(new Student("John", 10199398, 95), new Student("Jason", 10154707, 82)),
+                sys.topByGrade(2)
+        );
+        sys.updateId(10199398, 5);
+        sys.delete(10154707);
+        assertEquals(
+                List.of(new Student("John", 5, 95), new Student("Sanchayata", 10163270, 70)),
+                sys.topByGrade(2)
+        );
+    }
+    @Test
+    void testTopByGradeWithNegativeCount() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> sys.topByGrade(-1));
+        assertEquals("Invalid count -1. Count must not be negative", e.getMessage());
+    }
+    @ParameterizedTest
+    @CsvSource({
+            "Ja, 1", "J, 2", "San, 1", "Sanchayatas, 0", "'', 3"
+    })
+    void testFindByNamePrefix(String prefix, int expectedCount) {
+        List<Student> found = sys.findByNamePrefix(prefix);
+        assertEquals(expectedCount, found.size());
+        for (Student student : found) {
+            assertTrue(student.getName().startsWith(prefix));
+        }
+    }
+    @Test
+    void testIndexesMatchFullScanUnderRandomUpdates() {
+        sys.findByNamePrefix("");
+        Random random = new Random(3);
+        String[] names = {"Sarah", "Sanchayata", "Sam", "John", "Jonathan Woodgate"};
+        for (int i = 0; i < 5000; i++) {
+            int id = 1 + random.nextInt(300);
+            try {
+                switch (random.nextInt(5)) {
+                    case 0 -> sys.add(new Student(names[random.nextInt(names.length)], id, random.nextInt(101)));
+                    case 1 -> sys.delete(id);
+                    case 2 -> sys.updateName(id, names[random.nextInt(names.length)]);
+                    case 3 -> sys.updateId(id, 1 + random.nextInt(300));
+                    default -> sys.updateGrade(id, random.nextInt(10001) / 100f);
+                }
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+
+        Collection<Student> all = sys.getStudents().values();
+        assertEquals(
+                all.stream().filter(s -> s.getGrade() >= 40 && s.getGrade() <= 50).count(),
+                sys.findByGradeRange(40, 50).size()
+        );
+        assertEquals(
+                all.stream().filter(s -> s.getName().startsWith("Sa")).count(),
+                sys.findByNamePrefix("Sa").size()
+        );
+        float maxGrade = (float) all.stream().mapToDouble(Student::getGrade).max().orElseThrow();
+        assertEquals(maxGrade, sys.topByGrade(1).get(0).getGrade());
+    }
+
+
+    @Test
+    void testAddAllValidStudents() {
+        BatchResult result = sys.addAll(List.of(
+                new Student("Henry", 23054570, 69),
+                new Student("Sarah", 88888888, 0.9f)
+        ));
+        assertTrue(result.isApplied());
+        assertEquals(5, sys.getStudents().size());
+        assertEquals(new Student("Sarah", 88888888, 0.9f), sys.getStudents().get(88888888));
+    }
+    @Test
+    void testAddAllRejectsWholeBatchAndReportsEachFailure() {
+        BatchResult result = sys.addAll(List.of(
+                new Student("Henry", 23054570, 69),
+                new Student("Takeshi69", 2, 50),
+                new Student("Jason", 10154707, 82),
+                new Student("Sarah", 0, 50),
+                new Student("Tim", 3, 101),
+                new Student("Henry", 23054570, 12)
+        ));
+        assertFalse(result.isApplied());
+        assertEquals(5, result.failureCount());
+        assertEquals(Status.OK, result.statusOf(0));
+        assertEquals(Status.INVALID_NAME, result.statusOf(1));
+        assertEquals(Status.ALREADY_EXISTS, result.statusOf(2));
+        assertEquals(Status.INVALID_ID, result.statusOf(3));
+        assertEquals(Status.INVALID_GRADE, result.statusOf(4));
+        assertEquals(Status.DUPLICATE_IN_BATCH, result.statusOf(5));
+        assertEquals(3, sys.getStudents().size());
+    }
+    @Test
+    void testUpdateGrades() {
+        HashMap<Integer, Float> newGrades = new HashMap<>();
+        newGrades.put(10154707, 80.8f);
+        newGrades.put(10199398, 12.223f);
+        assertTrue(sys.updateGrades(newGrades).isApplied());
+        assertEquals(80.8f, sys.getStudents().get(10154707).getGrade());
+        assertEquals(12.223f, sys.getStudents().get(10199398).getGrade());
+
+        BatchResult result = sys.updateGrades(new int[] {10163270, 967, -1}, new float[] {1, 2, 3});
+        assertFalse(result.isApplied());
+        assertEquals(Status.NOT_FOUND, result.failureStatus(0));
+        assertEquals(Status.INVALID_ID, result.failureStatus(1));
+        assertEquals(70, sys.getStudents().get(10163270).getGrade());
+    }
+    @Test
+    void testUpdateGradesWithMismatchedArrays() {
+        IllegalArgumentException e = assertThrows(
+                IllegalArgumentException.class, () -> sys.updateGrades(new int[] {1, 2}, new float[] {1})
+        );
+        assertEquals("Got 2 ids but 1 grades, batch sizes must match", e.getMessage());
+    }
+    @Test
+    void testDeleteAll() {
+        BatchResult rejected = sys.deleteAll(new int[] {10154707, 10154707});
+        assertEquals(Status.DUPLICATE_IN_BATCH, rejected.statusOf(1));
+        assertEquals(3, sys.getStudents().size());
+
+        assertTrue(sys.deleteAll(new int[] {10154707, 10199398}).isApplied());
+        assertEquals(1, sys.getStudents().size());
+        assertTrue(sys.getStudents().containsKey(10163270));
+    }
+
+
+    @Test
+    void testTryOperationsReportStatus() {
+        assertEquals(Status.OK, sys.tryAdd(new Student("Henry", 23054570, 69)));
+        assertEquals(Status.ALREADY_EXISTS, sys.tryAdd(new Student("Henry", 23054570, 69)));
+        assertEquals(Status.INVALID_NAME, sys.tryAdd(new Student("Ke$ha", 5, 69)));
+        assertEquals(Status.INVALID_GRADE, sys.tryAdd(new Student("Henry", 5, 101)));
+        assertEquals(Status.INVALID_ID, sys.tryDelete(0));
+        assertEquals(Status.NOT_FOUND, sys.tryDelete(967));
+        assertEquals(Status.NOT_FOUND, sys.tryUpdateName(967, "Tim"));
+        assertEquals(Status.INVALID_NAME, sys.tryUpdateName(23054570, "tosh.o"));
+        assertEquals(Status.INVALID_NEW_ID, sys.tryUpdateId(23054570, -1));
+        assertEquals(Status.NEW_ID_EXISTS, sys.tryUpdateId(23054570, 10154707));
+        assertEquals(Status.NOT_FOUND, sys.tryUpdateGrade(967, 50));
+        assertEquals(Status.OK, sys.tryUpdateGrade(23054570, 50));
+        assertEquals(Status.OK, sys.tryUpdateId(23054570, 5));
+        assertEquals(Status.OK, sys.tryDelete(5));
+        assertEquals(3, sys.getStudents().size());
+        assertEquals(3, sys.size());
+    }
+    @Test
+    void testNaNGradeIsRejectedEverywhere() {
+        assertEquals(Status.INVALID_GRADE, sys.tryAdd(new Student("Henry", 5, Float.NaN)));
+        assertEquals(Status.INVALID_GRADE, sys.tryUpdateGrade(10154707, Float.NaN));
+        assertThrows(IllegalArgumentException.class, () -> sys.enroll("Henry", Float.NaN));
+        BatchResult added = sys.addAll(List.of(new Student("Henry", 5, Float.NaN)));
+        assertEquals(Status.INVALID_GRADE, added.statusOf(0));
+        BatchResult updated = sys.updateGrades(Map.of(10154707, Float.NaN));
+        assertEquals(Status.INVALID_GRADE, updated.statusOf(0));
+
+        assertEquals(3, sys.getStudents().size());
+        assertEquals(Status.OK, sys.tryUpdateGrade(10154707, 70));
+        assertEquals(70, sys.get(10154707).getGrade());
+        assertFalse(Double.isNaN(sys.statistics().mean()));
+    }
+    @Test
+    void testUpdateGradeOfMissingStudent() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> sys.updateGrade(967, 50));
+        assertEquals("Student with id 967 does not exist in the system", e.getMessage());
+    }
+    @Test
+    void testNameValidatorMatchesNameFormat() {
+        Pattern nameFormat = Pattern.compile("[a-zA-Z][a-zA-Z ]+[a-zA-Z]");
+        char[] alphabet = {'a', 'Z', ' ', '1', '.', '$', 'é', '\n'};
+        Random random = new Random(5);
+        for (int i = 0; i < 100000; i++) {
+            char[] name = new char[random.nextInt(6)];
+            for (int j = 0; j < name.length; j++) {
+                name[j] = alphabet[random.nextInt(alphabet.length)];
+            }
+            String candidate = new String(name);
+            assertEquals(nameFormat.matcher(candidate).matches(), RecordSystem.isValidName(candidate), candidate);
+        }
+    }
+
+
+    @ParameterizedTest
+    @CsvSource({
+            "ID, 0, 3, 10154707 10163270 10199398",
+            "NAME, 0, 3, 10154707 10199398 10163270",
+            "GRADE, 0, 3, 10199398 10163270 10154707",
+            "GRADE_DESCENDING, 1, 5, 10163270 10199398",
+            "NAME, 2, 1, 10163270",
+            "ID, 3, 1, ''",
+            ", 1, 5, 10163270 10199398",
+            ", 0, 1, 10154707"
+    })
+    void testRenderPage(SortOrder order, int offset, int limit, String expectedIds) throws IOException {
+        StringBuilder out = new StringBuilder();
+        sys.render(out, order, offset, limit);
+        String[] lines = out.toString().split("\n");
+        StringBuilder ids = new StringBuilder();
+        for (int i = 5; i < lines.length - 1; i++) {
+            ids.append(ids.isEmpty() ? "" : " ").append(lines[i], 1, 9);
+        }
+        assertEquals(expectedIds, ids.toString());
+    }
+    @Test
+    void testRenderFormatsGradesLikePrintf() throws IOException {
+        RecordSystem grades = new RecordSystem();
+        float[] values = {0, 0.005f, 0.125f, 33.335f, 69.999f, 99.995f, 100};
+        for (int i = 0; i < values.length; i++) {
+            grades.add(new Student("Henry", i + 1, values[i]));
+        }
+        StringBuilder out = new StringBuilder();
+        grades.render(out, SortOrder.ID, 0, values.length);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            expected.append(String.format("|%1$-15d|%2$-70s|%3$.2f|\n", i + 1, "Henry", values[i]));
+        }
+        assertTrue(out.toString().contains(expected), out.toString());
+    }
+    @Test
+    void testRenderRejectsNegativePage() {
+        IllegalArgumentException e = assertThrows(
+                IllegalArgumentException.class, () -> sys.render(new StringBuilder(), SortOrder.ID, -1, 10)
+        );
+        assertEquals("Invalid page offset -1, limit 10. Both must not be negative", e.getMessage());
+    }
+
+
+    @Test
+    void testStatisticsFollowMutations() {
+        GradeStatistics stats = sys.statistics();
+        assertEquals(3, stats.count());
+        assertEquals(209 / 3.0, stats.mean(), 1e-9);
+        assertEquals(57, stats.min());
+        assertEquals(82, stats.max());
+        assertEquals(70, stats.median());
+        assertEquals(1, stats.bandSize(5));
+
+        sys.updateGrade(10199398, 100);
+        sys.updateId(10163270, 5);
+        sys.add(new Student("Henry", 23054570, 60));
+        sys.delete(10154707);
+        stats = sys.statistics();
+        assertEquals(3, stats.count());
+        assertEquals(60, stats.min());
+        assertEquals(100, stats.max());
+        assertEquals(70, stats.median());
+        assertEquals(0, stats.bandSize(5));
+        assertEquals(1, stats.bandSize(GradeStatistics.bandCount - 1));
+        assertEquals(Math.sqrt(2600 / 9.0), stats.standardDeviation(), 1e-6);
+    }
+    @Test
+    void testStatisticsMatchFullScan() {
+        RecordSystem random = RecordSystem.concurrent(4);
+        Random generator = new Random(11);
+        for (int i = 0; i < 20000; i++) {
+            int id = generator.nextInt(5000) + 1;
+            random.tryAdd(new Student("Henry", id, generator.nextInt(10001) / 100f));
+            random.tryUpdateGrade(generator.nextInt(5000) + 1, generator.nextInt(10001) / 100f);
+            random.tryDelete(generator.nextInt(5000) + 1);
+        }
+        double[] grades = random.getStudents().values().stream().mapToDouble(Student::getGrade).sorted().toArray();
+        GradeStatistics stats = random.statistics();
+        assertEquals(grades.length, stats.count());
+        double mean = Arrays.stream(grades).average().orElseThrow();
+        assertEquals(mean, stats.mean(), 1e-6);
+        assertEquals(grades[0], stats.min());
+        assertEquals(grades[grades.length - 1], stats.max());
+        double median = grades.length % 2 == 1
+                ? grades[grades.length / 2]
+                : (grades[grades.length / 2 - 1] + grades[grades.length / 2]) / 2;
+        assertEquals(median, stats.median(), 1e-4);
+        int inTopBand = (int) Arrays.stream(grades).filter(grade -> grade >= 90).count();
+        assertEquals(inTopBand, stats.bandSize(9));
+    }
+    @Test
+    void testStatisticsOfEmptySystem() {
+        GradeStatistics stats = new RecordSystem().statistics();
+        assertEquals(0, stats.count());
+        assertTrue(Double.isNaN(stats.mean()));
+        assertTrue(Float.isNaN(stats.median()));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> stats.bandSize(10));
+        assertEquals("Invalid band 10. Band must be between 0 and 9", e.getMessage());
+    }
+
+
+    @Test
+    void testSnapshotIsPointInTime() {
+        RecordSystem versioned = RecordSystem.versioned(4);
+        for (Student student : sys.getStudents().values()) {
+            versioned.add(student);
+        }
+        for (RecordSystem system : List.of(sys, versioned)) {
+            RosterSnapshot snapshot = system.snapshot();
+            system.updateGrade(10154707, 12);
+            system.delete(10199398);
+            system.add(new Student("Henry", 23054570, 69));
+            assertEquals(3, snapshot.size());
+            assertEquals(new Student("Jason", 10154707, 82), snapshot.get(10154707));
+            assertTrue(snapshot.contains(10199398));
+            assertNull(snapshot.get(23054570));
+            assertEquals(system.getStudents(), system.snapshot().toMap());
+        }
+    }
+    @Test
+    void testVersionedViewAllAndSave() throws IOException {
+        RecordSystem versioned = RecordSystem.versioned(2);
+        for (Student student : sys.getStudents().values()) {
+            versioned.add(student);
+        }
+        sys.viewAll();
+        String expected = outContent.toString();
+        outContent.reset();
+        versioned.viewAll();
+        assertEquals(expected, outContent.toString());
+
+        versioned.save("versioned");
+        RecordSystem loaded = new RecordSystem();
+        loaded.load("versioned");
+        assertEquals(sys.getStudents(), loaded.getStudents());
+        Files.delete(new File("versioned.txt").toPath());
+    }
+
+
+    @Test
+    void testLoadParallel() throws IOException {
+        sys.save("parallel");
+        RecordSystem loaded = new RecordSystem();
+        assertTrue(loaded.loadParallel("parallel", 2).isApplied());
+        assertEquals(sys.getStudents(), loaded.getStudents());
+
+        BatchResult again = loaded.loadParallel("parallel", 2);
+        assertEquals(3, again.failureCount());
+        assertEquals(Status.ALREADY_EXISTS, again.failureStatus(0));
+        assertEquals(3, loaded.getStudents().size());
+        Files.delete(new File("parallel.txt").toPath());
+    }
+    @Test
+    void testLoadParallelRejectsDuplicateIdsInFile() throws IOException {
+        Files.writeString(new File("duplicates.txt").toPath(), "1,Jason,82\n2,John,57\n1,Henry,69\n");
+        RecordSystem loaded = new RecordSystem();
+        BatchResult result = loaded.loadParallel("duplicates", 4);
+        assertEquals(Status.DUPLICATE_IN_BATCH, result.statusOf(2));
+        assertEquals(0, loaded.getStudents().size());
+        Files.delete(new File("duplicates.txt").toPath());
+    }
+    @Test
+    void testLoadParallelRejectsInvalidWorkerCount() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> sys.loadParallel("test", 0));
+        assertEquals("Invalid worker count 0. Worker count must be positive", e.getMessage());
+    }
 }
@@ -0,0 +1,111 @@
+package studentrecordsystem.recordsystem;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import studentrecordsystem.student.Student;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RosterAnalyticsTest {
+    private final static String[] names = {"Jason", "john", "Sanchayata", "Henry", "Tim", "sarah"};
+
+    private static RecordSystem sys;
+    private static ForkJoinPool singleThread;
+    private static ForkJoinPool fourThreads;
+
+    @BeforeAll
+    static void setUpRoster() {
+        sys = new RecordSystem();
+        Random random = new Random(3);
+        for (int id = 1; id <= 50000; id++) {
+            sys.add(new Student(names[random.nextInt(names.length)], id, random.nextInt(10001) / 100f));
+        }
+        singleThread = new ForkJoinPool(1);
+        fourThreads = new ForkJoinPool(4);
+    }
+    @AfterAll
+    static void shutDownPools() {
+        singleThread.shutdown();
+        fourThreads.shutdown();
+    }
+
+    private static double[] sortedGrades(char initial) {
+        return sys.getStudents().values().stream()
+                .filter(student -> initial == 0 || Character.toUpperCase(student.getName().charAt(0)) == initial)
+                .mapToDouble(Student::getGrade)
+                .sorted()
+                .toArray();
+    }
+
+
+    @ParameterizedTest
+    @CsvSource({"0", "0.01", "25", "50", "99.9", "100"})
+    void testPercentileMatchesNearestRank(double percentile) {
+        double[] grades = sortedGrades((char) 0);
+        int rank = Math.max(1, (int) Math.ceil(percentile / 100 * grades.length));
+        assertEquals((float) grades[rank - 1], new RosterAnalytics(sys, fourThreads).percentile(percentile));
+    }
+    @Test
+    void testDistributionByInitialMatchesSequentialScan() {
+        SortedMap<Character, GradeStatistics> distribution = new RosterAnalytics(sys, fourThreads).distributionByInitial();
+        assertEquals("[H, J, S, T]", distribution.keySet().toString());
+        for (var entry : distribution.entrySet()) {
+            double[] grades = sortedGrades(entry.getKey());
+            GradeStatistics stats = entry.getValue();
+            assertEquals(grades.length, stats.count());
+            assertEquals((float) grades[0], stats.min());
+            assertEquals((float) grades[grades.length - 1], stats.max());
+            double mean = 0;
+            for (double grade : grades) {
+                mean += grade;
+            }
+            assertEquals(mean / grades.length, stats.mean(), 1e-6);
+        }
+    }
+    @Test
+    void testResultsDoNotDependOnThreadCount() {
+        RosterAnalytics sequential = new RosterAnalytics(sys, singleThread);
+        RosterAnalytics parallel = new RosterAnalytics(sys, fourThreads);
+        assertEquals(sequential.summary().mean(), parallel.summary().mean());
+        assertEquals(sequential.summary().standardDeviation(), parallel.summary().standardDeviation());
+        assertEquals(sequential.summary().median(), parallel.summary().median());
+        assertEquals(sequential.outliers(1.5), parallel.outliers(1.5));
+    }
+    @Test
+    void testVersionedSystemIsReadFromItsSnapshot() {
+        RecordSystem versioned = RecordSystem.versioned(4);
+        sys.store().forEach(versioned::putRecord);
+        RosterAnalytics analytics = new RosterAnalytics(versioned, fourThreads);
+        versioned.updateGrade(1, 100);
+        versioned.delete(2);
+
+        RosterAnalytics expected = new RosterAnalytics(sys, fourThreads);
+        assertEquals(expected.size(), analytics.size());
+        assertEquals(expected.summary().mean(), analytics.summary().mean());
+        assertEquals(expected.percentile(90), analytics.percentile(90));
+        assertEquals(expected.outliers(1.5), analytics.outliers(1.5));
+    }
+    @Test
+    void testOutliers() {
+        RecordSystem small = new RecordSystem();
+        for (int id = 1; id <= 9; id++) {
+            small.add(new Student("Henry", id, 50));
+        }
+        small.add(new Student("Tim", 10, 100));
+        small.add(new Student("Sarah", 11, 0));
+        assertEquals(
+                Arrays.asList(new Student("Tim", 10, 100), new Student("Sarah", 11, 0)),
+                new RosterAnalytics(small).outliers(2)
+        );
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> new RosterAnalytics(small).outliers(-1));
+        assertEquals("Invalid z-score -1.0. Z-score must not be negative", e.getMessage());
+    }
+}
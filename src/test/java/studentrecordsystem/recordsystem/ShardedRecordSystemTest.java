@@ -0,0 +1,208 @@
+package studentrecordsystem.recordsystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import studentrecordsystem.student.Student;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedRecordSystemTest {
+    private static ShardedRecordSystem filled(ShardedRecordSystem sys, int count) {
+        for (int id = 1; id <= count; id++) {
+            sys.add(new Student("Student", id, id % 101));
+        }
+        return sys;
+    }
+
+    private static void deleteShardFiles(String fileName, int shardCount) {
+        for (int shard = 0; shard < shardCount; shard++) {
+            new File(fileName + "-" + shard + "-of-" + shardCount + ".txt").delete();
+        }
+    }
+
+
+    @ParameterizedTest
+    @CsvSource({
+            "1", "3", "8"
+    })
+    void testHashedRoutesEveryIdToOneShard(int shardCount) {
+        ShardedRecordSystem sys = filled(ShardedRecordSystem.hashed(shardCount), 5000);
+        assertEquals(5000, sys.size());
+        for (int shard = 0; shard < shardCount; shard++) {
+            HashMap<Integer, Student> students = sys.shard(shard).getStudents();
+            assertTrue(students.size() > 5000 / shardCount / 2);
+            for (int id : students.keySet()) {
+                assertEquals(shard, sys.shardOf(id));
+            }
+        }
+        assertEquals(5000, sys.getStudents().size());
+    }
+    @Test
+    void testRangedRoutesByIdRange() {
+        ShardedRecordSystem sys = filled(ShardedRecordSystem.ranged(3, 100), 450);
+        assertEquals(0, sys.shardOf(1));
+        assertEquals(0, sys.shardOf(100));
+        assertEquals(1, sys.shardOf(101));
+        assertEquals(2, sys.shardOf(201));
+        assertEquals(2, sys.shardOf(Integer.MAX_VALUE));
+        assertEquals(100, sys.shard(0).getStudents().size());
+        assertEquals(100, sys.shard(1).getStudents().size());
+        assertEquals(250, sys.shard(2).getStudents().size());
+    }
+    @Test
+    void testRoutesUpdatesAndDeletes() {
+        ShardedRecordSystem sys = filled(ShardedRecordSystem.hashed(4), 100);
+        sys.updateName(7, "Renamed");
+        sys.updateGrade(8, 99);
+        sys.delete(9);
+        assertEquals(Status.NOT_FOUND, sys.tryDelete(9));
+        assertEquals(Status.ALREADY_EXISTS, sys.tryAdd(new Student("Student", 10, 50)));
+        HashMap<Integer, Student> students = sys.getStudents();
+        assertEquals("Renamed", students.get(7).getName());
+        assertEquals(99, students.get(8).getGrade());
+        assertFalse(students.containsKey(9));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> sys.delete(9));
+        assertEquals("Student with id 9 does not exist in the system", e.getMessage());
+    }
+    @Test
+    void testUpdateIdMovesBetweenShards() {
+        ShardedRecordSystem sys = filled(ShardedRecordSystem.ranged(2, 100), 150);
+        sys.updateId(5, 500);
+        assertEquals(Status.NOT_FOUND, sys.tryUpdateId(5, 501));
+        assertEquals(Status.NEW_ID_EXISTS, sys.tryUpdateId(6, 120));
+        assertEquals(Status.INVALID_NEW_ID, sys.tryUpdateId(6, 0));
+        sys.updateId(130, 5);
+        sys.updateId(31, 32000);
+
+        HashMap<Integer, Student> students = sys.getStudents();
+        assertEquals(150, students.size());
+        assertEquals(new Student("Student", 500, 5), students.get(500));
+        assertEquals(new Student("Student", 5, 130 % 101), students.get(5));
+        assertFalse(sys.shard(0).getStudents().containsKey(500));
+        assertTrue(sys.shard(1).getStudents().containsKey(500));
+        assertTrue(sys.shard(0).findByGradeRange(5, 5).isEmpty());
+        assertTrue(sys.shard(1).findByGradeRange(5, 5).contains(new Student("Student", 500, 5)));
+        assertEquals(99, sys.shard(0).statistics().count());
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> sys.updateId(6, 120));
+        assertEquals("New ID: 120 already exists in the system", e.getMessage());
+    }
+    @Test
+    void testConcurrentMovesBetweenShardsKeepEveryStudent() throws Exception {
+        ShardedRecordSystem sys = filled(ShardedRecordSystem.ranged(2, 1000), 200);
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 2; t++) {
+            int first = t * 100 + 1;
+            futures.add(pool.submit(() -> {
+                for (int round = 0; round < 200; round++) {
+                    for (int id = first; id < first + 100; id++) {
+                        assertEquals(Status.OK, sys.tryUpdateId(id, id + 1000));
+                    }
+                    for (int id = first; id < first + 100; id++) {
+                        assertEquals(Status.OK, sys.tryUpdateId(id + 1000, id));
+                    }
+                }
+                return null;
+            }));
+        }
+        futures.add(pool.submit(() -> {
+            while (running.get()) {
+                assertEquals(200, sys.getStudents().size());
+            }
+            return null;
+        }));
+        for (int i = 0; i < 2; i++) {
+            futures.get(i).get();
+        }
+        running.set(false);
+        futures.get(2).get();
+        pool.shutdown();
+        assertEquals(200, sys.size());
+    }
+    @Test
+    void testSaveAndLoadShardFiles() throws IOException {
+        ShardedRecordSystem sys = filled(ShardedRecordSystem.ranged(4, 100), 250);
+        try {
+            sys.save("shardedTest");
+            for (int shard = 0; shard < 4; shard++) {
+                assertTrue(new File("shardedTest-" + shard + "-of-4.txt").exists());
+            }
+            assertEquals(0, new File("shardedTest-3-of-4.txt").length());
+
+            ShardedRecordSystem loaded = ShardedRecordSystem.hashed(4);
+            loaded.load("shardedTest");
+            assertEquals(sys.getStudents(), loaded.getStudents());
+            for (int id = 1; id <= 250; id++) {
+                assertTrue(loaded.shard(loaded.shardOf(id)).getStudents().containsKey(id));
+            }
+
+            FileNotFoundException e = assertThrows(
+                    FileNotFoundException.class, () -> ShardedRecordSystem.hashed(2).load("shardedTest")
+            );
+            assertEquals("File shardedTest-0-of-2.txt is missing", e.getMessage());
+        } finally {
+            deleteShardFiles("shardedTest", 4);
+        }
+    }
+    @Test
+    void testSaveDuringMovesBetweenShardsKeepsEveryStudentOnce() throws Exception {
+        ShardedRecordSystem sys = filled(ShardedRecordSystem.ranged(2, 1000), 200);
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<?> mover = pool.submit(() -> {
+            while (running.get()) {
+                for (int id = 1; id <= 200; id++) {
+                    assertEquals(Status.OK, sys.tryUpdateId(id, id + 1000));
+                    assertEquals(Status.OK, sys.tryUpdateId(id + 1000, id));
+                }
+            }
+            return null;
+        });
+        try {
+            for (int round = 0; round < 20; round++) {
+                sys.save("shardedMoveTest");
+                ShardedRecordSystem loaded = ShardedRecordSystem.ranged(2, 1000);
+                loaded.load("shardedMoveTest");
+                assertEquals(200, loaded.size());
+            }
+        } finally {
+            running.set(false);
+            mover.get();
+            pool.shutdown();
+            deleteShardFiles("shardedMoveTest", 2);
+        }
+    }
+    @Test
+    void testSaveEmptySystem() {
+        IOException e = assertThrows(IOException.class, () -> ShardedRecordSystem.hashed(2).save("shardedTest"));
+        assertEquals("Student File System is empty", e.getMessage());
+    }
+    @ParameterizedTest
+    @CsvSource({
+            "0, 'Invalid shard count 0. Shard count must be positive'",
+            "-2, 'Invalid shard count -2. Shard count must be positive'"
+    })
+    void testInvalidShardCount(int shardCount, String message) {
+        IllegalArgumentException e = assertThrows(
+                IllegalArgumentException.class, () -> ShardedRecordSystem.hashed(shardCount)
+        );
+        assertEquals(message, e.getMessage());
+        e = assertThrows(IllegalArgumentException.class, () -> ShardedRecordSystem.ranged(2, shardCount));
+        assertEquals(String.format("Invalid range size %d. Range size must be positive", shardCount), e.getMessage());
+        e = assertThrows(IllegalArgumentException.class, () -> ShardedRecordSystem.hashed(2).shard(2));
+        assertEquals("Invalid shard 2. Shard must be between 0 and 1", e.getMessage());
+    }
+}
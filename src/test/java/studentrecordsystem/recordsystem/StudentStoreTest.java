@@ -0,0 +1,272 @@
+package studentrecordsystem.recordsystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import studentrecordsystem.student.Student;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StudentStoreTest {
+    static Stream<StudentStore> stores() throws IOException {
+        return Stream.of(
+                new ColumnarStudentStore(), new OffHeapStudentStore(4), new PersistentStudentStore(), diskStore(4)
+        );
+    }
+
+    private static DiskStudentStore diskStore(int cacheSize) throws IOException {
+        Path file = Files.createTempFile("students", ".db");
+        file.toFile().deleteOnExit();
+        return DiskStudentStore.open(file, cacheSize);
+    }
+
+    private static HashMap<Integer, Student> contents(StudentStore store) {
+        HashMap<Integer, Student> actual = new HashMap<>();
+        store.forEach((id, name, grade) -> actual.put(id, new Student(name, id, grade)));
+        return actual;
+    }
+
+
+    @ParameterizedTest
+    @MethodSource("stores")
+    void testInsertAndGet(StudentStore store) {
+        assertTrue(store.insert(10154707, "Jason", 82));
+        assertFalse(store.insert(10154707, "Jason", 82));
+        assertEquals(new Student("Jason", 10154707, 82), store.get(10154707));
+        assertNull(store.get(1));
+        assertEquals(1, store.size());
+    }
+    @ParameterizedTest
+    @MethodSource("stores")
+    void testUpdates(StudentStore store) {
+        store.insert(10163270, "Sanchayata", 70);
+        assertEquals("Sanchayata", store.setName(10163270, "Sancha"));
+        assertEquals(70, store.setGrade(10163270, 77.2f));
+        assertTrue(store.move(10163270, 2));
+        assertFalse(store.contains(10163270));
+        assertEquals(new Student("Sancha", 2, 77.2f), store.get(2));
+        assertNull(store.setName(10163270, "Sancha"));
+        assertTrue(Float.isNaN(store.setGrade(10163270, 1)));
+        assertFalse(store.move(10163270, 3));
+    }
+    @ParameterizedTest
+    @MethodSource("stores")
+    void testMoveOntoExistingId(StudentStore store) {
+        store.insert(1, "Jason", 82);
+        store.insert(2, "John", 57);
+        assertFalse(store.move(1, 2));
+        assertEquals(new Student("Jason", 1, 82), store.get(1));
+    }
+    @ParameterizedTest
+    @MethodSource("stores")
+    void testMatchesHashMapUnderRandomOperations(StudentStore store) {
+        HashMap<Integer, Student> expected = new HashMap<>();
+        String[] names = {"Jason", "Sanchayata", "John", "Jonathan Woodgate", "Sarah"};
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            int id = 1 + random.nextInt(500);
+            String name = names[random.nextInt(names.length)];
+            float grade = random.nextInt(10001) / 100f;
+            switch (random.nextInt(4)) {
+                case 0 -> assertEquals(expected.putIfAbsent(id, new Student(name, id, grade)) == null,
+                        store.insert(id, name, grade));
+                case 1 -> assertEquals(expected.remove(id), store.remove(id));
+                case 2 -> {
+                    Student student = expected.get(id);
+                    String previous = store.setName(id, name);
+                    assertEquals(student == null ? null : student.getName(), previous);
+                    if (student != null) {
+                        student.setName(name);
+                    }
+                }
+                default -> {
+                    int newId = 1 + random.nextInt(500);
+                    boolean moved = expected.containsKey(id) && !expected.containsKey(newId);
+                    assertEquals(moved, store.move(id, newId));
+                    if (moved) {
+                        Student student = expected.remove(id);
+                        student.setId(newId);
+                        expected.put(newId, student);
+                    }
+                }
+            }
+        }
+
+        HashMap<Integer, Student> actual = new HashMap<>();
+        store.forEach((id, name, grade) -> actual.put(id, new Student(name, id, grade)));
+        assertEquals(expected, actual);
+        assertEquals(expected.size(), store.size());
+    }
+    @ParameterizedTest
+    @MethodSource("stores")
+    void testSparseIdsRoundTrip(StudentStore store) {
+        HashMap<Integer, Student> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            int id = 1 + random.nextInt(Integer.MAX_VALUE);
+            expected.put(id, new Student("Sarah", id, 50));
+            store.put(id, "Sarah", 50);
+        }
+        Integer[] ids = expected.keySet().toArray(new Integer[0]);
+        for (int i = 0; i < ids.length; i += 2) {
+            assertEquals(expected.remove(ids[i]), store.remove(ids[i]));
+        }
+        HashMap<Integer, Student> actual = new HashMap<>();
+        store.forEach((id, name, grade) -> actual.put(id, new Student(name, id, grade)));
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void testColumnarStoreInternsNames() {
+        ColumnarStudentStore store = new ColumnarStudentStore();
+        for (int id = 1; id <= 1000; id++) {
+            store.insert(id, id % 2 == 0 ? "John" : "Sarah", 50);
+        }
+        assertEquals(2, store.distinctNames());
+        store.setName(1, "Henry");
+        assertEquals(3, store.distinctNames());
+        store.setName(1, "John");
+        assertEquals(2, store.distinctNames());
+        for (int id = 1; id <= 1000; id += 2) {
+            store.remove(id);
+        }
+        assertEquals(1, store.distinctNames());
+        assertEquals(new Student("John", 2, 50), store.get(2));
+        for (int id = 2; id <= 1000; id += 2) {
+            store.remove(id);
+        }
+        assertEquals(0, store.distinctNames());
+        store.insert(7, "Jonathan Woodgate", 50);
+        assertEquals(new Student("Jonathan Woodgate", 7, 50), store.get(7));
+    }
+    @Test
+    void testDiskStoreKeepsOnlyCacheSizeRecordsInMemory() throws IOException {
+        try (DiskStudentStore store = diskStore(100)) {
+            for (int id = 1; id <= 10000; id++) {
+                store.insert(id, "Student", id % 101);
+            }
+            assertEquals(100, store.cachedRecords());
+            for (int id = 1; id <= 10000; id += 7) {
+                assertEquals(new Student("Student", id, id % 101), store.get(id));
+                assertEquals(id % 101, store.setGrade(id, 1));
+            }
+            assertEquals(100, store.cachedRecords());
+            assertEquals(10000, store.size());
+            assertEquals(1, store.get(8).getGrade());
+            assertEquals(9, store.get(9).getGrade());
+        }
+    }
+    @Test
+    void testDiskStoreReopens() throws IOException {
+        Path file = Files.createTempFile("students", ".db");
+        file.toFile().deleteOnExit();
+        HashMap<Integer, Student> expected;
+        try (DiskStudentStore store = DiskStudentStore.open(file, 8)) {
+            for (int id = 1; id <= 500; id++) {
+                store.insert(id, id % 2 == 0 ? "John" : "Jonathan Woodgate", id % 101);
+            }
+            store.flush();
+            for (int id = 1; id <= 500; id += 3) {
+                store.remove(id);
+            }
+            store.setName(2, "Henry");
+            store.move(4, 4000);
+            store.insert(1, "Sarah", 99);
+            expected = contents(store);
+        }
+        try (DiskStudentStore store = DiskStudentStore.open(file, 8)) {
+            assertEquals(expected.size(), store.size());
+            assertEquals(expected, contents(store));
+            assertEquals(new Student("Sarah", 1, 99), store.get(1));
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {1, 0, 0, 0, 0, 0, 0, 0, 0, 20, 'A'}), channel.size());
+        }
+        try (DiskStudentStore store = DiskStudentStore.open(file, 8)) {
+            assertEquals(expected, contents(store));
+            assertEquals(0, Files.size(file) % 8);
+        }
+    }
+    @Test
+    void testDiskStoreCompacts() throws IOException {
+        try (DiskStudentStore store = diskStore(16)) {
+            for (int id = 1; id <= 2000; id++) {
+                store.insert(id, "Student", 50);
+            }
+            store.flush();
+            long initialSize = store.fileSize();
+            for (int round = 0; round < 5; round++) {
+                for (int id = 1; id <= 2000; id++) {
+                    store.setGrade(id, round);
+                }
+            }
+            for (int id = 1; id <= 1000; id++) {
+                store.remove(id);
+            }
+            store.flush();
+            assertTrue(store.fileSize() < initialSize);
+            HashMap<Integer, Student> actual = contents(store);
+            assertEquals(1000, actual.size());
+            assertEquals(new Student("Student", 1500, 4), actual.get(1500));
+            assertEquals(new Student("Student", 2000, 4), store.get(2000));
+        }
+    }
+    @Test
+    void testDiskStoreServesConcurrentReaders() throws Exception {
+        try (DiskStudentStore store = diskStore(8)) {
+            for (int id = 1; id <= 1000; id++) {
+                store.insert(id, "Student " + "x".repeat(id % 7), id % 101);
+            }
+            store.flush();
+            Thread[] readers = new Thread[4];
+            Throwable[] failures = new Throwable[readers.length];
+            for (int t = 0; t < readers.length; t++) {
+                int seed = t;
+                readers[t] = new Thread(() -> {
+                    try {
+                        Random random = new Random(seed);
+                        for (int i = 0; i < 20000; i++) {
+                            int id = random.nextInt(1000) + 1;
+                            assertEquals(new Student("Student " + "x".repeat(id % 7), id, id % 101), store.get(id));
+                        }
+                    } catch (Throwable e) {
+                        failures[seed] = e;
+                    }
+                });
+                readers[t].start();
+            }
+            for (int t = 0; t < readers.length; t++) {
+                readers[t].join();
+                assertNull(failures[t]);
+            }
+            assertEquals(8, store.cachedRecords());
+        }
+    }
+    @Test
+    void testRecordSystemOverDiskStore() throws IOException {
+        try (DiskStudentStore store = diskStore(10)) {
+            RecordSystem sys = new RecordSystem(store);
+            for (int id = 1; id <= 100; id++) {
+                sys.add(new Student("Student", id, id));
+            }
+            sys.updateId(5, 500);
+            sys.updateGrade(6, 0);
+            sys.delete(7);
+            assertEquals(99, sys.getStudents().size());
+            assertEquals(new Student("Student", 500, 5), sys.get(500));
+            assertEquals(2, sys.findByGradeRange(0, 1).size());
+            assertEquals(99, sys.statistics().count());
+        }
+    }
+}
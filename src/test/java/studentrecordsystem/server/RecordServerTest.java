@@ -0,0 +1,154 @@
+package studentrecordsystem.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import studentrecordsystem.recordsystem.RecordSystem;
+import studentrecordsystem.recordsystem.Status;
+import studentrecordsystem.student.Student;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordServerTest {
+    private final static String host = InetAddress.getLoopbackAddress().getHostAddress();
+
+    private RecordSystem records;
+    private RecordServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        records = RecordSystem.concurrent(16);
+        server = RecordServer.start(records, 0);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.close();
+    }
+
+
+    @Test
+    void testEveryOperation() throws IOException {
+        try (RecordClient client = new RecordClient(host, server.port())) {
+            assertEquals(Status.OK, client.tryAdd(new Student("John Doe", 1, 75)));
+            assertEquals(Status.OK, client.tryAdd(new Student("Jane Doe", 2, 90)));
+            assertEquals(Status.ALREADY_EXISTS, client.tryAdd(new Student("John Doe", 1, 75)));
+            assertEquals(Status.INVALID_NAME, client.tryAdd(new Student("J0hn", 3, 75)));
+            assertEquals(new Student("John Doe", 1, 75), client.get(1));
+            assertNull(client.get(3));
+
+            assertEquals(Status.OK, client.tryUpdateName(1, "Jack Doe"));
+            assertEquals(Status.OK, client.tryUpdateGrade(1, 80));
+            assertEquals(Status.INVALID_GRADE, client.tryUpdateGrade(1, 101));
+            assertEquals(Status.OK, client.tryUpdateId(1, 10));
+            assertEquals(Status.NEW_ID_EXISTS, client.tryUpdateId(10, 2));
+            assertEquals(new Student("Jack Doe", 10, 80), client.get(10));
+
+            assertEquals(List.of(new Student("Jack Doe", 10, 80)), client.findByGradeRange(70, 85, 10));
+            assertEquals(1, client.findByGradeRange(0, 100, 1).size());
+            assertEquals(Status.OK, client.tryDelete(10));
+            assertEquals(Status.NOT_FOUND, client.tryDelete(10));
+        }
+        assertEquals(1, records.getStudents().size());
+        assertEquals(new Student("Jane Doe", 2, 90), records.get(2));
+    }
+    @Test
+    void testPipelinedResponsesComeBackInOrder() throws IOException {
+        try (RecordClient client = new RecordClient(host, server.port())) {
+            for (int id = 1; id <= 1000; id++) {
+                client.sendAdd(new Student("Student", id, id % 101));
+                client.sendGet(id);
+                client.sendAdd(new Student("Student", id, 50));
+            }
+            client.flush();
+            for (int id = 1; id <= 1000; id++) {
+                assertEquals(Status.OK, client.receive().status());
+                RecordClient.Response found = client.receive();
+                assertEquals(Status.OK, found.status());
+                assertEquals(List.of(new Student("Student", id, id % 101)), found.students());
+                assertEquals(Status.ALREADY_EXISTS, client.receive().status());
+            }
+        }
+        assertEquals(1000, records.statistics().count());
+    }
+    @Test
+    void testConcurrentClients() throws Exception {
+        ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int c = 0; c < 50; c++) {
+            int first = c * 100 + 1;
+            futures.add(pool.submit(() -> {
+                try (RecordClient client = new RecordClient(host, server.port())) {
+                    for (int id = first; id < first + 100; id++) {
+                        assertEquals(Status.OK, client.tryAdd(new Student("Student", id, 60)));
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        assertEquals(5000, records.getStudents().size());
+    }
+    @Test
+    void testLoadGenerator() throws IOException {
+        LoadGenerator.populate(host, server.port(), 1000);
+        assertEquals(1000, records.getStudents().size());
+        LoadGenerator.Report report = LoadGenerator.run(host, server.port(), 4, 16, 1000, Duration.ofMillis(300));
+        assertTrue(report.requests() > 0);
+        assertEquals(0, report.errors());
+        assertEquals(report.requests(), report.latency().count());
+        assertTrue(report.requestsPerSecond() > 0);
+        assertTrue(report.toString().contains("requests/s"));
+
+        IllegalArgumentException e = assertThrows(
+                IllegalArgumentException.class, () -> LoadGenerator.run(host, server.port(), 0, 1, 1, Duration.ZERO)
+        );
+        assertEquals(
+                "Invalid load of 0 connections, pipeline depth 1, id range 1. All must be positive", e.getMessage()
+        );
+    }
+    @Test
+    void testOverlongNameIsAnErrorStatus() throws IOException {
+        String longName = "A".repeat(40000);
+        try (RecordClient client = new RecordClient(host, server.port())) {
+            assertEquals(Status.NAME_TOO_LONG, client.tryAdd(new Student(longName, 1, 75)));
+            assertEquals(Status.OK, client.tryAdd(new Student("John Doe", 1, 75)));
+            assertEquals(Status.NAME_TOO_LONG, client.tryUpdateName(1, longName));
+            assertEquals(new Student("John Doe", 1, 75), client.get(1));
+        }
+        assertTrue(Protocol.fitsUtf("A".repeat(65535)));
+        assertFalse(Protocol.fitsUtf("A".repeat(65536)));
+        assertFalse(Protocol.fitsUtf("\u00e9".repeat(32768)));
+        assertTrue(Protocol.fitsUtf("\u20ac".repeat(21845)));
+    }
+    @Test
+    void testRejectsSingleThreadedRecordSystem() {
+        IllegalArgumentException e = assertThrows(
+                IllegalArgumentException.class, () -> RecordServer.start(new RecordSystem(), 0)
+        );
+        assertEquals(
+                "Record system is not thread-safe, use RecordSystem.concurrent or RecordSystem.versioned",
+                e.getMessage()
+        );
+    }
+    @Test
+    void testCloseDisconnectsClients() throws IOException {
+        RecordClient client = new RecordClient(host, server.port());
+        assertEquals(Status.NOT_FOUND, client.tryDelete(1));
+        server.close();
+        assertThrows(IOException.class, () -> client.get(1));
+        client.close();
+    }
+}